@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.edamontology.pubfetcher.core.db.publication.Publication;
+import org.edamontology.pubfetcher.core.db.publication.PublicationIds;
+import org.edamontology.pubfetcher.core.db.publication.PublicationPartType;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.Edam;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.idf.IdfMake;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+import org.edamontology.edammap.core.processing.Processor;
+import org.edamontology.edammap.core.query.Query;
+import org.edamontology.edammap.core.query.PublicationIdsQuery;
+import org.edamontology.edammap.core.query.QueryLoader;
+import org.edamontology.edammap.core.query.QueryType;
+
+// Fixtures checked in under src/main/resources/benchmarks (a subset of EDAM, some bio.tools entries and a publication full text)
+// They are copied to temporary files, as the loaders take file paths
+final class Fixtures {
+
+	static final String EDAM = "edam.owl";
+
+	static final String BIOTOOLS = "biotools.json";
+
+	static final String FULLTEXT = "fulltext.txt";
+
+	static final PublicationIdsQuery FULLTEXT_IDS = new PublicationIdsQuery(new PublicationIds("", "", "10.0000/edammap.benchmarks.fulltext", "", "", ""), "");
+
+	private Fixtures() {}
+
+	private static InputStream open(String name) {
+		InputStream is = Fixtures.class.getResourceAsStream("/benchmarks/" + name);
+		if (is == null) {
+			throw new UncheckedIOException(new IOException("Missing fixture " + name));
+		}
+		return is;
+	}
+
+	static Path copy(String name) throws IOException {
+		Path path = Files.createTempFile("edammap-benchmarks-", "-" + name);
+		path.toFile().deleteOnExit();
+		try (InputStream is = open(name)) {
+			Files.copy(is, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		return path;
+	}
+
+	static String read(String name) throws IOException {
+		try (InputStream is = open(name)) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = is.read(buffer)) != -1) {
+				bytes.write(buffer, 0, n);
+			}
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	static Map<EdamUri, Concept> concepts() throws IOException {
+		return Edam.load(copy(EDAM).toString());
+	}
+
+	static List<Query> queries(Map<EdamUri, Concept> concepts, CoreArgs args) throws IOException, ParseException {
+		return QueryLoader.get(copy(BIOTOOLS).toString(), QueryType.biotools, concepts,
+			args.getFetcherArgs().getTimeout(), args.getFetcherArgs().getPrivateArgs().getUserAgent());
+	}
+
+	// no fetching and no database, so that only the checked-in fixtures are used
+	// a publication with only the full text, to be given to Processor as if got from the database
+	static Publication publication(CoreArgs args) throws IOException {
+		Publication publication = new Publication();
+		publication.setFulltext(read(FULLTEXT), PublicationPartType.europepmc_xml, "", args.getFetcherArgs());
+		return publication;
+	}
+
+	static CoreArgs args(boolean stemming) {
+		CoreArgs args = new CoreArgs();
+		args.getProcessorArgs().setFetching(false);
+		args.getProcessorArgs().setDb("");
+		args.getPreProcessorArgs().setStemming(stemming);
+		return args;
+	}
+
+	static Processor processor(CoreArgs args) throws IOException, ParseException {
+		return new Processor(args.getProcessorArgs(), args.getFetcherArgs().getPrivateArgs());
+	}
+
+	// documents are query descriptions, concept definitions and full text paragraphs
+	static List<List<String>> documents(Map<EdamUri, Concept> concepts, List<Query> queries, PreProcessor pp) throws IOException {
+		List<List<String>> documents = new ArrayList<>();
+		for (Query query : queries) {
+			if (query.getDescription() != null) {
+				documents.add(pp.process(query.getDescription()));
+			}
+		}
+		for (Concept concept : concepts.values()) {
+			if (concept.getDefinition() != null) {
+				documents.add(pp.process(concept.getDefinition()));
+			}
+		}
+		for (String paragraph : read(FULLTEXT).split("\n\n")) {
+			documents.add(pp.process(paragraph));
+		}
+		return documents;
+	}
+
+	static IdfMake idfMake(List<List<String>> documents, String outputPath) throws IOException {
+		IdfMake idfMake = (outputPath != null ? new IdfMake(outputPath) : new IdfMake());
+		for (List<String> document : documents) {
+			idfMake.addTerms(document);
+			idfMake.endDocument();
+		}
+		return idfMake;
+	}
+}
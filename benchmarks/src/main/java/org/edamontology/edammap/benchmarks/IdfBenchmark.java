@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.idf.Idf;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+
+// Loading of an IDF file made from the fixtures at setup
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdfBenchmark {
+
+	private Path dir;
+
+	private String idfPath;
+
+	@Setup
+	public void setup() throws IOException, ParseException {
+		Map<EdamUri, Concept> concepts = Fixtures.concepts();
+		dir = Files.createTempDirectory("edammap-benchmarks-");
+		idfPath = dir.resolve("query.idf").toString();
+		Fixtures.idfMake(Fixtures.documents(concepts, Fixtures.queries(concepts, Fixtures.args(false)), new PreProcessor(false)), idfPath).writeOutput();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(dir.resolve("query.idf"));
+		Files.deleteIfExists(dir);
+	}
+
+	@Benchmark
+	public Idf load() throws IOException {
+		return new Idf(idfPath);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.mapping.Levenshtein;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+
+// Distances between all pairs of words from concept labels and synonyms, as done for approximate matching in Mapper
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevenshteinBenchmark {
+
+	@Param({ "1", "2", "3" })
+	public int maxDistance;
+
+	private String[] words;
+
+	private Levenshtein levenshtein;
+
+	@Setup
+	public void setup() throws IOException {
+		PreProcessor pp = new PreProcessor(false);
+		Set<String> wordSet = new LinkedHashSet<>();
+		for (Concept concept : Fixtures.concepts().values()) {
+			List<String> labels = new ArrayList<>();
+			labels.add(concept.getLabel());
+			labels.addAll(concept.getExactSynonyms());
+			labels.addAll(concept.getNarrowSynonyms());
+			for (String label : labels) {
+				wordSet.addAll(pp.process(label));
+			}
+		}
+		words = wordSet.toArray(new String[wordSet.size()]);
+		levenshtein = new Levenshtein();
+	}
+
+	@Benchmark
+	public long improved() {
+		long sum = 0;
+		for (int i = 0; i < words.length; ++i) {
+			for (int j = i + 1; j < words.length; ++j) {
+				sum += levenshtein.improved(words[i], words[j], maxDistance);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long standard() {
+		long sum = 0;
+		for (int i = 0; i < words.length; ++i) {
+			for (int j = i + 1; j < words.length; ++j) {
+				sum += Levenshtein.standard(words[i], words[j]);
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.edamontology.pubfetcher.core.db.DatabaseEntryType;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.Edam;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.idf.Idf;
+import org.edamontology.edammap.core.idf.IdfMake;
+import org.edamontology.edammap.core.mapping.Mapper;
+import org.edamontology.edammap.core.output.DatabaseEntryEntry;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+import org.edamontology.edammap.core.processing.Processor;
+import org.edamontology.edammap.core.processing.QueryProcessed;
+import org.edamontology.edammap.core.query.Query;
+import org.edamontology.edammap.core.query.QueryType;
+
+// Mapping of name-only queries, bio.tools queries with description and keywords, and a query with a publication full text
+// Links are removed from queries, so that no webpages, docs or publications are got, the full text publication is given as prefetched
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+	@Param({ "name", "description", "fulltext" })
+	public String query;
+
+	private CoreArgs args;
+
+	private Processor processor;
+
+	private Mapper mapper;
+
+	private List<Query> queries;
+
+	private List<QueryProcessed> processedQueries;
+
+	@Setup
+	public void setup() throws IOException, ParseException {
+		args = Fixtures.args(false);
+		processor = Fixtures.processor(args);
+		PreProcessor pp = new PreProcessor(args.getPreProcessorArgs());
+
+		Map<EdamUri, Concept> concepts = Fixtures.concepts();
+		mapper = new Mapper(processor.getProcessedConcepts(concepts, args.getMapperArgs().getIdfArgs(), args.getMapperArgs().getMultiplierArgs(), pp), Edam.getBlacklist());
+
+		List<Query> biotools = Fixtures.queries(concepts, args);
+		IdfMake idfMake = Fixtures.idfMake(Fixtures.documents(concepts, biotools, pp), null);
+		Idf idf = new Idf(idfMake.getIdf(), idfMake.getCounts(), idfMake.getDocumentCount());
+
+		queries = new ArrayList<>();
+		switch (query) {
+			case "name":
+				for (Query q : biotools) {
+					queries.add(new Query(q.getId(), q.getName(), null, null, null, null, null, q.getAnnotations()));
+				}
+				break;
+			case "description":
+				for (Query q : biotools) {
+					queries.add(new Query(q.getId(), q.getName(), q.getKeywords(), q.getDescription(), null, null, null, q.getAnnotations()));
+				}
+				break;
+			case "fulltext":
+				queries.add(new Query("fulltext", "RNA-Seq pipeline", null, null, null, null, Collections.singletonList(Fixtures.FULLTEXT_IDS), null));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown query " + query);
+		}
+
+		processedQueries = new ArrayList<>();
+		for (Query q : queries) {
+			if (q.getPublicationIds() != null) {
+				// goes through the same publication fulltext path as a publication got from the database
+				List<DatabaseEntryEntry> entries = Collections.singletonList(new DatabaseEntryEntry(Fixtures.publication(args), DatabaseEntryType.publication));
+				processedQueries.add(processor.getProcessedQueryPrefetched(q, QueryType.biotools, pp, idf, args.getFetcherArgs(), entries));
+			} else {
+				processedQueries.add(processor.getProcessedQuery(q, QueryType.biotools, pp, idf, args.getFetcherArgs(), null));
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		processor.closeDatabase();
+	}
+
+	@Benchmark
+	public void map(Blackhole bh) {
+		for (int i = 0; i < queries.size(); ++i) {
+			bh.consume(mapper.map(queries.get(i), processedQueries.get(i), args.getMapperArgs()));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+import org.edamontology.edammap.core.query.Query;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PreProcessorBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean stemming;
+
+	private PreProcessor pp;
+
+	private List<String> descriptions;
+
+	private String fulltext;
+
+	private List<String> fulltextSentences;
+
+	@Setup
+	public void setup() throws IOException, ParseException {
+		pp = new PreProcessor(stemming);
+		CoreArgs args = Fixtures.args(stemming);
+		descriptions = new ArrayList<>();
+		for (Query query : Fixtures.queries(Fixtures.concepts(), args)) {
+			if (query.getDescription() != null) {
+				descriptions.add(query.getDescription());
+			}
+		}
+		fulltext = Fixtures.read(Fixtures.FULLTEXT);
+		fulltextSentences = pp.sentences(fulltext);
+	}
+
+	@Benchmark
+	public void processDescriptions(Blackhole bh) {
+		for (String description : descriptions) {
+			bh.consume(pp.process(description));
+		}
+	}
+
+	@Benchmark
+	public void processFulltext(Blackhole bh) {
+		for (String sentence : fulltextSentences) {
+			bh.consume(pp.process(sentence));
+		}
+	}
+
+	@Benchmark
+	public List<String> sentencesFulltext() {
+		return pp.sentences(fulltext);
+	}
+}
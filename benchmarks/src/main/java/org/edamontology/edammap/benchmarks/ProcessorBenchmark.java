@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+import org.edamontology.edammap.core.processing.ConceptProcessed;
+import org.edamontology.edammap.core.processing.Processor;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessorBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean stemming;
+
+	private CoreArgs args;
+
+	private Processor processor;
+
+	private Map<EdamUri, Concept> concepts;
+
+	private PreProcessor pp;
+
+	@Setup
+	public void setup() throws IOException, ParseException {
+		args = Fixtures.args(stemming);
+		processor = Fixtures.processor(args);
+		concepts = Fixtures.concepts();
+		pp = new PreProcessor(args.getPreProcessorArgs());
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		processor.closeDatabase();
+	}
+
+	@Benchmark
+	public Map<EdamUri, ConceptProcessed> getProcessedConcepts() {
+		return processor.getProcessedConcepts(concepts, args.getMapperArgs().getIdfArgs(), args.getMapperArgs().getMultiplierArgs(), pp);
+	}
+}
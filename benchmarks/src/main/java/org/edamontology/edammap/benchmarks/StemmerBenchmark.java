@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.edamontology.edammap.core.cots.Stemmer;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+
+// Stemming of all (not stemmed) tokens of the full text, with one Stemmer reused like in PreProcessor
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StemmerBenchmark {
+
+	private char[][] tokens;
+
+	private Stemmer stemmer;
+
+	@Setup
+	public void setup() throws IOException {
+		List<String> tokenList = new PreProcessor(false).process(Fixtures.read(Fixtures.FULLTEXT));
+		tokens = new char[tokenList.size()][];
+		for (int i = 0; i < tokens.length; ++i) {
+			tokens[i] = tokenList.get(i).toCharArray();
+		}
+		stemmer = new Stemmer();
+	}
+
+	@Benchmark
+	public void stem(Blackhole bh) {
+		for (char[] token : tokens) {
+			stemmer.add(token, token.length);
+			stemmer.stem();
+			bh.consume(stemmer.toString());
+		}
+	}
+}
@@ -19,13 +19,23 @@
 
 package org.edamontology.edammap.cli;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -44,8 +54,12 @@ import org.edamontology.edammap.core.edam.Concept;
 import org.edamontology.edammap.core.edam.Edam;
 import org.edamontology.edammap.core.edam.EdamUri;
 import org.edamontology.edammap.core.idf.Idf;
+import org.edamontology.edammap.core.input.DatabaseEntryId;
+import org.edamontology.edammap.core.input.UncheckedParseException;
 import org.edamontology.edammap.core.mapping.Mapper;
 import org.edamontology.edammap.core.mapping.Mapping;
+import org.edamontology.edammap.core.mapping.QueryMatchType;
+import org.edamontology.edammap.core.output.DatabaseEntryEntry;
 import org.edamontology.edammap.core.output.Output;
 import org.edamontology.edammap.core.preprocessing.PreProcessor;
 import org.edamontology.edammap.core.processing.ConceptProcessed;
@@ -53,6 +67,7 @@ import org.edamontology.edammap.core.processing.Processor;
 import org.edamontology.edammap.core.processing.QueryProcessed;
 import org.edamontology.edammap.core.query.Query;
 import org.edamontology.edammap.core.query.QueryLoader;
+import org.edamontology.edammap.core.query.QuerySource;
 
 public class Cli implements Runnable {
 
@@ -66,8 +81,6 @@ public class Cli implements Runnable {
 
 	private static int numThreads = 0;
 
-	private static int index = 0;
-
 	private static long start;
 
 	private static boolean stderr;
@@ -84,6 +97,18 @@ public class Cli implements Runnable {
 
 	private static Map<EdamUri, ConceptProcessed> processedConcepts;
 
+	private static QuerySource querySource;
+
+	// number of queries to map, if known, otherwise -1
+	private static int size;
+
+	// the query source, or the loaded queries in benchmark mode
+	private static Iterator<Query> queryIterator;
+
+	private static final Object queryLock = new Object();
+
+	private static Throwable querySourceException = null;
+
 	private static List<Query> queries;
 
 	private static List<List<Webpage>> webpages;
@@ -92,6 +117,97 @@ public class Cli implements Runnable {
 
 	private static List<Mapping> mappings;
 
+	private static final Object PREFETCH_END = new Object();
+
+	// queries with their webpages, docs and publications got ahead of the mapper threads
+	private static BlockingQueue<Object> prefetched = null;
+
+	private static int prefetchThreads = 0;
+
+	// not null in benchmark mode
+	private static CliBenchmark.Run benchmarkRun = null;
+
+	private static ExecutorService reportExecutor = null;
+
+	private static class Next {
+		private final Query query;
+		private final int index;
+		private List<DatabaseEntryEntry> entries = null;
+		private long fetchTime = 0;
+		private Next(Query query, int index) {
+			this.query = query;
+			this.index = index;
+		}
+	}
+
+	// queries are read from input only when a thread is free to take one
+	private static Next nextQuery() {
+		synchronized (queryLock) {
+			Query query;
+			try {
+				if (querySourceException != null || !queryIterator.hasNext()) {
+					return null;
+				}
+				query = queryIterator.next();
+			} catch (Throwable e) {
+				querySourceException = e;
+				return null;
+			}
+			synchronized (mappings) {
+				int index = queries.size();
+				queries.add(query);
+				webpages.add(null);
+				docs.add(null);
+				publications.add(null);
+				mappings.add(null);
+				return new Next(query, index);
+			}
+		}
+	}
+
+	private static class Prefetcher implements Runnable {
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					Next next = nextQuery();
+					if (next == null) {
+						break;
+					}
+					fetch(next);
+					prefetched.put(next);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				logger.error("Exception!", e);
+			} finally {
+				boolean last;
+				synchronized (prefetched) {
+					last = (--prefetchThreads == 0);
+				}
+				if (last) {
+					for (int i = 0; i < args.getThreads(); ++i) {
+						try {
+							prefetched.put(PREFETCH_END);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							logger.error("Exception!", e);
+							break;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static void fetch(Next next) {
+		long fetchStart = System.nanoTime();
+		List<DatabaseEntryId> ids = processor.getDatabaseEntryIds(next.query);
+		// all entries of the query are got concurrently, limited only by the fetching threads and per-host limits of Processor
+		next.entries = processor.getDatabaseEntries(ids, args.getCoreArgs().getFetcherArgs(), 0);
+		next.fetchTime = System.nanoTime() - fetchStart;
+	}
+
 	@Override
 	public void run() {
 		synchronized (lock) {
@@ -103,31 +219,61 @@ public class Cli implements Runnable {
 			Mapper mapper = new Mapper(processedConcepts, edamBlacklist);
 
 			while (true) {
-				Query query;
-				int localIndex;
-				synchronized (queries) {
-					if (index >= queries.size()) {
+				Next next;
+				if (prefetched != null) {
+					Object item;
+					try {
+						item = prefetched.take();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						logger.error("Exception!", e);
+						break;
+					}
+					if (item == PREFETCH_END) {
+						break;
+					}
+					next = (Next) item;
+				} else {
+					next = nextQuery();
+					if (next == null) {
 						break;
 					}
-					query = queries.get(index);
-					localIndex = index;
-					++index;
 				}
 
-				logger.info("Map {}", PubFetcher.progress(localIndex + 1, queries.size(), start));
+				// only the count is known for input that doesn't tell its size before being read to the end
+				String progress = (size >= 0 ? PubFetcher.progress(next.index + 1, Math.max(size, next.index + 1), start)
+					: (next.index + 1) + " (" + (System.currentTimeMillis() - start) / 1000.0 + "s)");
+				logger.info("Map {}", progress);
 				if (stderr) {
-					System.err.print("Map " + PubFetcher.progress(localIndex + 1, queries.size(), start) + "  \r");
+					System.err.print("Map " + progress + "  \r");
+				}
+
+				// in benchmark mode, entries are always got before processing, so that fetching can be timed separately
+				if (benchmarkRun != null && next.entries == null) {
+					fetch(next);
 				}
 
-				QueryProcessed processedQuery = processor.getProcessedQuery(query, args.getType(), pp, idf, args.getCoreArgs().getFetcherArgs(), null);
+				long preprocessStart = System.nanoTime();
+				QueryProcessed processedQuery;
+				if (next.entries != null) {
+					processedQuery = processor.getProcessedQueryPrefetched(next.query, args.getType(), pp, idf, args.getCoreArgs().getFetcherArgs(), next.entries);
+				} else {
+					processedQuery = processor.getProcessedQuery(next.query, args.getType(), pp, idf, args.getCoreArgs().getFetcherArgs(), null);
+				}
+
+				long mapStart = System.nanoTime();
+				Mapping mapping = mapper.map(next.query, processedQuery, args.getCoreArgs().getMapperArgs());
+				long mapStop = System.nanoTime();
 
-				Mapping mapping = mapper.map(query, processedQuery, args.getCoreArgs().getMapperArgs());
+				if (benchmarkRun != null) {
+					benchmarkRun.add(next.index, next.fetchTime, mapStart - preprocessStart, mapStop - mapStart);
+				}
 
 				synchronized (mappings) {
-					webpages.set(localIndex, processedQuery.getWebpages());
-					docs.set(localIndex, processedQuery.getDocs());
-					publications.set(localIndex, processedQuery.getPublications());
-					mappings.set(localIndex, mapping);
+					webpages.set(next.index, processedQuery.getWebpages());
+					docs.set(next.index, processedQuery.getDocs());
+					publications.set(next.index, processedQuery.getPublications());
+					mappings.set(next.index, mapping);
 				}
 			}
 		} finally {
@@ -138,6 +284,83 @@ public class Cli implements Runnable {
 		}
 	}
 
+	private static void map() {
+		synchronized (lock) {
+			lockDone = false;
+			numThreads = 0;
+		}
+
+		prefetched = null;
+		if (args.getPrefetchThreads() > 0) {
+			logger.info("Starting prefetch threads");
+			prefetched = new ArrayBlockingQueue<>(args.getThreads() * 2);
+			prefetchThreads = args.getPrefetchThreads();
+			for (int i = 0; i < args.getPrefetchThreads(); ++i) {
+				Thread t = new Thread(new Prefetcher());
+				t.setDaemon(true);
+				t.start();
+			}
+		}
+
+		logger.info("Starting mapper threads");
+		for (int i = 0; i < args.getThreads(); ++i) {
+			Thread t = new Thread(new Cli());
+			t.setDaemon(true);
+			t.start();
+		}
+
+		synchronized (lock) {
+			while (!lockDone || numThreads > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					logger.error("Exception!", e);
+					throw new RuntimeException(e);
+				}
+			}
+		}
+		logger.info("All mapper threads stopped");
+	}
+
+	private static void throwQuerySourceException() throws IOException, ParseException {
+		if (querySourceException != null) {
+			if (querySourceException instanceof RuntimeException) {
+				throw UncheckedParseException.unwrap((RuntimeException) querySourceException);
+			} else if (querySourceException instanceof Error) {
+				throw (Error) querySourceException;
+			} else {
+				throw new RuntimeException(querySourceException);
+			}
+		}
+	}
+
+	private static long loaded(CliBenchmark benchmark, String part, long loadStart) {
+		long loadStop = System.nanoTime();
+		if (benchmark != null) {
+			benchmark.load(part, loadStop - loadStart);
+		}
+		return loadStop;
+	}
+
+	// output of runs before the last benchmark run goes to a temporary directory, but otherwise has the same content
+	private static Output benchmarkOutput(Path tmp) throws IOException {
+		String txt = (!args.getOutput().isEmpty() || (args.getReport().isEmpty() && args.getBin().isEmpty())) ? tmp.resolve("output.txt").toString() : "";
+		String report = !args.getReport().isEmpty() ? tmp.resolve("report").toString() : "";
+		String json = !args.getJson().isEmpty() ? tmp.resolve("output.json").toString() : "";
+		String biotools = !args.getBiotools().isEmpty() ? tmp.resolve("biotools.json").toString() : "";
+		String bin = !args.getBin().isEmpty() ? tmp.resolve("output.bin").toString() : "";
+		Output output = new Output(txt, report, json, biotools, bin, args.getType(), false);
+		output.setReportExecutor(reportExecutor);
+		return output;
+	}
+
+	private static void delete(Path tmp) throws IOException {
+		try (Stream<Path> paths = Files.walk(tmp)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
 	public static int run(CliArgs cliArgs, Version version, boolean progressToStderr) throws IOException, ParseException {
 		args = cliArgs;
 
@@ -160,14 +383,38 @@ public class Cli implements Runnable {
 			}
 		});
 
-		Output output = new Output(args.getOutput(), args.getReport(), args.getJson(), args.getBiotools(), args.getType(), false);
+		Output output = new Output(args.getOutput(), args.getReport(), args.getJson(), args.getBiotools(), args.getBin(), args.getType(), false);
+
+		// pages of the report are rendered on as many threads as were used for mapping, which are done by the time of output
+		reportExecutor = null;
+		if (!args.getReport().isEmpty() && args.getThreads() > 1) {
+			reportExecutor = Executors.newFixedThreadPool(args.getThreads(), r -> {
+				Thread t = new Thread(r, "report");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		output.setReportExecutor(reportExecutor);
+
+		CliBenchmark benchmark = null;
+		Path benchmarkPath = null;
+		if (args.getBenchmark() != null && !args.getBenchmark().isEmpty()) {
+			benchmarkPath = PubFetcher.outputPath(args.getBenchmark());
+			benchmark = new CliBenchmark();
+		}
+
+		long loadStart = System.nanoTime();
 
 		stopwords = PreProcessor.getStopwords(args.getCoreArgs().getPreProcessorArgs().getStopwords());
 
 		edamBlacklist = Edam.getBlacklist();
 
+		loadStart = loaded(benchmark, "stopwords", loadStart);
+
 		processor = new Processor(args.getCoreArgs().getProcessorArgs(), args.getCoreArgs().getFetcherArgs().getPrivateArgs());
 
+		loadStart = loaded(benchmark, "processor", loadStart);
+
 		idf = null;
 		if (args.getCoreArgs().getPreProcessorArgs().isStemming()) {
 			if (args.getCoreArgs().getProcessorArgs().getIdfStemmed() != null && !args.getCoreArgs().getProcessorArgs().getIdfStemmed().isEmpty()) {
@@ -181,67 +428,130 @@ public class Cli implements Runnable {
 			}
 		}
 
+		loadStart = loaded(benchmark, "idf", loadStart);
+
 		logger.info("Loading concepts from {}", args.getEdam());
 		Map<EdamUri, Concept> concepts = Edam.load(args.getEdam());
 
+		loadStart = loaded(benchmark, "edam", loadStart);
+
 		logger.info("Processing {} concepts", concepts.size());
 		processedConcepts = processor.getProcessedConcepts(concepts, args.getCoreArgs().getMapperArgs().getIdfArgs(), args.getCoreArgs().getMapperArgs().getMultiplierArgs(),
 			new PreProcessor(args.getCoreArgs().getPreProcessorArgs(), stopwords));
 
-		logger.info("Loading queries from {}", args.getQuery());
-		queries = QueryLoader.get(args.getQuery(), args.getType(), concepts,
-			args.getCoreArgs().getFetcherArgs().getTimeout(), args.getCoreArgs().getFetcherArgs().getPrivateArgs().getUserAgent());
-		logger.info("Loaded {} queries", queries.size());
+		loadStart = loaded(benchmark, "concepts", loadStart);
 
-		publications = new ArrayList<>(queries.size());
-		webpages = new ArrayList<>(queries.size());
-		docs = new ArrayList<>(queries.size());
-		mappings = new ArrayList<>(queries.size());
-		for (int i = 0; i < queries.size(); ++i) {
-			publications.add(null);
-			webpages.add(null);
-			docs.add(null);
-			mappings.add(null);
+		logger.info("Loading queries from {}", args.getQuery());
+		querySource = QueryLoader.source(args.getQuery(), args.getType(), concepts,
+			args.getCoreArgs().getFetcherArgs().getTimeout(), args.getCoreArgs().getFetcherArgs().getPrivateArgs().getUserAgent(), true);
+
+		// in benchmark mode, all queries are loaded up front, so that each run maps the same fixed set
+		List<Query> benchmarkQueries = null;
+		if (benchmark != null) {
+			benchmarkQueries = new ArrayList<>();
+			try {
+				while (querySource.hasNext()) {
+					benchmarkQueries.add(querySource.next());
+				}
+			} catch (Throwable e) {
+				querySourceException = e;
+			}
+			querySource.close();
+			throwQuerySourceException();
+			loaded(benchmark, "queries", loadStart);
+			logger.info("Loaded {} queries for benchmark", benchmarkQueries.size());
 		}
 
-		start = System.currentTimeMillis();
-		logger.info("Start: {}", Instant.ofEpochMilli(start));
-
 		stderr = progressToStderr;
 
-		logger.info("Starting mapper threads");
-		for (int i = 0; i < args.getThreads(); ++i) {
-			Thread t = new Thread(new Cli());
-			t.setDaemon(true);
-			t.start();
+		int runs = 1;
+		if (benchmark != null) {
+			runs = args.getBenchmarkWarmup() + Math.max(args.getBenchmarkRuns(), 1);
 		}
 
-		synchronized (lock) {
-			while (!lockDone || numThreads > 0) {
+		Results results = null;
+		for (int run = 0; run < runs; ++run) {
+			boolean last = (run == runs - 1);
+
+			if (benchmark != null) {
+				boolean warmup = (run < args.getBenchmarkWarmup());
+				logger.info("Benchmark run {} of {}{}", run + 1, runs, warmup ? " (warm-up)" : "");
+				queryIterator = benchmarkQueries.iterator();
+				size = benchmarkQueries.size();
+				benchmarkRun = benchmark.run(warmup, benchmarkQueries.size());
+			} else {
+				queryIterator = querySource;
+				size = querySource.getSize();
+			}
+
+			queries = new ArrayList<>();
+			publications = new ArrayList<>();
+			webpages = new ArrayList<>();
+			docs = new ArrayList<>();
+			mappings = new ArrayList<>();
+
+			start = System.currentTimeMillis();
+			logger.info("Start: {}", Instant.ofEpochMilli(start));
+			long runStart = System.nanoTime();
+
+			map();
+
+			if (benchmark == null) {
+				querySource.close();
+				throwQuerySourceException();
+			}
+			logger.info("Loaded {} queries", queries.size());
+
+			long stop = System.currentTimeMillis();
+			logger.info("Stop: {}", Instant.ofEpochMilli(stop));
+			logger.info("Mapping took {}s", (stop - start) / 1000.0);
+
+			long outputStart = System.nanoTime();
+
+			results = Benchmark.calculate(queries, mappings);
+
+			logger.info("Outputting results");
+			if (last) {
+				output.output(args.getCoreArgs(), argsMain, args.getQuery(), null, args.getReportPageSize(), args.getReportPaginationSize(),
+					concepts, queries, webpages, docs, publications, results, null, start, stop, version, JSON_VERSION);
+			} else {
+				Path tmp = Files.createTempDirectory("edammap-benchmark");
 				try {
-					lock.wait();
-				} catch (InterruptedException e) {
-					Thread.currentThread().interrupt();
-					logger.error("Exception!", e);
-					throw new RuntimeException(e);
+					benchmarkOutput(tmp).output(args.getCoreArgs(), argsMain, args.getQuery(), null, args.getReportPageSize(), args.getReportPaginationSize(),
+						concepts, queries, webpages, docs, publications, results, null, start, stop, version, JSON_VERSION);
+				} finally {
+					delete(tmp);
 				}
 			}
-		}
-		logger.info("All mapper threads stopped");
 
-		long stop = System.currentTimeMillis();
-		logger.info("Stop: {}", Instant.ofEpochMilli(stop));
-		logger.info("Mapping took {}s", (stop - start) / 1000.0);
+			if (benchmark != null) {
+				benchmark.end(benchmarkRun, outputStart - runStart, System.nanoTime() - outputStart);
+			}
+		}
+		benchmarkRun = null;
 
-		Results results = Benchmark.calculate(queries, mappings);
+		if (reportExecutor != null) {
+			reportExecutor.shutdown();
+			reportExecutor = null;
+		}
 
-		logger.info("Outputting results");
-		output.output(args.getCoreArgs(), argsMain, args.getQuery(), null, args.getReportPageSize(), args.getReportPaginationSize(),
-			concepts, queries, webpages, docs, publications, results, null, start, stop, version, JSON_VERSION);
+		if (benchmark != null) {
+			logger.info("Writing benchmark to {}", benchmarkPath);
+			benchmark.write(benchmarkPath, args, version);
+		}
 
 		logger.info("{} : {}", results.toStringMeasure(Measure.recall), Measure.recall);
 		logger.info("{} : {}", results.toStringMeasure(Measure.AveP), Measure.AveP);
 
+		if (results.getProfile() != null) {
+			for (QueryMatchType type : QueryMatchType.values()) {
+				if (!results.getProfile().isEmpty(type)) {
+					logger.info("Profile {} : {}", type, results.getProfile().toStringType(type));
+				}
+			}
+			logger.info("Profile branches : {}", results.getProfile().toStringBranches());
+		}
+
 		return results.getMappings().size();
 	}
 
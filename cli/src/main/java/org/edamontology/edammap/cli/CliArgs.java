@@ -53,7 +53,7 @@ public class CliArgs extends BasicArgs {
 	private QueryType type = typeDefault;
 
 	private static final String outputId = "output";
-	private static final String outputDescription = "Text file to write results to, one per line. If missing (and HTML report also not specified), then results will be written to standard output.";
+	private static final String outputDescription = "Text file to write results to, one per line. If missing (and HTML report and binary output also not specified), then results will be written to standard output.";
 	private static final String outputDefault = "";
 	@Parameter(names = { "-o", "--" + outputId }, description = outputDescription)
 	private String output = outputDefault;
@@ -76,6 +76,12 @@ public class CliArgs extends BasicArgs {
 	@Parameter(names = { "-b", "--" + biotoolsId }, description = biotoolsDescription)
 	private String biotools = biotoolsDefault;
 
+	private static final String binId = "bin";
+	private static final String binDescription = "File to write results to, in a compact binary format of length-prefixed records of query ID and name and the matched concept numbers, match types and float scores. Can be read back with BinReader of EDAMmap-Core, which is much faster than parsing the text or JSON output.";
+	private static final String binDefault = "";
+	@Parameter(names = { "--" + binId }, description = binDescription)
+	private String bin = binDefault;
+
 	private static final String reportPageSizeId = "reportPageSize";
 	private static final String reportPageSizeDescription = "Number of results in a HTML report page. Setting to 0 will output all results to a single HTML page.";
 	private static final Integer reportPageSizeDefault = 100;
@@ -94,6 +100,30 @@ public class CliArgs extends BasicArgs {
 	@Parameter(names = { "--" + threadsId }, validateWith = PositiveInteger.class, description = threadsDescription)
 	private Integer threads = threadsDefault;
 
+	private static final String prefetchThreadsId = "prefetchThreads";
+	private static final String prefetchThreadsDescription = "How many threads to use for getting webpages, docs and publications of upcoming queries ahead of mapping threads (one thread gets entries of one query at a time). Setting to 0 will get the entries in the mapping threads.";
+	private static final Integer prefetchThreadsDefault = 4;
+	@Parameter(names = { "--" + prefetchThreadsId }, validateWith = PositiveInteger.class, description = prefetchThreadsDescription)
+	private Integer prefetchThreads = prefetchThreadsDefault;
+
+	private static final String benchmarkId = "benchmark";
+	private static final String benchmarkDescription = "File to write a benchmark of the mapping pipeline to, in JSON format. If specified, the queries are mapped --benchmarkWarmup + --benchmarkRuns times and throughput, per-query latency percentiles and the time breakdown across loading, fetching, preprocessing, mapping and output are written. Results are output only for the last run.";
+	private static final String benchmarkDefault = "";
+	@Parameter(names = { "--" + benchmarkId }, description = benchmarkDescription)
+	private String benchmark = benchmarkDefault;
+
+	private static final String benchmarkRunsId = "benchmarkRuns";
+	private static final String benchmarkRunsDescription = "Number of measured runs over the queries in --benchmark mode";
+	private static final Integer benchmarkRunsDefault = 5;
+	@Parameter(names = { "--" + benchmarkRunsId }, validateWith = PositiveInteger.class, description = benchmarkRunsDescription)
+	private Integer benchmarkRuns = benchmarkRunsDefault;
+
+	private static final String benchmarkWarmupId = "benchmarkWarmup";
+	private static final String benchmarkWarmupDescription = "Number of warm-up runs over the queries in --benchmark mode, done before the measured runs and reported separately";
+	private static final Integer benchmarkWarmupDefault = 1;
+	@Parameter(names = { "--" + benchmarkWarmupId }, validateWith = PositiveInteger.class, description = benchmarkWarmupDescription)
+	private Integer benchmarkWarmup = benchmarkWarmupDefault;
+
 	@ParametersDelegate
 	private CoreArgs coreArgs = new CoreArgs();
 
@@ -106,9 +136,14 @@ public class CliArgs extends BasicArgs {
 		args.add(new Arg<>(this::getReportFilename, null, reportDefault, reportId, "Report file", reportDescription, null));
 		args.add(new Arg<>(this::getJsonFilename, null, jsonDefault, jsonId, "JSON file", jsonDescription, null));
 		args.add(new Arg<>(this::getBiotoolsFilename, null, biotoolsDefault, biotoolsId, "bio.tools file", biotoolsDescription, null));
+		args.add(new Arg<>(this::getBinFilename, null, binDefault, binId, "Binary file", binDescription, null));
 		args.add(new Arg<>(this::getReportPageSize, null, reportPageSizeDefault, 0, null, reportPageSizeId, "Report page size", reportPageSizeDescription, null));
 		args.add(new Arg<>(this::getReportPaginationSize, null, reportPaginationSizeDefault, 0, null, reportPaginationSizeId, "Report pagination size", reportPaginationSizeDescription, null));
 		args.add(new Arg<>(this::getThreads, null, threadsDefault, 0, null, threadsId, "Number of threads", threadsDescription, null));
+		args.add(new Arg<>(this::getPrefetchThreads, null, prefetchThreadsDefault, 0, null, prefetchThreadsId, "Number of prefetch threads", prefetchThreadsDescription, null));
+		args.add(new Arg<>(this::getBenchmarkFilename, null, benchmarkDefault, benchmarkId, "Benchmark file", benchmarkDescription, null));
+		args.add(new Arg<>(this::getBenchmarkRuns, null, benchmarkRunsDefault, 0, null, benchmarkRunsId, "Benchmark runs", benchmarkRunsDescription, null));
+		args.add(new Arg<>(this::getBenchmarkWarmup, null, benchmarkWarmupDefault, 0, null, benchmarkWarmupId, "Benchmark warm-up runs", benchmarkWarmupDescription, null));
 	}
 
 	public String getEdam() {
@@ -182,6 +217,16 @@ public class CliArgs extends BasicArgs {
 		this.biotools = biotools;
 	}
 
+	public String getBin() {
+		return bin;
+	}
+	public String getBinFilename() {
+		return new File(bin).getName();
+	}
+	public void setBin(String bin) {
+		this.bin = bin;
+	}
+
 	public Integer getReportPageSize() {
 		return reportPageSize;
 	}
@@ -203,6 +248,37 @@ public class CliArgs extends BasicArgs {
 		this.threads = threads;
 	}
 
+	public Integer getPrefetchThreads() {
+		return prefetchThreads;
+	}
+	public void setPrefetchThreads(Integer prefetchThreads) {
+		this.prefetchThreads = prefetchThreads;
+	}
+
+	public String getBenchmark() {
+		return benchmark;
+	}
+	public String getBenchmarkFilename() {
+		return new File(benchmark).getName();
+	}
+	public void setBenchmark(String benchmark) {
+		this.benchmark = benchmark;
+	}
+
+	public Integer getBenchmarkRuns() {
+		return benchmarkRuns;
+	}
+	public void setBenchmarkRuns(Integer benchmarkRuns) {
+		this.benchmarkRuns = benchmarkRuns;
+	}
+
+	public Integer getBenchmarkWarmup() {
+		return benchmarkWarmup;
+	}
+	public void setBenchmarkWarmup(Integer benchmarkWarmup) {
+		this.benchmarkWarmup = benchmarkWarmup;
+	}
+
 	public CoreArgs getCoreArgs() {
 		return coreArgs;
 	}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.edamontology.pubfetcher.core.common.Arg;
+import org.edamontology.pubfetcher.core.common.Args;
+import org.edamontology.pubfetcher.core.common.Version;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+
+// Times of the mapping pipeline over repeated runs of the same queries (in --benchmark mode)
+class CliBenchmark {
+
+	static class Run {
+		private final boolean warmup;
+		private final long[] fetch;
+		private final long[] preprocess;
+		private final long[] map;
+		private long time;
+		private long output;
+		private Run(boolean warmup, int size) {
+			this.warmup = warmup;
+			this.fetch = new long[size];
+			this.preprocess = new long[size];
+			this.map = new long[size];
+		}
+		// called by mapper threads, each with a different index
+		void add(int index, long fetchTime, long preprocessTime, long mapTime) {
+			fetch[index] = fetchTime;
+			preprocess[index] = preprocessTime;
+			map[index] = mapTime;
+		}
+		private long[] latencies() {
+			long[] latencies = new long[map.length];
+			for (int i = 0; i < latencies.length; ++i) {
+				latencies[i] = fetch[i] + preprocess[i] + map[i];
+			}
+			Arrays.sort(latencies);
+			return latencies;
+		}
+	}
+
+	// load phase times in nanoseconds, in order of loading
+	private final Map<String, Long> load = new LinkedHashMap<>();
+
+	private final List<Run> runs = new ArrayList<>();
+
+	void load(String part, long time) {
+		load.put(part, time);
+	}
+
+	Run run(boolean warmup, int size) {
+		Run run = new Run(warmup, size);
+		runs.add(run);
+		return run;
+	}
+
+	void end(Run run, long time, long output) {
+		run.time = time;
+		run.output = output;
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1000000.0;
+	}
+
+	private static long sum(long[] times) {
+		long sum = 0;
+		for (long time : times) {
+			sum += time;
+		}
+		return sum;
+	}
+
+	// nearest-rank percentile of sorted values
+	private static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p / 100 * sorted.length);
+		return sorted[Math.max(rank, 1) - 1];
+	}
+
+	private static void writeLatency(JsonGenerator generator, long[] sorted) throws IOException {
+		generator.writeObjectFieldStart("latency");
+		generator.writeNumberField("mean", sorted.length > 0 ? millis(sum(sorted)) / sorted.length : 0);
+		generator.writeNumberField("p50", millis(percentile(sorted, 50)));
+		generator.writeNumberField("p95", millis(percentile(sorted, 95)));
+		generator.writeNumberField("p99", millis(percentile(sorted, 99)));
+		generator.writeNumberField("max", sorted.length > 0 ? millis(sorted[sorted.length - 1]) : 0);
+		generator.writeEndObject();
+	}
+
+	private static void writeArgs(JsonGenerator generator, Args args) throws IOException {
+		generator.writeObjectFieldStart(args.getId());
+		for (Arg<?, ?> arg : args.getArgs()) {
+			generator.writeObjectField(arg.getId(), arg.getValue());
+		}
+		generator.writeEndObject();
+	}
+
+	// times are in milliseconds, except queriesPerSecond
+	void write(Path json, CliArgs args, Version version) throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(json.toFile(), JsonEncoding.UTF8)) {
+			generator.useDefaultPrettyPrinter();
+			generator.writeStartObject();
+
+			generator.writeStringField("version", version.getVersion());
+
+			generator.writeObjectFieldStart("args");
+			writeArgs(generator, args);
+			CoreArgs coreArgs = args.getCoreArgs();
+			writeArgs(generator, coreArgs.getProcessorArgs());
+			writeArgs(generator, coreArgs.getPreProcessorArgs());
+			writeArgs(generator, coreArgs.getFetcherArgs());
+			writeArgs(generator, coreArgs.getMapperArgs());
+			writeArgs(generator, coreArgs.getMapperArgs().getAlgorithmArgs());
+			writeArgs(generator, coreArgs.getMapperArgs().getIdfArgs());
+			writeArgs(generator, coreArgs.getMapperArgs().getMultiplierArgs());
+			writeArgs(generator, coreArgs.getMapperArgs().getNormaliserArgs());
+			writeArgs(generator, coreArgs.getMapperArgs().getWeightArgs());
+			writeArgs(generator, coreArgs.getMapperArgs().getScoreArgs());
+			generator.writeEndObject();
+
+			generator.writeObjectFieldStart("load");
+			long loadTotal = 0;
+			for (Map.Entry<String, Long> part : load.entrySet()) {
+				generator.writeNumberField(part.getKey(), millis(part.getValue()));
+				loadTotal += part.getValue();
+			}
+			generator.writeNumberField("total", millis(loadTotal));
+			generator.writeEndObject();
+
+			List<Run> measured = new ArrayList<>();
+			generator.writeArrayFieldStart("runs");
+			for (Run run : runs) {
+				if (!run.warmup) {
+					measured.add(run);
+				}
+				generator.writeStartObject();
+				generator.writeBooleanField("warmup", run.warmup);
+				generator.writeNumberField("queries", run.map.length);
+				generator.writeNumberField("time", millis(run.time));
+				generator.writeNumberField("queriesPerSecond", run.time > 0 ? run.map.length / (run.time / 1000000000.0) : 0);
+				generator.writeNumberField("fetch", millis(sum(run.fetch)));
+				generator.writeNumberField("preprocess", millis(sum(run.preprocess)));
+				generator.writeNumberField("map", millis(sum(run.map)));
+				generator.writeNumberField("output", millis(run.output));
+				writeLatency(generator, run.latencies());
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+
+			// over all measured (not warmup) runs, with fetch, preprocess, map and output averaged per run
+			generator.writeObjectFieldStart("summary");
+			generator.writeNumberField("runs", measured.size());
+			long time = 0, fetch = 0, preprocess = 0, map = 0, output = 0;
+			int queries = 0;
+			List<long[]> latencies = new ArrayList<>();
+			int latenciesSize = 0;
+			for (Run run : measured) {
+				time += run.time;
+				fetch += sum(run.fetch);
+				preprocess += sum(run.preprocess);
+				map += sum(run.map);
+				output += run.output;
+				queries += run.map.length;
+				long[] runLatencies = run.latencies();
+				latencies.add(runLatencies);
+				latenciesSize += runLatencies.length;
+			}
+			int n = Math.max(measured.size(), 1);
+			generator.writeNumberField("queriesPerSecond", time > 0 ? queries / (time / 1000000000.0) : 0);
+			generator.writeNumberField("time", millis(time) / n);
+			generator.writeNumberField("fetch", millis(fetch) / n);
+			generator.writeNumberField("preprocess", millis(preprocess) / n);
+			generator.writeNumberField("map", millis(map) / n);
+			generator.writeNumberField("output", millis(output) / n);
+			long[] allLatencies = new long[latenciesSize];
+			int i = 0;
+			for (long[] runLatencies : latencies) {
+				System.arraycopy(runLatencies, 0, allLatencies, i, runLatencies.length);
+				i += runLatencies.length;
+			}
+			Arrays.sort(allLatencies);
+			writeLatency(generator, allLatencies);
+			generator.writeEndObject();
+
+			generator.writeEndObject();
+		}
+	}
+}
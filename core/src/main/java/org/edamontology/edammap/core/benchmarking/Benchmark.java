@@ -19,121 +19,180 @@
 
 package org.edamontology.edammap.core.benchmarking;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.mapping.MapperProfile;
 import org.edamontology.edammap.core.mapping.Mapping;
 import org.edamontology.edammap.core.mapping.Match;
 import org.edamontology.edammap.core.query.Query;
 
+// Sums of measures over mapped queries, to which queries can be added one by one (as mappings arrive) and which can be merged (to calculate in parallel),
+// with the averaged measures got with getResults()
 public class Benchmark {
 
-	public static Results calculate(List<Query> queries, List<Mapping> mappings) {
-		Results results = new Results();
+	// number of queries per chunk in calculate(), fixed for the results to not depend on the number of threads
+	private static final int CHUNK_SIZE = 256;
+
+	private final boolean keepMappings;
+
+	private final List<MappingTest> mappings = new ArrayList<>();
+
+	private final Map<Branch, Measures> measures = new EnumMap<>(Branch.class);
+
+	// only tests, as total measures are averaged over branches in getResults()
+	private final Measures testsTotal = new Measures();
 
-		Map<Branch, Long> size = new EnumMap<>(Branch.class);
+	// number of queries with annotations in the branch
+	private final Map<Branch, Long> size = new EnumMap<>(Branch.class);
+
+	private MapperProfile profile = null;
+
+	// if keepMappings is false, results will have no MappingTests, only measures
+	public Benchmark(boolean keepMappings) {
+		this.keepMappings = keepMappings;
 		for (Branch branch : Branch.values()) {
+			measures.put(branch, new Measures());
 			size.put(branch, 0l);
 		}
+	}
 
-		for (int i = 0; i < queries.size(); ++i) {
-			Query query = queries.get(i);
-			Mapping mapping = mappings.get(i);
+	public void add(Query query, Mapping mapping) {
+		MappingTest mappingTest = new MappingTest(query.getId(), query.getName());
 
-			MappingTest mappingTest = new MappingTest(query.getId(), query.getName());
+		if (mapping.getProfile() != null) {
+			mappingTest.profile = mapping.getProfile();
+			if (profile == null) {
+				profile = new MapperProfile();
+			}
+			profile.add(mapping.getProfile());
+		}
 
-			for (Branch branch : mapping.getBranches()) {
+		for (Branch branch : mapping.getBranches()) {
 
-				long annotationsSize;
-				if (query.getAnnotations() != null) {
-					annotationsSize = query.getAnnotations().stream().filter(e -> e.getBranch() == branch).count();
-				} else {
-					annotationsSize = 0;
-				}
+			long annotationsSize;
+			if (query.getAnnotations() != null) {
+				annotationsSize = query.getAnnotations().stream().filter(e -> e.getBranch() == branch).count();
+			} else {
+				annotationsSize = 0;
+			}
 
-				if (annotationsSize > 0) {
-					size.put(branch, size.get(branch) + 1);
-				}
+			if (annotationsSize > 0) {
+				size.put(branch, size.get(branch) + 1);
+			}
 
-				int tp = 0, fp = 0, fn = 0;
-				double DCG = 0, IDCG = 0, DCGa = 0, IDCGa = 0;
+			int tp = 0, fp = 0, fn = 0;
+			double DCG = 0, IDCG = 0, DCGa = 0, IDCGa = 0;
 
-				for (int j = 0; j < mapping.getMatches(branch).size(); ++j) {
-					Match match = mapping.getMatches(branch).get(j);
+			for (int j = 0; j < mapping.getMatches(branch).size(); ++j) {
+				Match match = mapping.getMatches(branch).get(j);
 
-					if (match.isExistingAnnotation()) {
-						mappingTest.matches.get(branch).add(new MatchTest(match, Test.tp));
+				if (match.isExistingAnnotation()) {
+					mappingTest.matches.get(branch).add(new MatchTest(match, Test.tp));
 
-						++tp;
+					++tp;
 
-						double precisionAve = tp / (double) (tp + fp);
-						results.measures.get(branch).addMeasure(Measure.AveP, precisionAve / (double) annotationsSize);
+					double precisionAve = tp / (double) (tp + fp);
+					measures.get(branch).addMeasure(Measure.AveP, precisionAve / (double) annotationsSize);
 
-						if (j < annotationsSize) {
-							results.measures.get(branch).addMeasure(Measure.RP, 1 / (double) annotationsSize);
-						}
+					if (j < annotationsSize) {
+						measures.get(branch).addMeasure(Measure.RP, 1 / (double) annotationsSize);
+					}
 
-						int rel = 1;
-						if (j == 0) {
-							DCG += rel;
-						} else {
-							DCG += rel / (Math.log(j + 1) / Math.log(2));
-						}
-						DCGa += (Math.pow(2, rel) - 1) / (Math.log(j + 1 + 1) / Math.log(2));
+					int rel = 1;
+					if (j == 0) {
+						DCG += rel;
 					} else {
-						mappingTest.matches.get(branch).add(new MatchTest(match, Test.fp));
-
-						++fp;
+						DCG += rel / (Math.log(j + 1) / Math.log(2));
 					}
+					DCGa += (Math.pow(2, rel) - 1) / (Math.log(j + 1 + 1) / Math.log(2));
+				} else {
+					mappingTest.matches.get(branch).add(new MatchTest(match, Test.fp));
+
+					++fp;
+				}
 
-					if (annotationsSize > 0) {
-						int Mrel = ((annotationsSize - j <= 0) ? 0 : 1);
-						if (j == 0) {
-							IDCG += Mrel;
-						} else {
-							IDCG += Mrel / (Math.log(j + 1) / Math.log(2));
-						}
-						IDCGa += (Math.pow(2, Mrel) - 1) / (Math.log(j + 1 + 1) / Math.log(2));
+				if (annotationsSize > 0) {
+					int Mrel = ((annotationsSize - j <= 0) ? 0 : 1);
+					if (j == 0) {
+						IDCG += Mrel;
+					} else {
+						IDCG += Mrel / (Math.log(j + 1) / Math.log(2));
 					}
+					IDCGa += (Math.pow(2, Mrel) - 1) / (Math.log(j + 1 + 1) / Math.log(2));
 				}
+			}
+
+			for (Match excludedAnnotation : mapping.getRemainingAnnotations(branch)) {
+				mappingTest.matches.get(branch).add(new MatchTest(excludedAnnotation, Test.fn));
 
-				for (Match excludedAnnotation : mapping.getRemainingAnnotations(branch)) {
-					mappingTest.matches.get(branch).add(new MatchTest(excludedAnnotation, Test.fn));
+				++fn;
+			}
 
-					++fn;
+			testsTotal.addTest(Test.tp, tp);
+			testsTotal.addTest(Test.fp, fp);
+			testsTotal.addTest(Test.fn, fn);
+			measures.get(branch).addTest(Test.tp, tp);
+			measures.get(branch).addTest(Test.fp, fp);
+			measures.get(branch).addTest(Test.fn, fn);
+
+			if (annotationsSize > 0) {
+				double precision = 0;
+				if (tp > 0 || fp > 0) precision = tp / (double) (tp + fp);
+				double recall = tp / (double) (tp + fn);
+				measures.get(branch).addMeasure(Measure.precision, precision);
+				measures.get(branch).addMeasure(Measure.recall, recall);
+				if (tp > 0) {
+					measures.get(branch).addMeasure(Measure.f1, 2 * (precision * recall) / (precision + recall));
+					measures.get(branch).addMeasure(Measure.f2, (1 + Math.pow(2, 2)) * (precision * recall) / ((Math.pow(2, 2) * precision) + recall));
 				}
+				measures.get(branch).addMeasure(Measure.Jaccard, tp / (double) (tp + fp + fn));
+				if (tp > 0 || fp > 0) {
+					measures.get(branch).addMeasure(Measure.DCG, DCG / IDCG);
+					measures.get(branch).addMeasure(Measure.DCGa, DCGa / IDCGa);
+				}
+			}
+		}
 
-				results.measuresTotal.addTest(Test.tp, tp);
-				results.measuresTotal.addTest(Test.fp, fp);
-				results.measuresTotal.addTest(Test.fn, fn);
-				results.measures.get(branch).addTest(Test.tp, tp);
-				results.measures.get(branch).addTest(Test.fp, fp);
-				results.measures.get(branch).addTest(Test.fn, fn);
+		if (keepMappings) {
+			mappings.add(mappingTest);
+		}
+	}
 
-				if (annotationsSize > 0) {
-					double precision = 0;
-					if (tp > 0 || fp > 0) precision = tp / (double) (tp + fp);
-					double recall = tp / (double) (tp + fn);
-					results.measures.get(branch).addMeasure(Measure.precision, precision);
-					results.measures.get(branch).addMeasure(Measure.recall, recall);
-					if (tp > 0) {
-						results.measures.get(branch).addMeasure(Measure.f1, 2 * (precision * recall) / (precision + recall));
-						results.measures.get(branch).addMeasure(Measure.f2, (1 + Math.pow(2, 2)) * (precision * recall) / ((Math.pow(2, 2) * precision) + recall));
-					}
-					results.measures.get(branch).addMeasure(Measure.Jaccard, tp / (double) (tp + fp + fn));
-					if (tp > 0 || fp > 0) {
-						results.measures.get(branch).addMeasure(Measure.DCG, DCG / IDCG);
-						results.measures.get(branch).addMeasure(Measure.DCGa, DCGa / IDCGa);
-					}
-				}
+	// add the queries of the given benchmark, which must come after the queries of this benchmark
+	public Benchmark merge(Benchmark benchmark) {
+		mappings.addAll(benchmark.mappings);
+		for (Branch branch : Branch.values()) {
+			measures.get(branch).add(benchmark.measures.get(branch));
+			size.put(branch, size.get(branch) + benchmark.size.get(branch));
+		}
+		testsTotal.add(benchmark.testsTotal);
+		if (benchmark.profile != null) {
+			if (profile == null) {
+				profile = new MapperProfile();
 			}
+			profile.add(benchmark.profile);
+		}
+		return this;
+	}
+
+	public Results getResults() {
+		Results results = new Results();
 
-			results.mappings.add(mappingTest);
+		results.mappings.addAll(mappings);
+
+		if (profile != null) {
+			results.profile = new MapperProfile();
+			results.profile.add(profile);
 		}
 
 		for (Branch branch : Branch.values()) {
+			results.measures.get(branch).add(measures.get(branch));
 			long s = size.get(branch);
 			if (s == 0) continue;
 			for (Measure measure : Measure.values()) {
@@ -141,6 +200,7 @@ public class Benchmark {
 			}
 		}
 
+		results.measuresTotal.add(testsTotal);
 		int branchesSize = 0;
 		for (Branch branch : Branch.values()) {
 			if (size.get(branch) == 0) continue;
@@ -157,4 +217,23 @@ public class Benchmark {
 
 		return results;
 	}
+
+	// in parallel over chunks of queries, which are then merged in query order, so that the result does not depend on the number of threads
+	public static Results calculate(List<Query> queries, List<Mapping> mappings) {
+		int chunks = (queries.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		List<Benchmark> chunkBenchmarks = IntStream.range(0, chunks).parallel()
+			.mapToObj(chunk -> {
+				Benchmark benchmark = new Benchmark(true);
+				for (int i = chunk * CHUNK_SIZE; i < Math.min((chunk + 1) * CHUNK_SIZE, queries.size()); ++i) {
+					benchmark.add(queries.get(i), mappings.get(i));
+				}
+				return benchmark;
+			})
+			.collect(Collectors.toList());
+		Benchmark benchmark = new Benchmark(true);
+		for (Benchmark chunkBenchmark : chunkBenchmarks) {
+			benchmark.merge(chunkBenchmark);
+		}
+		return benchmark.getResults();
+	}
 }
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.mapping.MapperProfile;
 
 public class MappingTest {
 
@@ -34,6 +35,8 @@ public class MappingTest {
 
 	final Map<Branch, List<MatchTest>> matches;
 
+	MapperProfile profile = null;
+
 	public MappingTest(String id, String name) {
 		this.id = id;
 
@@ -57,4 +60,8 @@ public class MappingTest {
 	public List<MatchTest> getMatches(Branch branch) {
 		return matches.get(branch);
 	}
+
+	public MapperProfile getProfile() {
+		return profile;
+	}
 }
@@ -56,4 +56,14 @@ public class Measures {
 	void divideMeasure(Measure measure, double by) {
 		this.measure.put(measure, this.measure.get(measure) / by);
 	}
+
+	// add all tests and measures of the given measures
+	void add(Measures measures) {
+		for (Test t : Test.values()) {
+			addTest(t, measures.getTest(t));
+		}
+		for (Measure m : Measure.values()) {
+			addMeasure(m, measures.getMeasure(m));
+		}
+	}
 }
@@ -26,6 +26,7 @@ import java.util.Locale;
 import java.util.Map;
 
 import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.mapping.MapperProfile;
 
 public class Results {
 
@@ -35,6 +36,8 @@ public class Results {
 
 	final Measures measuresTotal;
 
+	MapperProfile profile = null;
+
 	public Results() {
 		mappings = new ArrayList<>();
 		measures = new EnumMap<>(Branch.class);
@@ -57,6 +60,11 @@ public class Results {
 		return measuresTotal;
 	}
 
+	// sum over all queries, null if mapping was not profiled
+	public MapperProfile getProfile() {
+		return profile;
+	}
+
 	private static String percent(double val) {
 		return String.format(Locale.ROOT, "%.2f%%", val * 100);
 	}
@@ -20,17 +20,13 @@
 package org.edamontology.edammap.core.input;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import com.univocity.parsers.common.processor.BeanListProcessor;
-import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
 
 import org.edamontology.edammap.core.input.csv.Bioconductor;
@@ -41,25 +37,22 @@ import org.edamontology.edammap.core.query.QueryType;
 
 public class Csv {
 
-	private static final Logger logger = LogManager.getLogger();
-
-	public static List<InputType> load(String queryPath, QueryType type, int timeout, String userAgent) throws IOException, ParseException {
-		List<InputType> inputs = new ArrayList<>();
+	private static final long PARALLEL_SIZE = 10 * 1024 * 1024;
 
-		BeanListProcessor<? extends InputType> rowProcessor;
+	static Class<? extends InputType> getBeanClass(QueryType type) {
 		switch (type) {
-			case SEQwiki: rowProcessor = new BeanListProcessor<SEQwiki>(SEQwiki.class); break;
-			case msutils: rowProcessor = new BeanListProcessor<Msutils>(Msutils.class); break;
-			case Bioconductor: rowProcessor = new BeanListProcessor<Bioconductor>(Bioconductor.class); break;
-			default: rowProcessor = new BeanListProcessor<Generic>(Generic.class); break;
+			case SEQwiki: return SEQwiki.class;
+			case msutils: return Msutils.class;
+			case Bioconductor: return Bioconductor.class;
+			default: return Generic.class;
 		}
-		rowProcessor.setStrictHeaderValidationEnabled(false);
+	}
 
+	static CsvParserSettings getSettings() {
 		CsvParserSettings settings = new CsvParserSettings();
-		settings.setProcessor(rowProcessor);
 		settings.setHeaderExtractionEnabled(true);
 		settings.setAutoConfigurationEnabled(true);
-		settings.setReadInputOnSeparateThread(false); // disabling is (slightly) more efficient if your input is small
+		settings.setReadInputOnSeparateThread(false); // disabling is (slightly) more efficient if your input is small, enabled in parallel mode of CsvIterator
 		settings.setSkipEmptyLines(true);
 		settings.trimValues(true);
 		settings.setMaxCharsPerColumn(100000);
@@ -69,19 +62,28 @@ public class Csv {
 		settings.getFormat().setCharToEscapeQuoteEscaping('"');
 		settings.getFormat().setLineSeparator("\n");
 		settings.getFormat().setComment('#');
+		return settings;
+	}
 
-		try (InputStreamReader reader = new InputStreamReader(Input.newInputStream(queryPath, true, timeout, userAgent), StandardCharsets.UTF_8)) {
-			CsvParser parser = new CsvParser(settings);
-			parser.parse(reader);
-		}
+	// parsing on separate threads pays off only for larger inputs
+	private static boolean isParallel(String queryPath) throws IOException {
+		return Input.isProtocol(queryPath) || Files.size(Paths.get(queryPath)) > PARALLEL_SIZE;
+	}
 
-		int i = 0;
-		for (InputType inputType : rowProcessor.getBeans()) {
-			inputType.check(++i);
-			inputs.add(inputType);
-		}
+	public static CsvIterator iterate(String queryPath, QueryType type, int timeout, String userAgent) throws IOException {
+		return new CsvIterator(queryPath, type, timeout, userAgent, isParallel(queryPath));
+	}
 
-		logger.debug("Loaded {} CSV entries from {} of type {}", inputs.size(), queryPath, type);
+	public static List<InputType> load(String queryPath, QueryType type, int timeout, String userAgent) throws IOException, ParseException {
+		List<InputType> inputs = new ArrayList<>();
+
+		try (CsvIterator iterator = iterate(queryPath, type, timeout, userAgent)) {
+			while (iterator.hasNext()) {
+				inputs.add(iterator.next());
+			}
+		} catch (UncheckedIOException | UncheckedParseException e) {
+			throw UncheckedParseException.unwrap(e);
+		}
 
 		return inputs;
 	}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.input;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.univocity.parsers.common.ParsingContext;
+import com.univocity.parsers.common.ResultIterator;
+import com.univocity.parsers.common.processor.BeanProcessor;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import com.univocity.parsers.csv.CsvRoutines;
+
+import org.edamontology.edammap.core.query.QueryType;
+
+// Reads rows of a CSV as beans one at a time
+// In parallel mode, input is read on a separate thread and rows are parsed to beans on another thread, which hands them over through a bounded queue
+public class CsvIterator implements InputIterator<InputType> {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final int QUEUE_SIZE = 1000;
+
+	private static final Object END = new Object();
+
+	private final String queryPath;
+
+	private final QueryType type;
+
+	private final InputStreamReader reader;
+
+	private final ResultIterator<? extends InputType, ParsingContext> iterator;
+
+	private final CsvParser parser;
+
+	private final BlockingQueue<Object> queue;
+
+	private final Thread producer;
+
+	private InputType next = null;
+
+	private boolean done = false;
+
+	private int i = 0;
+
+	public CsvIterator(String queryPath, QueryType type, int timeout, String userAgent, boolean parallel) throws IOException {
+		this.queryPath = queryPath;
+		this.type = type;
+		this.reader = new InputStreamReader(Input.newInputStream(queryPath, true, timeout, userAgent), StandardCharsets.UTF_8);
+		CsvParserSettings settings = Csv.getSettings();
+		if (parallel) {
+			this.iterator = null;
+			this.queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+			settings.setReadInputOnSeparateThread(true);
+			settings.setProcessor(processor(Csv.getBeanClass(type)));
+			this.parser = new CsvParser(settings);
+			this.producer = new Thread(() -> {
+				try {
+					parser.parse(reader);
+					queue.put(END);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (Throwable e) {
+					try {
+						queue.put(e);
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}, "csv-parser");
+			this.producer.setDaemon(true);
+			this.producer.start();
+		} else {
+			this.iterator = new CsvRoutines(settings).iterate(Csv.getBeanClass(type), reader).iterator();
+			this.parser = null;
+			this.queue = null;
+			this.producer = null;
+		}
+	}
+
+	// beans are not collected to a list, but handed over one at a time
+	private <T extends InputType> BeanProcessor<T> processor(Class<T> beanClass) {
+		BeanProcessor<T> processor = new BeanProcessor<T>(beanClass) {
+			@Override
+			public void beanProcessed(T bean, ParsingContext context) {
+				try {
+					queue.put(bean);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					context.stop();
+				}
+			}
+		};
+		processor.setStrictHeaderValidationEnabled(false);
+		return processor;
+	}
+
+	private InputType take() {
+		Object item;
+		try {
+			item = queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		if (item == END) {
+			return null;
+		}
+		if (item instanceof Throwable) {
+			done = true;
+			Throwable e = (Throwable) item;
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			} else if (e instanceof Error) {
+				throw (Error) e;
+			} else if (e instanceof IOException) {
+				throw new UncheckedIOException((IOException) e);
+			} else {
+				throw new RuntimeException(e);
+			}
+		}
+		return (InputType) item;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !done) {
+			if (queue != null) {
+				next = take();
+			} else if (iterator.hasNext()) {
+				next = iterator.next();
+			}
+			if (next == null) {
+				done = true;
+				logger.debug("Loaded {} CSV entries from {} of type {}", i, queryPath, type);
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public InputType next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		InputType input = next;
+		next = null;
+		try {
+			input.check(++i);
+		} catch (ParseException e) {
+			throw new UncheckedParseException(e);
+		}
+		return input;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (producer != null) {
+				producer.interrupt();
+				parser.stopParsing();
+			} else {
+				iterator.getContext().stop();
+			}
+		} finally {
+			reader.close();
+		}
+	}
+}
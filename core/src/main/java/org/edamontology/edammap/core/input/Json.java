@@ -20,44 +20,35 @@
 package org.edamontology.edammap.core.input;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-
-import org.edamontology.edammap.core.input.json.Biotools;
 import org.edamontology.edammap.core.query.QueryType;
 
 public class Json {
 
-	private static final Logger logger = LogManager.getLogger();
+	public static JsonIterator iterate(String queryPath, QueryType type, int timeout, String userAgent) throws IOException, ParseException {
+		if (type != QueryType.biotools) {
+			throw new IllegalArgumentException("JSON input is only available for QueryType " + QueryType.biotools);
+		}
+		return new JsonIterator(queryPath, timeout, userAgent);
+	}
 
 	public static List<? extends InputType> load(String queryPath, QueryType type, int timeout, String userAgent) throws IOException, ParseException {
-		List<? extends InputType> inputs = new ArrayList<>();
-
-		try (InputStream is = Input.newInputStream(queryPath, true, timeout, userAgent)) {
-			ObjectMapper mapper = new ObjectMapper();
-			mapper.enable(SerializationFeature.CLOSE_CLOSEABLE);
-
-			switch (type) {
-				case biotools: inputs = mapper.readValue(is, Biotools.class).getList(); break;
-				default: break;
+		List<InputType> inputs = new ArrayList<>();
+
+		if (type == QueryType.biotools) {
+			try (JsonIterator iterator = iterate(queryPath, type, timeout, userAgent)) {
+				while (iterator.hasNext()) {
+					inputs.add(iterator.next());
+				}
+			} catch (UncheckedIOException | UncheckedParseException e) {
+				throw UncheckedParseException.unwrap(e);
 			}
 		}
 
-		int i = 0;
-		for (InputType inputType : inputs) {
-			inputType.check(++i);
-		}
-
-		logger.debug("Loaded {} JSON entries from {} of type {}", inputs.size(), queryPath, type);
-
 		return inputs;
 	}
 }
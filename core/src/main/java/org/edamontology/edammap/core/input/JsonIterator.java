@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+import java.util.NoSuchElementException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.edamontology.edammap.core.input.json.Tool;
+
+// Reads tools from the "list" of a bio.tools JSON one at a time, without loading the whole JSON to memory
+public class JsonIterator implements InputIterator<Tool> {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final String LIST = "list";
+
+	private static final String COUNT = "count";
+
+	private final String queryPath;
+
+	private final InputStream is;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private final JsonParser parser;
+
+	private Tool next = null;
+
+	private boolean done = false;
+
+	private int i = 0;
+
+	private int size = -1;
+
+	public JsonIterator(String queryPath, int timeout, String userAgent) throws IOException, ParseException {
+		this.queryPath = queryPath;
+		this.is = Input.newInputStream(queryPath, true, timeout, userAgent);
+		try {
+			this.parser = mapper.getFactory().createParser(is);
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new ParseException("Expected JSON object in " + queryPath, 0);
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken token = parser.nextToken();
+				if (LIST.equals(field) && token == JsonToken.START_ARRAY) {
+					return;
+				}
+				// bio.tools gives the count before the list
+				if (COUNT.equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+					size = parser.getIntValue();
+				}
+				parser.skipChildren();
+			}
+			finish();
+		} catch (IOException | ParseException | RuntimeException e) {
+			is.close();
+			throw e;
+		}
+	}
+
+	private void finish() {
+		done = true;
+		logger.debug("Loaded {} JSON entries from {}", i, queryPath);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !done) {
+			try {
+				if (parser.nextToken() == JsonToken.START_OBJECT) {
+					next = mapper.readValue(parser, Tool.class);
+				} else {
+					finish();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public Tool next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Tool tool = next;
+		next = null;
+		try {
+			tool.check(++i);
+		} catch (ParseException e) {
+			throw new UncheckedParseException(e);
+		}
+		return tool;
+	}
+
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			parser.close();
+		} finally {
+			is.close();
+		}
+	}
+}
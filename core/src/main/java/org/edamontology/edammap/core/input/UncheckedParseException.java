@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.input;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+
+// Wraps a ParseException of lazily read input, like UncheckedIOException wraps an IOException
+public class UncheckedParseException extends RuntimeException {
+
+	private static final long serialVersionUID = -5409134524683271532L;
+
+	public UncheckedParseException(ParseException cause) {
+		super(cause.getMessage(), cause);
+	}
+
+	@Override
+	public synchronized ParseException getCause() {
+		return (ParseException) super.getCause();
+	}
+
+	// throws the checked exception wrapped in an UncheckedIOException or UncheckedParseException, otherwise returns the given exception for the caller to throw
+	public static RuntimeException unwrap(RuntimeException e) throws IOException, ParseException {
+		if (e instanceof UncheckedIOException) {
+			throw ((UncheckedIOException) e).getCause();
+		} else if (e instanceof UncheckedParseException) {
+			throw ((UncheckedParseException) e).getCause();
+		}
+		return e;
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.edamontology.edammap.core.input.xml.Biotools14;
+
+// Reads resources of a bio.tools 1.4 XML one at a time
+public class XmlIterator implements InputIterator<Biotools14> {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	private final String queryPath;
+
+	private final InputStream is;
+
+	private final XMLStreamReader reader;
+
+	private Biotools14 next = null;
+
+	private boolean done = false;
+
+	private int i = 0;
+
+	public XmlIterator(String queryPath, int timeout, String userAgent) throws IOException, ParseException {
+		this.queryPath = queryPath;
+		this.is = Input.newInputStream(queryPath, true, timeout, userAgent);
+		try {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty("javax.xml.stream.isCoalescing", true);
+			this.reader = factory.createXMLStreamReader(is, StandardCharsets.UTF_8.name());
+		} catch (XMLStreamException e) {
+			is.close();
+			throw new ParseException(e.getLocalizedMessage(), e.getLocation().getLineNumber());
+		}
+	}
+
+	private Biotools14 read() throws XMLStreamException {
+		Biotools14 biotools = null;
+		String text = null;
+
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				String uri = reader.getAttributeValue(null, "uri");
+				switch (reader.getLocalName()) {
+					case "resource": biotools = new Biotools14(); break;
+					case "topic": if (uri != null) biotools.addTopic(uri); break;
+					case "functionName": if (uri != null) biotools.addFunctionName(uri); break;
+					case "dataType": if (uri != null) biotools.addDataType(uri); break;
+					case "dataFormat": if (uri != null) biotools.addDataFormat(uri); break;
+				}
+				text = null;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+				text = reader.getText();
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				switch (reader.getLocalName()) {
+					case "resource": return biotools;
+					case "name": if (biotools.getName() == null) biotools.setName(text); break;
+					case "homepage": if (biotools.getHomepage() == null) biotools.setHomepage(text); break;
+					case "mirror": biotools.addMirror(text); break;
+					case "description": if (biotools.getDescription() == null) biotools.setDescription(text); break;
+					case "docsHome": if (biotools.getDocsHome() == null) biotools.setDocsHome(text); break;
+					case "docsGithub": if (biotools.getDocsGithub() == null) biotools.setDocsGithub(text); break;
+					case "publicationsPrimaryID": if (biotools.getPublicationsPrimaryID() == null) biotools.setPublicationsPrimaryID(text); break;
+					case "publicationsOtherID": biotools.addPublicationsOtherID(text); break;
+				}
+				break;
+			}
+		}
+
+		return null;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !done) {
+			try {
+				next = read();
+			} catch (XMLStreamException e) {
+				throw new UncheckedParseException(new ParseException(e.getLocalizedMessage(), e.getLocation().getLineNumber()));
+			}
+			if (next == null) {
+				done = true;
+				logger.debug("Loaded {} XML entries from {}", i, queryPath);
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public Biotools14 next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Biotools14 biotools = next;
+		next = null;
+		try {
+			biotools.check(++i);
+		} catch (ParseException e) {
+			throw new UncheckedParseException(e);
+		}
+		return biotools;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			reader.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} finally {
+			is.close();
+		}
+	}
+}
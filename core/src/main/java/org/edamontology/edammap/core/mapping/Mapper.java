@@ -22,11 +22,13 @@ package org.edamontology.edammap.core.mapping;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.edamontology.edammap.core.edam.Branch;
 import org.edamontology.edammap.core.edam.EdamUri;
@@ -35,11 +37,14 @@ import org.edamontology.edammap.core.mapping.args.IdfArgs;
 import org.edamontology.edammap.core.mapping.args.MapperArgs;
 import org.edamontology.edammap.core.mapping.args.MultiplierArgs;
 import org.edamontology.edammap.core.mapping.args.NormaliserArgs;
+import org.edamontology.edammap.core.mapping.args.WeightArgs;
 import org.edamontology.edammap.core.processing.ConceptProcessed;
 import org.edamontology.edammap.core.processing.PublicationProcessed;
 import org.edamontology.edammap.core.processing.QueryProcessed;
+import org.edamontology.edammap.core.processing.SentenceStore;
 import org.edamontology.edammap.core.query.Query;
 
+// Not thread-safe (Levenshtein buffers and profiling state are per instance), each thread must use its own Mapper
 public class Mapper {
 
 	private static final int FIND_BEST_REPLACEMENT_RECURSION_LIMIT = 10;
@@ -55,12 +60,32 @@ public class Mapper {
 		private double score;
 	}
 
+	// a part of the query to match against, with its normaliser and weight
+	// the other type, if not null, is matched too and the better match of the two is used
+	private static class Part {
+		private final QueryMatchType type;
+		private final QueryMatchType otherType;
+		private final double normaliser;
+		private final double weight;
+		private Part(QueryMatchType type, QueryMatchType otherType, double normaliser, double weight) {
+			this.type = type;
+			this.otherType = otherType;
+			this.normaliser = normaliser;
+			this.weight = weight;
+		}
+	}
+
 	private final Map<EdamUri, ConceptProcessed> processedConcepts;
 
 	private final Set<EdamUri> edamBlacklist;
 
 	private final Levenshtein levenshtein;
 
+	// not null only during map() with --profile set
+	private MapperProfile profile = null;
+	private QueryMatchType profileType = null;
+	private Branch profileBranch = null;
+
 	public Mapper(Map<EdamUri, ConceptProcessed> processedConcepts, Set<EdamUri> edamBlacklist) {
 		if (processedConcepts == null) {
 			throw new IllegalArgumentException("Given concepts is null");
@@ -72,6 +97,8 @@ public class Mapper {
 
 	private List<M> getTokenMatches(List<String> tos, List<String> froms, int compoundWords, double mismatchMultiplier, double matchMinimum) {
 		List<M> matches = new ArrayList<>();
+		int levenshteinCount = 0;
+		int levenshteinExits = 0;
 
 		for (int toCW = 0; toCW <= compoundWords; ++toCW) {
 			for (int toI = 0; toI < tos.size() - toCW; ++toI) {
@@ -101,10 +128,12 @@ public class Mapper {
 								d_max += toCW + fromCW;
 							}
 							int d = levenshtein.improved(from, to, d_max);
+							++levenshteinCount;
 							if (d > -1) {
 								score = 1 - (mismatchMultiplier * d) / (double)l;
 							} else {
 								score = 0;
+								++levenshteinExits;
 							}
 						} else {
 							if (from.equals(to)) score = 1;
@@ -127,6 +156,10 @@ public class Mapper {
 			matches.sort((m1, m2) -> (m1.to > m2.to ? 1 : (m1.to < m2.to ? -1 : 0)));
 		}
 
+		if (profile != null) {
+			profile.addTokenMatches(profileType, levenshteinCount, levenshteinExits, matches.size());
+		}
+
 		return matches;
 	}
 
@@ -199,6 +232,14 @@ public class Mapper {
 		}
 	}
 
+	// IDFs of fulltext, webpage and doc sentences are got without boxing
+	private static double idf(List<Double> idfs, int index) {
+		if (idfs instanceof SentenceStore.IdfSentence) {
+			return ((SentenceStore.IdfSentence) idfs).getIdf(index);
+		}
+		return idfs.get(index);
+	}
+
 	private void calculateScores(double[] bestScores, List<String> tos, List<String> froms, List<Double> fromIdfs, double fromIdfScaling, double fromMultiplier, AlgorithmArgs args, boolean shortParts) {
 		double[] positionOffScores = { 1, args.getPositionOffBy1(), args.getPositionOffBy2() };
 
@@ -242,7 +283,7 @@ public class Mapper {
 				score = 0;
 			}
 			if (fromIdfScaling > 0) {
-				score *= Math.pow(fromIdfs.get(match.from), fromIdfScaling);
+				score *= Math.pow(idf(fromIdfs, match.from), fromIdfScaling);
 			}
 
 			if (i > 0 && match.to > matches.get(i - 1).to) {
@@ -286,7 +327,7 @@ public class Mapper {
 					break;
 				}
 				if (toIdfScaling > 0) {
-					score += bestScores[j] * Math.pow(toIdfs.get(j), toIdfScaling);
+					score += bestScores[j] * Math.pow(idf(toIdfs, j), toIdfScaling);
 				} else {
 					score += bestScores[j];
 				}
@@ -316,7 +357,7 @@ public class Mapper {
 		double bestScoresSum = 0;
 		for (int i = 0; i < bestScores.length; ++i) {
 			if (toIdfScaling > 0) {
-				bestScoresSum += bestScores[i] * Math.pow(toIdfs.get(i), toIdfScaling);
+				bestScoresSum += bestScores[i] * Math.pow(idf(toIdfs, i), toIdfScaling);
 			} else {
 				bestScoresSum += bestScores[i];
 			}
@@ -807,6 +848,11 @@ public class Mapper {
 	}
 
 	private Match getMatch(ConceptProcessed processedConcept, QueryProcessed processedQuery, QueryMatchType type, AlgorithmArgs algorithmArgs, IdfArgs idfArgs, MultiplierArgs multiplierArgs, NormaliserArgs normaliserArgs) {
+		long start = 0;
+		if (profile != null) {
+			profileType = type;
+			start = System.nanoTime();
+		}
 
 		ConceptMatch conceptMatch;
 		if (algorithmArgs.getConceptWeight() > 0) {
@@ -827,6 +873,10 @@ public class Mapper {
 			algorithmArgs.getQueryWeight() * queryMatch.getScore()) /
 			(algorithmArgs.getConceptWeight() + algorithmArgs.getQueryWeight());
 
+		if (profile != null) {
+			profile.addTime(type, profileBranch, System.nanoTime() - start);
+		}
+
 		return new Match(score, conceptMatch, queryMatch);
 	}
 
@@ -873,7 +923,65 @@ public class Mapper {
 		return false;
 	}
 
-	private Match getBestMatch(ConceptProcessed processedConcept, QueryProcessed processedQuery, MapperArgs args) {
+	private void addPart(List<Part> parts, QueryMatchType type, QueryMatchType otherType, double normaliser, double weight, boolean average, boolean hasTokens) {
+		if (normaliser > 0 && (!average || weight > 0) && hasTokens) {
+			parts.add(new Part(type, otherType, normaliser, weight));
+		}
+	}
+
+	// parts of the query that have tokens, with publication_efo standing for the part of both publication_efo and publication_go
+	private Set<QueryMatchType> getTypesWithTokens(QueryProcessed processedQuery) {
+		Set<QueryMatchType> types = EnumSet.noneOf(QueryMatchType.class);
+		List<PublicationProcessed> publications = processedQuery.getProcessedPublications();
+		if (hasTokens(processedQuery.getNameTokens())) types.add(QueryMatchType.name);
+		if (hasListTokens(processedQuery.getKeywordsTokens())) types.add(QueryMatchType.keyword);
+		if (hasListTokens(processedQuery.getDescriptionTokens())) types.add(QueryMatchType.description);
+		if (hasPublicationTokens(publications, QueryMatchType.publication_title)) types.add(QueryMatchType.publication_title);
+		if (hasPublicationTokens(publications, QueryMatchType.publication_keyword)) types.add(QueryMatchType.publication_keyword);
+		if (hasPublicationTokens(publications, QueryMatchType.publication_mesh)) types.add(QueryMatchType.publication_mesh);
+		if (hasPublicationTokens(publications, QueryMatchType.publication_efo) || hasPublicationTokens(publications, QueryMatchType.publication_go)) types.add(QueryMatchType.publication_efo);
+		if (hasPublicationTokens(publications, QueryMatchType.publication_abstract)) types.add(QueryMatchType.publication_abstract);
+		if (hasPublicationTokens(publications, QueryMatchType.publication_fulltext)) types.add(QueryMatchType.publication_fulltext);
+		if (hasListListTokens(processedQuery.getDocsTokens())) types.add(QueryMatchType.doc);
+		if (hasListListTokens(processedQuery.getWebpagesTokens())) types.add(QueryMatchType.webpage);
+		return types;
+	}
+
+	// done once per query, as the enabled parts and their token presence do not depend on the concept
+	private List<Part> getParts(Set<QueryMatchType> typesWithTokens, NormaliserArgs n, WeightArgs w, boolean average) {
+		List<Part> parts = new ArrayList<>();
+
+		addPart(parts, QueryMatchType.name, null, n.getNameNormaliser(), w.getNameWeight(), average,
+			typesWithTokens.contains(QueryMatchType.name));
+		addPart(parts, QueryMatchType.keyword, null, n.getKeywordNormaliser(), w.getKeywordWeight(), average,
+			typesWithTokens.contains(QueryMatchType.keyword));
+		addPart(parts, QueryMatchType.description, null, n.getDescriptionNormaliser(), w.getDescriptionWeight(), average,
+			typesWithTokens.contains(QueryMatchType.description));
+		addPart(parts, QueryMatchType.publication_title, null, n.getPublicationTitleNormaliser(), w.getPublicationTitleWeight(), average,
+			typesWithTokens.contains(QueryMatchType.publication_title));
+		addPart(parts, QueryMatchType.publication_keyword, null, n.getPublicationKeywordNormaliser(), w.getPublicationKeywordWeight(), average,
+			typesWithTokens.contains(QueryMatchType.publication_keyword));
+		addPart(parts, QueryMatchType.publication_mesh, null, n.getPublicationMeshNormaliser(), w.getPublicationMeshWeight(), average,
+			typesWithTokens.contains(QueryMatchType.publication_mesh));
+		addPart(parts, QueryMatchType.publication_efo, QueryMatchType.publication_go, n.getPublicationMinedTermNormaliser(), w.getPublicationMinedTermWeight(), average,
+			typesWithTokens.contains(QueryMatchType.publication_efo));
+		addPart(parts, QueryMatchType.publication_abstract, null, n.getPublicationAbstractNormaliser(), w.getPublicationAbstractWeight(), average,
+			typesWithTokens.contains(QueryMatchType.publication_abstract));
+		addPart(parts, QueryMatchType.publication_fulltext, null, n.getPublicationFulltextNormaliser(), w.getPublicationFulltextWeight(), average,
+			typesWithTokens.contains(QueryMatchType.publication_fulltext));
+		addPart(parts, QueryMatchType.doc, null, n.getDocNormaliser(), w.getDocWeight(), average,
+			typesWithTokens.contains(QueryMatchType.doc));
+		addPart(parts, QueryMatchType.webpage, null, n.getWebpageNormaliser(), w.getWebpageWeight(), average,
+			typesWithTokens.contains(QueryMatchType.webpage));
+
+		return parts;
+	}
+
+	private List<Part> getParts(Set<QueryMatchType> typesWithTokens, MapperArgs args) {
+		return getParts(typesWithTokens, args.getNormaliserArgs(), args.getWeightArgs(), args.getAlgorithmArgs().getMappingStrategy() == MapperStrategy.average);
+	}
+
+	private Match getBestMatch(Function<QueryMatchType, Match> rawMatch, List<Part> parts, MapperArgs args) {
 		Match bestMatch = new Match(0, new ConceptMatch(0, ConceptMatchType.none, -1), new QueryMatch(0, QueryMatchType.none, -1, -1));
 		double numerator = 0;
 		double denominator = 0;
@@ -883,148 +991,18 @@ public class Mapper {
 
 		List<MatchAverageStats> matchAverageStats = new ArrayList<>();
 
-		if (args.getNormaliserArgs().getNameNormaliser() > 0
-				&& (!average || args.getWeightArgs().getNameWeight() > 0)
-				&& hasTokens(processedQuery.getNameTokens())) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.name, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getNameNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getNameWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getNameWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getKeywordNormaliser() > 0
-				&& (!average || args.getWeightArgs().getKeywordWeight() > 0)
-				&& hasListTokens(processedQuery.getKeywordsTokens())) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.keyword, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getKeywordNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getKeywordWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getKeywordWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getDescriptionNormaliser() > 0
-				&& (!average || args.getWeightArgs().getDescriptionWeight() > 0)
-				&& hasListTokens(processedQuery.getDescriptionTokens())) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.description, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getDescriptionNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getDescriptionWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getDescriptionWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getPublicationTitleNormaliser() > 0
-				&& (!average || args.getWeightArgs().getPublicationTitleWeight() > 0)
-				&& hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_title)) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.publication_title, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getPublicationTitleNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getPublicationTitleWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getPublicationTitleWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getPublicationKeywordNormaliser() > 0
-				&& (!average || args.getWeightArgs().getPublicationKeywordWeight() > 0)
-				&& hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_keyword)) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.publication_keyword, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getPublicationKeywordNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getPublicationKeywordWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getPublicationKeywordWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getPublicationMeshNormaliser() > 0
-				&& (!average || args.getWeightArgs().getPublicationMeshWeight() > 0)
-				&& hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_mesh)) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.publication_mesh, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getPublicationMeshNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getPublicationMeshWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getPublicationMeshWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getPublicationMinedTermNormaliser() > 0
-				&& (!average || args.getWeightArgs().getPublicationMinedTermWeight() > 0)
-				&& (hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_efo) || hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_go))) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.publication_efo, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			Match otherMatch = getMatch(processedConcept, processedQuery, QueryMatchType.publication_go, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			if (otherMatch.compareTo(match) > 0) match = otherMatch;
-			match.setScore(match.getScore() * args.getNormaliserArgs().getPublicationMinedTermNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getPublicationMinedTermWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getPublicationMinedTermWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
+		for (Part part : parts) {
+			Match match = rawMatch.apply(part.type);
+			if (part.otherType != null) {
+				Match otherMatch = rawMatch.apply(part.otherType);
+				if (otherMatch.compareTo(match) > 0) match = otherMatch;
 			}
-		}
-		if (args.getNormaliserArgs().getPublicationAbstractNormaliser() > 0
-				&& (!average || args.getWeightArgs().getPublicationAbstractWeight() > 0)
-				&& hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_abstract)) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.publication_abstract, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getPublicationAbstractNormaliser());
+			match.setScore(match.getScore() * part.normaliser);
 			if (match.compareTo(bestMatch) > 0) bestMatch = match;
 			if (average) {
-				double numeratorPart = args.getWeightArgs().getPublicationAbstractWeight() * Math.pow(match.getScore(), scaling);
+				double numeratorPart = part.weight * Math.pow(match.getScore(), scaling);
 				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getPublicationAbstractWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getPublicationFulltextNormaliser() > 0
-				&& (!average || args.getWeightArgs().getPublicationFulltextWeight() > 0)
-				&& hasPublicationTokens(processedQuery.getProcessedPublications(), QueryMatchType.publication_fulltext)) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.publication_fulltext, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getPublicationFulltextNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getPublicationFulltextWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getPublicationFulltextWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getDocNormaliser() > 0
-				&& (!average || args.getWeightArgs().getDocWeight() > 0)
-				&& hasListListTokens(processedQuery.getDocsTokens())) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.doc, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getDocNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getDocWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getDocWeight();
-				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
-			}
-		}
-		if (args.getNormaliserArgs().getWebpageNormaliser() > 0
-				&& (!average || args.getWeightArgs().getWebpageWeight() > 0)
-				&& hasListListTokens(processedQuery.getWebpagesTokens())) {
-			Match match = getMatch(processedConcept, processedQuery, QueryMatchType.webpage, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs());
-			match.setScore(match.getScore() * args.getNormaliserArgs().getWebpageNormaliser());
-			if (match.compareTo(bestMatch) > 0) bestMatch = match;
-			if (average) {
-				double numeratorPart = args.getWeightArgs().getWebpageWeight() * Math.pow(match.getScore(), scaling);
-				numerator += numeratorPart;
-				denominator += args.getWeightArgs().getWebpageWeight();
+				denominator += part.weight;
 				matchAverageStats.add(new MatchAverageStats(match.getQueryMatch(), match.getConceptMatch(), numeratorPart));
 			}
 		}
@@ -1165,9 +1143,7 @@ public class Mapper {
 		return bestReplacementMatch;
 	}
 
-	public Mapping map(Query query, QueryProcessed processedQuery, MapperArgs args) {
-		Mapping mapping = new Mapping(args.getMatches(), args.getBranches());
-
+	private Map<EdamUri, Match> getMatches(Function<EdamUri, Function<QueryMatchType, Match>> rawMatches, List<Part> parts, MapperArgs args) {
 		Map<EdamUri, Match> matches = new HashMap<>();
 
 		for (Map.Entry<EdamUri, ConceptProcessed> conceptEntry : processedConcepts.entrySet()) {
@@ -1184,7 +1160,10 @@ public class Mapper {
 				continue;
 			}
 
-			Match match = getBestMatch(processedConcept, processedQuery, args);
+			if (profile != null) {
+				profileBranch = edamUri.getBranch();
+			}
+			Match match = getBestMatch(rawMatches.apply(edamUri), parts, args);
 			match.setEdamUri(edamUri);
 
 			if (processedConcept.isObsolete()) {
@@ -1194,6 +1173,76 @@ public class Mapper {
 			matches.put(edamUri, match);
 		}
 
+		return matches;
+	}
+
+	// raw matches of all concepts (that are not a branch root) of args.getBranches() to all query parts with tokens,
+	// regardless of normalisers and weights, to be mapped later with map(Query, ScoreMatrix, MapperArgs)
+	public ScoreMatrix getScoreMatrix(QueryProcessed processedQuery, MapperArgs args) {
+		Set<QueryMatchType> typesWithTokens = getTypesWithTokens(processedQuery);
+		// only whether a normaliser is above 0 matters for the raw match, and all default normalisers are
+		NormaliserArgs normaliserArgs = new NormaliserArgs();
+		List<QueryMatchType> types = new ArrayList<>();
+		for (Part part : getParts(typesWithTokens, normaliserArgs, args.getWeightArgs(), false)) {
+			types.add(part.type);
+			if (part.otherType != null) {
+				types.add(part.otherType);
+			}
+		}
+
+		List<Map.Entry<EdamUri, ConceptProcessed>> concepts = new ArrayList<>();
+		for (Map.Entry<EdamUri, ConceptProcessed> conceptEntry : processedConcepts.entrySet()) {
+			if (args.getBranches().contains(conceptEntry.getKey().getBranch())
+					&& (!conceptEntry.getValue().getDirectParents().isEmpty() || conceptEntry.getValue().isObsolete())) {
+				concepts.add(conceptEntry);
+			}
+		}
+
+		ScoreMatrix scoreMatrix = new ScoreMatrix(processedConcepts, args, typesWithTokens, types, concepts.size());
+		for (Map.Entry<EdamUri, ConceptProcessed> conceptEntry : concepts) {
+			int concept = scoreMatrix.add(conceptEntry.getKey());
+			for (QueryMatchType type : types) {
+				scoreMatrix.set(concept, type, getMatch(conceptEntry.getValue(), processedQuery, type, args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), normaliserArgs));
+			}
+		}
+		return scoreMatrix;
+	}
+
+	public Mapping map(Query query, QueryProcessed processedQuery, MapperArgs args) {
+		Mapping mapping = new Mapping(args.getMatches(), args.getBranches());
+
+		profile = args.isProfile() ? new MapperProfile() : null;
+		mapping.setProfile(profile);
+
+		List<Part> parts = getParts(getTypesWithTokens(processedQuery), args);
+
+		Map<EdamUri, Match> matches;
+		try {
+			matches = getMatches(edamUri -> type -> getMatch(processedConcepts.get(edamUri), processedQuery, type,
+				args.getAlgorithmArgs(), args.getIdfArgs(), args.getMultiplierArgs(), args.getNormaliserArgs()), parts, args);
+		} finally {
+			profile = null;
+			profileType = null;
+			profileBranch = null;
+		}
+
+		return map(query, matches, mapping, args);
+	}
+
+	// map again from raw matches, without matching any tokens
+	public Mapping map(Query query, ScoreMatrix scoreMatrix, MapperArgs args) {
+		scoreMatrix.check(processedConcepts, args);
+
+		Mapping mapping = new Mapping(args.getMatches(), args.getBranches());
+
+		List<Part> parts = getParts(scoreMatrix.getTypesWithTokens(), args);
+
+		Map<EdamUri, Match> matches = getMatches(edamUri -> type -> scoreMatrix.get(edamUri, type), parts, args);
+
+		return map(query, matches, mapping, args);
+	}
+
+	private Mapping map(Query query, Map<EdamUri, Match> matches, Mapping mapping, MapperArgs args) {
 		Set<EdamUri> annotations = new LinkedHashSet<>();
 		if (query.getAnnotations() != null) {
 			for (EdamUri annotation : query.getAnnotations()) {
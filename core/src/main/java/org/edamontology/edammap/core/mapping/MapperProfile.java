@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.core.mapping;
+
+import java.util.Locale;
+
+import org.edamontology.edammap.core.edam.Branch;
+
+// Counts and times of the work done by Mapper, per query part (QueryMatchType) and per branch
+// Collected only if --profile is set, for one query in Mapping and summed over all queries in Results
+public class MapperProfile {
+
+	private static final int TYPES = QueryMatchType.values().length;
+	private static final int BRANCHES = Branch.values().length;
+
+	private final long[] tokenMatches = new long[TYPES];
+	private final long[] levenshtein = new long[TYPES];
+	private final long[] levenshteinExits = new long[TYPES];
+	private final long[] matches = new long[TYPES];
+	private final long[][] time = new long[TYPES][BRANCHES];
+
+	void addTokenMatches(QueryMatchType type, int levenshtein, int levenshteinExits, int matches) {
+		++this.tokenMatches[type.ordinal()];
+		this.levenshtein[type.ordinal()] += levenshtein;
+		this.levenshteinExits[type.ordinal()] += levenshteinExits;
+		this.matches[type.ordinal()] += matches;
+	}
+
+	void addTime(QueryMatchType type, Branch branch, long nanos) {
+		time[type.ordinal()][branch.ordinal()] += nanos;
+	}
+
+	public void add(MapperProfile other) {
+		for (int i = 0; i < TYPES; ++i) {
+			tokenMatches[i] += other.tokenMatches[i];
+			levenshtein[i] += other.levenshtein[i];
+			levenshteinExits[i] += other.levenshteinExits[i];
+			matches[i] += other.matches[i];
+			for (int j = 0; j < BRANCHES; ++j) {
+				time[i][j] += other.time[i][j];
+			}
+		}
+	}
+
+	// number of calls of getTokenMatches
+	public long getTokenMatches(QueryMatchType type) {
+		return tokenMatches[type.ordinal()];
+	}
+
+	// number of Levenshtein distance calculations
+	public long getLevenshtein(QueryMatchType type) {
+		return levenshtein[type.ordinal()];
+	}
+
+	// number of Levenshtein distance calculations exited early, because the maximum distance was exceeded
+	public long getLevenshteinExits(QueryMatchType type) {
+		return levenshteinExits[type.ordinal()];
+	}
+
+	// number of token matches with a non-zero score
+	public long getMatches(QueryMatchType type) {
+		return matches[type.ordinal()];
+	}
+
+	// nanoseconds
+	public long getTime(QueryMatchType type, Branch branch) {
+		return time[type.ordinal()][branch.ordinal()];
+	}
+	public long getTime(QueryMatchType type) {
+		long sum = 0;
+		for (int j = 0; j < BRANCHES; ++j) {
+			sum += time[type.ordinal()][j];
+		}
+		return sum;
+	}
+	public long getTime(Branch branch) {
+		long sum = 0;
+		for (int i = 0; i < TYPES; ++i) {
+			sum += time[i][branch.ordinal()];
+		}
+		return sum;
+	}
+
+	public boolean isEmpty(QueryMatchType type) {
+		return tokenMatches[type.ordinal()] == 0 && getTime(type) == 0;
+	}
+
+	public String toStringType(QueryMatchType type) {
+		return String.format(Locale.ROOT, "%.3fs, %d getTokenMatches, %d Levenshtein (%d early exits), %d matches",
+			getTime(type) / 1000000000.0, getTokenMatches(type), getLevenshtein(type), getLevenshteinExits(type), getMatches(type));
+	}
+
+	public String toStringBranches() {
+		StringBuilder sb = new StringBuilder();
+		for (Branch branch : Branch.values()) {
+			if (sb.length() > 0) sb.append(", ");
+			sb.append(branch).append(' ').append(String.format(Locale.ROOT, "%.3fs", getTime(branch) / 1000000000.0));
+		}
+		return sb.toString();
+	}
+}
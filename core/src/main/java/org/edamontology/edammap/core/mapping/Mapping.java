@@ -36,6 +36,8 @@ public class Mapping {
 
 	private final List<Branch> branches;
 
+	private MapperProfile profile = null;
+
 	public Mapping(int matchesTop, List<Branch> branches) {
 		if (matchesTop < 0) {
 			throw new IllegalArgumentException("Matches per branch must be positive");
@@ -92,6 +94,13 @@ public class Mapping {
 			return true;
 		}
 	}
+	public MapperProfile getProfile() {
+		return profile;
+	}
+	public void setProfile(MapperProfile profile) {
+		this.profile = profile;
+	}
+
 	public boolean isFull() {
 		for (Branch branch : branches) {
 			if (!isFull(branch)) return false;
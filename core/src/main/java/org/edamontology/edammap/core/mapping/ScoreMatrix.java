@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.edamontology.pubfetcher.core.common.Arg;
+
+import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.mapping.args.AlgorithmArgs;
+import org.edamontology.edammap.core.mapping.args.MapperArgs;
+import org.edamontology.edammap.core.processing.ConceptProcessed;
+
+// Raw (not normalised) matches of all concepts of some branches to all query parts with tokens, as got with Mapper.getScoreMatrix()
+// A query can be mapped again from these with Mapper.map() under different post-processing args (normalisers, weights, score limits, etc),
+// as long as args affecting the matching of tokens (all algorithm args except mappingStrategy, parentWeight and pathWeight, IDF and multiplier args) stay the same
+public class ScoreMatrix {
+
+	private static final ConceptMatchType[] CONCEPT_MATCH_TYPES = ConceptMatchType.values();
+	private static final QueryMatchType[] QUERY_MATCH_TYPES = QueryMatchType.values();
+
+	private final Map<EdamUri, ConceptProcessed> processedConcepts;
+
+	private final String key;
+
+	private final List<Branch> branches;
+
+	private final Set<QueryMatchType> typesWithTokens;
+
+	private final Map<EdamUri, Integer> concepts = new HashMap<>();
+
+	// column of a QueryMatchType, -1 if not matched
+	private final int[] columns = new int[QUERY_MATCH_TYPES.length];
+	private final int columnsSize;
+
+	// at [concept * columnsSize + column]
+	private final double[] scores;
+	private final double[] conceptScores;
+	private final byte[] conceptTypes;
+	private final int[] synonymIndexes;
+	private final double[] queryScores;
+	private final byte[] queryTypes;
+	private final int[] indexes;
+	private final int[] indexesInPublication;
+
+	ScoreMatrix(Map<EdamUri, ConceptProcessed> processedConcepts, MapperArgs args, Set<QueryMatchType> typesWithTokens, List<QueryMatchType> types, int conceptsSize) {
+		this.processedConcepts = processedConcepts;
+		this.key = key(args);
+		this.branches = Collections.unmodifiableList(new ArrayList<>(args.getBranches()));
+		this.typesWithTokens = typesWithTokens;
+		Arrays.fill(columns, -1);
+		for (int i = 0; i < types.size(); ++i) {
+			columns[types.get(i).ordinal()] = i;
+		}
+		this.columnsSize = types.size();
+		int size = conceptsSize * columnsSize;
+		scores = new double[size];
+		conceptScores = new double[size];
+		conceptTypes = new byte[size];
+		synonymIndexes = new int[size];
+		queryScores = new double[size];
+		queryTypes = new byte[size];
+		indexes = new int[size];
+		indexesInPublication = new int[size];
+	}
+
+	// the args that the raw matches depend on, mapping from a matrix is possible only if this is equal for both
+	public static String key(MapperArgs args) {
+		StringBuilder sb = new StringBuilder();
+		AlgorithmArgs a = args.getAlgorithmArgs();
+		sb.append(a.getCompoundWords()).append(' ').append(a.getMismatchMultiplier()).append(' ').append(a.getMatchMinimum()).append(' ')
+			.append(a.getPositionOffBy1()).append(' ').append(a.getPositionOffBy2()).append(' ').append(a.getPositionMatchScaling()).append(' ')
+			.append(a.getPositionLoss()).append(' ').append(a.getScoreScaling()).append(' ').append(a.getConceptWeight()).append(' ').append(a.getQueryWeight());
+		for (Arg<?, ?> arg : args.getIdfArgs().getArgs()) {
+			sb.append(' ').append(arg.getValue());
+		}
+		for (Arg<?, ?> arg : args.getMultiplierArgs().getArgs()) {
+			sb.append(' ').append(arg.getValue());
+		}
+		return sb.toString();
+	}
+
+	// throws if mapping with the given args and concepts can't be done from this matrix
+	void check(Map<EdamUri, ConceptProcessed> processedConcepts, MapperArgs args) {
+		if (processedConcepts != this.processedConcepts) {
+			throw new IllegalArgumentException("Score matrix was computed for different concepts");
+		}
+		if (!key.equals(key(args))) {
+			throw new IllegalArgumentException("Score matrix was computed with different algorithm, IDF or multiplier args");
+		}
+		if (!branches.containsAll(args.getBranches())) {
+			throw new IllegalArgumentException("Score matrix was computed for branches " + branches + ", but mapping to " + args.getBranches() + " requested");
+		}
+	}
+
+	int add(EdamUri edamUri) {
+		int concept = concepts.size();
+		concepts.put(edamUri, concept);
+		return concept;
+	}
+
+	void set(int concept, QueryMatchType type, Match match) {
+		int i = concept * columnsSize + columns[type.ordinal()];
+		scores[i] = match.getScore();
+		conceptScores[i] = match.getConceptMatch().getScore();
+		conceptTypes[i] = (byte) match.getConceptMatch().getType().ordinal();
+		synonymIndexes[i] = match.getConceptMatch().getSynonymIndex();
+		queryScores[i] = match.getQueryMatch().getScore();
+		queryTypes[i] = (byte) match.getQueryMatch().getType().ordinal();
+		indexes[i] = match.getQueryMatch().getIndex();
+		indexesInPublication[i] = match.getQueryMatch().getIndexInPublication();
+	}
+
+	// a new Match every time, as matches are modified while mapping
+	Match get(EdamUri edamUri, QueryMatchType type) {
+		int i = concepts.get(edamUri) * columnsSize + columns[type.ordinal()];
+		return new Match(scores[i],
+			new ConceptMatch(conceptScores[i], CONCEPT_MATCH_TYPES[conceptTypes[i]], synonymIndexes[i]),
+			new QueryMatch(queryScores[i], QUERY_MATCH_TYPES[queryTypes[i]], indexes[i], indexesInPublication[i]));
+	}
+
+	Set<QueryMatchType> getTypesWithTokens() {
+		return typesWithTokens;
+	}
+
+	public List<Branch> getBranches() {
+		return branches;
+	}
+
+	public int size() {
+		return concepts.size();
+	}
+}
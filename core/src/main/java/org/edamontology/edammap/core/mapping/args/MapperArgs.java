@@ -78,6 +78,12 @@ public class MapperArgs extends Args {
 	@Parameter(names = { "--" + inferiorParentsChildrenId }, arity = 1, description = inferiorParentsChildrenDescription)
 	private Boolean inferiorParentsChildren = inferiorParentsChildrenDefault;
 
+	private static final String profileId = "profile";
+	private static final String profileDescription = "Count calls of token matching, Levenshtein distance calculations (and their early exits) and matches, and measure time spent, per query part and branch. Output per query and in total in JSON results and for all queries in the log. Adds some overhead to mapping.";
+	private static final Boolean profileDefault = false;
+	@Parameter(names = { "--" + profileId }, arity = 1, description = profileDescription)
+	private Boolean profile = profileDefault;
+
 	@ParametersDelegate
 	private AlgorithmArgs algorithmArgs = new AlgorithmArgs();
 
@@ -105,6 +111,7 @@ public class MapperArgs extends Args {
 		args.add(new Arg<>(this::getObsoletePenalty, this::setObsoletePenalty, obsoletePenaltyDefault, obsoletePenaltyId, "Penalty for obsolete concepts", obsoletePenaltyDescription, null));
 		args.add(new Arg<>(this::isDoneAnnotations, this::setDoneAnnotations, doneAnnotationsDefault, doneAnnotationsId, "Done annotations", doneAnnotationsDescription, null));
 		args.add(new Arg<>(this::isInferiorParentsChildren, this::setInferiorParentsChildren, inferiorParentsChildrenDefault, inferiorParentsChildrenId, "Inferior parents & children", inferiorParentsChildrenDescription, null));
+		args.add(new Arg<>(this::isProfile, this::setProfile, profileDefault, profileId, "Profile mapping", profileDescription, null));
 	}
 
 	@Override
@@ -166,6 +173,13 @@ public class MapperArgs extends Args {
 		this.inferiorParentsChildren = inferiorParentsChildren;
 	}
 
+	public Boolean isProfile() {
+		return profile;
+	}
+	public void setProfile(Boolean profile) {
+		this.profile = profile;
+	}
+
 	public AlgorithmArgs getAlgorithmArgs() {
 		return algorithmArgs;
 	}
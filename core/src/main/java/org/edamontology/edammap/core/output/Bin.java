@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.output;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.edamontology.edammap.core.benchmarking.MappingTest;
+import org.edamontology.edammap.core.benchmarking.MatchTest;
+import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.mapping.Match;
+import org.edamontology.edammap.core.query.Query;
+
+// Results in a compact binary format, to be read back with BinReader. After a header (magic, version, EDAM URI prefix
+// and number of queries), there is one length-prefixed record per query: the query ID and name and then its matches,
+// each as a branch, concept number, test, query and concept match type and the three scores as floats.
+// Strings are written as length-prefixed UTF-8 bytes, as writeUTF() can't write strings longer than 64 KB.
+public class Bin {
+
+	static final int MAGIC = 0x45444D42; // "EDMB"
+
+	static final int VERSION = 2;
+
+	private static final int RECORD_SIZE = 1024;
+
+	private static String prefix(Map<EdamUri, Concept> concepts) {
+		for (EdamUri edamUri : concepts.keySet()) {
+			return edamUri.getUri().substring(0, edamUri.getUri().lastIndexOf('/'));
+		}
+		return EdamUri.DEFAULT_PREFIX;
+	}
+
+	static void writeString(DataOutputStream dos, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		dos.writeInt(bytes.length);
+		dos.write(bytes);
+	}
+
+	static String readString(DataInputStream dis) throws IOException {
+		byte[] bytes = new byte[dis.readInt()];
+		dis.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	static void out(DataOutputStream dos, Map<EdamUri, Concept> concepts, List<Query> queries, List<MappingTest> mappings) throws IOException {
+		dos.writeInt(MAGIC);
+		dos.writeInt(VERSION);
+		writeString(dos, prefix(concepts));
+		dos.writeInt(queries.size());
+
+		ByteArrayOutputStream record = new ByteArrayOutputStream(RECORD_SIZE);
+		DataOutputStream recordDos = new DataOutputStream(record);
+
+		for (int i = 0; i < queries.size(); ++i) {
+			Query query = queries.get(i);
+			MappingTest mapping = mappings.get(i);
+
+			record.reset();
+			writeString(recordDos, query.getId() != null ? query.getId() : "");
+			writeString(recordDos, query.getName() != null ? query.getName() : "");
+
+			int size = 0;
+			for (Branch branch : Branch.values()) {
+				size += mapping.getMatches(branch).size();
+			}
+			recordDos.writeInt(size);
+
+			for (Branch branch : Branch.values()) {
+				for (MatchTest matchTest : mapping.getMatches(branch)) {
+					Match match = matchTest.getMatch();
+					// not the branch of the loop, as an obsolete concept can be replaced by a concept of another branch
+					recordDos.writeByte(match.getEdamUri().getBranch().ordinal());
+					recordDos.writeInt(match.getEdamUri().getNr());
+					recordDos.writeByte(matchTest.getTest().ordinal());
+					recordDos.writeByte(match.getQueryMatch().getType().ordinal());
+					recordDos.writeByte(match.getConceptMatch().getType().ordinal());
+					recordDos.writeFloat((float) match.getScore());
+					recordDos.writeFloat((float) match.getBestOneScore());
+					recordDos.writeFloat((float) match.getWithoutPathScore());
+				}
+			}
+
+			recordDos.flush();
+			dos.writeInt(record.size());
+			record.writeTo(dos);
+		}
+
+		dos.flush();
+	}
+
+	static void output(Path bin, Map<EdamUri, Concept> concepts, List<Query> queries, List<MappingTest> mappings) throws IOException {
+		if (bin != null) {
+			try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(bin)))) {
+				out(dos, concepts, queries, mappings);
+			}
+		}
+	}
+}
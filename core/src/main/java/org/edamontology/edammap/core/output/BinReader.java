@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.output;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.edamontology.edammap.core.benchmarking.Test;
+import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.mapping.ConceptMatchType;
+import org.edamontology.edammap.core.mapping.QueryMatchType;
+
+// Reads results written by Bin, one query record at a time
+public class BinReader implements Closeable {
+
+	private static final Branch[] BRANCHES = Branch.values();
+	private static final Test[] TESTS = Test.values();
+	private static final QueryMatchType[] QUERY_MATCH_TYPES = QueryMatchType.values();
+	private static final ConceptMatchType[] CONCEPT_MATCH_TYPES = ConceptMatchType.values();
+
+	private final DataInputStream dis;
+
+	private final String prefix;
+
+	private final int size;
+
+	private int read = 0;
+
+	public BinReader(Path bin) throws IOException {
+		dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(bin)));
+		try {
+			if (dis.readInt() != Bin.MAGIC) {
+				throw new IOException("Not an EDAMmap binary results file: " + bin);
+			}
+			int version = dis.readInt();
+			if (version != Bin.VERSION) {
+				throw new IOException("Unsupported version " + version + " of EDAMmap binary results file " + bin + ", supported is " + Bin.VERSION);
+			}
+			prefix = Bin.readString(dis);
+			size = dis.readInt();
+		} catch (IOException e) {
+			dis.close();
+			if (e instanceof EOFException) {
+				throw new IOException("Not an EDAMmap binary results file: " + bin, e);
+			}
+			throw e;
+		}
+	}
+
+	public String getPrefix() {
+		return prefix;
+	}
+
+	// number of query records in the file
+	public int getSize() {
+		return size;
+	}
+
+	public boolean hasNext() {
+		return read < size;
+	}
+
+	// null if all records have been read
+	public BinRecord next() throws IOException {
+		if (!hasNext()) return null;
+		dis.readInt();
+		String id = Bin.readString(dis);
+		String name = Bin.readString(dis);
+		int matches = dis.readInt();
+		Branch[] branches = new Branch[matches];
+		int[] nrs = new int[matches];
+		Test[] tests = new Test[matches];
+		QueryMatchType[] queryMatchTypes = new QueryMatchType[matches];
+		ConceptMatchType[] conceptMatchTypes = new ConceptMatchType[matches];
+		float[] scores = new float[matches];
+		float[] bestOneScores = new float[matches];
+		float[] withoutPathScores = new float[matches];
+		for (int i = 0; i < matches; ++i) {
+			branches[i] = BRANCHES[dis.readByte()];
+			nrs[i] = dis.readInt();
+			tests[i] = TESTS[dis.readByte()];
+			queryMatchTypes[i] = QUERY_MATCH_TYPES[dis.readByte()];
+			conceptMatchTypes[i] = CONCEPT_MATCH_TYPES[dis.readByte()];
+			scores[i] = dis.readFloat();
+			bestOneScores[i] = dis.readFloat();
+			withoutPathScores[i] = dis.readFloat();
+		}
+		++read;
+		return new BinRecord(prefix, id.isEmpty() ? null : id, name.isEmpty() ? null : name, branches, nrs, tests, queryMatchTypes, conceptMatchTypes, scores, bestOneScores, withoutPathScores);
+	}
+
+	// skips the next record without parsing it, returns false if all records have been read
+	public boolean skip() throws IOException {
+		if (!hasNext()) return false;
+		int length = dis.readInt();
+		while (length > 0) {
+			int skipped = dis.skipBytes(length);
+			if (skipped <= 0) {
+				throw new EOFException();
+			}
+			length -= skipped;
+		}
+		++read;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		dis.close();
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.output;
+
+import java.util.Locale;
+
+import org.edamontology.edammap.core.benchmarking.Test;
+import org.edamontology.edammap.core.edam.Branch;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.mapping.ConceptMatchType;
+import org.edamontology.edammap.core.mapping.QueryMatchType;
+
+// Results of one query, as read by BinReader. Matches are in the order of output, by branch.
+public class BinRecord {
+
+	private final String prefix;
+
+	private final String id;
+
+	private final String name;
+
+	private final Branch[] branches;
+
+	private final int[] nrs;
+
+	private final Test[] tests;
+
+	private final QueryMatchType[] queryMatchTypes;
+
+	private final ConceptMatchType[] conceptMatchTypes;
+
+	private final float[] scores;
+
+	private final float[] bestOneScores;
+
+	private final float[] withoutPathScores;
+
+	BinRecord(String prefix, String id, String name, Branch[] branches, int[] nrs, Test[] tests, QueryMatchType[] queryMatchTypes, ConceptMatchType[] conceptMatchTypes, float[] scores, float[] bestOneScores, float[] withoutPathScores) {
+		this.prefix = prefix;
+		this.id = id;
+		this.name = name;
+		this.branches = branches;
+		this.nrs = nrs;
+		this.tests = tests;
+		this.queryMatchTypes = queryMatchTypes;
+		this.conceptMatchTypes = conceptMatchTypes;
+		this.scores = scores;
+		this.bestOneScores = bestOneScores;
+		this.withoutPathScores = withoutPathScores;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	// number of matches
+	public int size() {
+		return nrs.length;
+	}
+
+	public Branch getBranch(int i) {
+		return branches[i];
+	}
+
+	public int getNr(int i) {
+		return nrs[i];
+	}
+
+	public EdamUri getEdamUri(int i) {
+		return new EdamUri(prefix + "/" + branches[i] + "_" + String.format(Locale.ROOT, "%04d", nrs[i]), prefix);
+	}
+
+	public Test getTest(int i) {
+		return tests[i];
+	}
+
+	public QueryMatchType getQueryMatchType(int i) {
+		return queryMatchTypes[i];
+	}
+
+	public ConceptMatchType getConceptMatchType(int i) {
+		return conceptMatchTypes[i];
+	}
+
+	public float getScore(int i) {
+		return scores[i];
+	}
+
+	// -1 if not calculated
+	public float getBestOneScore(int i) {
+		return bestOneScores[i];
+	}
+
+	// -1 if not calculated
+	public float getWithoutPathScore(int i) {
+		return withoutPathScores[i];
+	}
+}
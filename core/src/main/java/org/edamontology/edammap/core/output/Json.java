@@ -21,6 +21,7 @@ package org.edamontology.edammap.core.output;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.file.Path;
@@ -222,9 +223,19 @@ public class Json {
 		generator.writeEndObject();
 	}
 
-	private static JsonGenerator createGenerator(Writer writer, Path json, ObjectMapper mapper) throws IOException {
+	// mappers are thread-safe once configured, so they are shared by all outputs instead of created for each
+	private static final ObjectMapper mapper = createMapper(Include.USE_DEFAULTS);
+	private static final ObjectMapper mapperNonEmpty = createMapper(Include.NON_EMPTY);
+
+	private static ObjectMapper createMapper(Include include) {
+		ObjectMapper mapper = new ObjectMapper();
 		mapper.enable(SerializationFeature.INDENT_OUTPUT);
 		mapper.enable(SerializationFeature.CLOSE_CLOSEABLE);
+		mapper.setSerializationInclusion(include);
+		return mapper;
+	}
+
+	private static JsonGenerator createGenerator(Writer writer, Path json, ObjectMapper mapper) throws IOException {
 		JsonFactory factory = mapper.getFactory();
 		JsonGenerator generator;
 		if (json == null) {
@@ -236,11 +247,29 @@ public class Json {
 		return generator;
 	}
 
+	private static JsonGenerator createGenerator(OutputStream os, ObjectMapper mapper) throws IOException {
+		JsonGenerator generator = mapper.getFactory().createGenerator(os, JsonEncoding.UTF8);
+		generator.useDefaultPrettyPrinter();
+		return generator;
+	}
+
 	// concepts must contain the key match.getEdamUri(), but also all keys match.getParents(), match.getChildren(), etc
 	public static String output(CoreArgs args, List<ArgMain> argsMain, Map<String, String> jsonFields, QueryType type, JsonType jsonType, Path json, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publicationsAll, List<List<Webpage>> webpagesAll, List<List<Webpage>> docsAll, Results results, Tool tool, long start, long stop, Version version, String jsonVersion) throws IOException {
 		StringWriter writer = new StringWriter();
-		ObjectMapper mapper = new ObjectMapper();
-		JsonGenerator generator = createGenerator(writer, json, mapper);
+		output(args, argsMain, jsonFields, type, jsonType, createGenerator(writer, json, mapper), concepts, queries, publicationsAll, webpagesAll, docsAll, results, tool, start, stop, version, jsonVersion);
+		if (json == null) {
+			return writer.toString();
+		} else {
+			return null;
+		}
+	}
+
+	// written directly to os (which is closed at the end), without buffering the whole output in memory
+	public static void output(CoreArgs args, List<ArgMain> argsMain, Map<String, String> jsonFields, QueryType type, JsonType jsonType, OutputStream os, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publicationsAll, List<List<Webpage>> webpagesAll, List<List<Webpage>> docsAll, Results results, Tool tool, long start, long stop, Version version, String jsonVersion) throws IOException {
+		output(args, argsMain, jsonFields, type, jsonType, createGenerator(os, mapper), concepts, queries, publicationsAll, webpagesAll, docsAll, results, tool, start, stop, version, jsonVersion);
+	}
+
+	private static void output(CoreArgs args, List<ArgMain> argsMain, Map<String, String> jsonFields, QueryType type, JsonType jsonType, JsonGenerator generator, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publicationsAll, List<List<Webpage>> webpagesAll, List<List<Webpage>> docsAll, Results results, Tool tool, long start, long stop, Version version, String jsonVersion) throws IOException {
 		generator.writeStartObject();
 
 		generator.writeBooleanField("success", true);
@@ -463,6 +492,10 @@ public class Json {
 
 			generator.writeEndObject();
 
+			if (mapping.getProfile() != null) {
+				Params.writeProfile(mapping.getProfile(), generator);
+			}
+
 			generator.writeEndObject();
 		}
 		if (!server) {
@@ -483,25 +516,26 @@ public class Json {
 		}
 
 		if (tool != null) {
-			mapper.setSerializationInclusion(Include.NON_EMPTY);
 			generator.writeFieldName("tool");
 			addAnnotations(args, tool, results.getMappings().get(0), concepts);
-			generator.writeObject(tool);
-			mapper.setSerializationInclusion(Include.USE_DEFAULTS);
+			mapperNonEmpty.writeValue(generator, tool);
 		}
 
 		generator.writeEndObject();
 		generator.close();
-		if (json == null) {
-			return writer.toString();
-		} else {
-			return null;
-		}
 	}
 
 	public static String fromDatabaseEntries(String key, List<DatabaseEntryEntry> databaseEntries, FetcherArgs fetcherArgs) throws IOException {
 		StringWriter writer = new StringWriter();
-		JsonGenerator generator = createGenerator(writer, null, new ObjectMapper());
+		fromDatabaseEntries(key, databaseEntries, fetcherArgs, createGenerator(writer, null, mapper));
+		return writer.toString();
+	}
+
+	public static void fromDatabaseEntries(String key, List<DatabaseEntryEntry> databaseEntries, FetcherArgs fetcherArgs, OutputStream os) throws IOException {
+		fromDatabaseEntries(key, databaseEntries, fetcherArgs, createGenerator(os, mapper));
+	}
+
+	private static void fromDatabaseEntries(String key, List<DatabaseEntryEntry> databaseEntries, FetcherArgs fetcherArgs, JsonGenerator generator) throws IOException {
 		generator.writeStartObject();
 
 		generator.writeBooleanField("success", true);
@@ -529,12 +563,19 @@ public class Json {
 
 		generator.writeEndObject();
 		generator.close();
-		return writer.toString();
 	}
 
 	public static String fromAnnotations(Map<EdamUri, Concept> annotations) throws IOException {
 		StringWriter writer = new StringWriter();
-		JsonGenerator generator = createGenerator(writer, null, new ObjectMapper());
+		fromAnnotations(annotations, createGenerator(writer, null, mapper));
+		return writer.toString();
+	}
+
+	public static void fromAnnotations(Map<EdamUri, Concept> annotations, OutputStream os) throws IOException {
+		fromAnnotations(annotations, createGenerator(os, mapper));
+	}
+
+	private static void fromAnnotations(Map<EdamUri, Concept> annotations, JsonGenerator generator) throws IOException {
 		generator.writeStartObject();
 
 		generator.writeBooleanField("success", true);
@@ -552,7 +593,6 @@ public class Json {
 
 		generator.writeEndObject();
 		generator.close();
-		return writer.toString();
 	}
 
 	private static boolean existingAnnotation(List<Edam> annotations, EdamUri edamUri) {
@@ -743,14 +783,9 @@ public class Json {
 	}
 
 	public static void outputBiotools(CoreArgs args, String queryPath, Path biotoolsPath, Map<EdamUri, Concept> concepts, Results results) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.enable(SerializationFeature.INDENT_OUTPUT);
-		mapper.enable(SerializationFeature.CLOSE_CLOSEABLE);
-		mapper.setSerializationInclusion(Include.NON_EMPTY);
-
 		Biotools biotools = null;
 		try (InputStream is = Input.newInputStream(queryPath, true, args.getFetcherArgs().getTimeout(), args.getFetcherArgs().getPrivateArgs().getUserAgent())) {
-			biotools = mapper.readValue(is, Biotools.class);
+			biotools = mapperNonEmpty.readValue(is, Biotools.class);
 		}
 
 		if (biotools.getList().size() != results.getMappings().size()) {
@@ -775,13 +810,11 @@ public class Json {
 			addAnnotations(args, tool, mapping, concepts);
 		}
 
-		mapper.writeValue(biotoolsPath.toFile(), biotools);
+		mapperNonEmpty.writeValue(biotoolsPath.toFile(), biotools);
 	}
 
 	public static void outputBiotools(Writer writer, List<Tool> tools) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		JsonGenerator generator = createGenerator(writer, null, mapper);
-		mapper.setSerializationInclusion(Include.NON_EMPTY);
+		JsonGenerator generator = createGenerator(writer, null, mapperNonEmpty);
 		generator.writeStartObject();
 		generator.writeNumberField("count", tools.size());
 		generator.writeFieldName("list");
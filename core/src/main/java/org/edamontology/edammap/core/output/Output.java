@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.edamontology.pubfetcher.core.common.PubFetcher;
 import org.edamontology.pubfetcher.core.common.Version;
@@ -48,11 +49,23 @@ public class Output {
 
 	private final Path biotools;
 
+	private final Path bin;
+
 	private final QueryType type;
 
 	private final boolean existingDirectory;
 
-	public Output(String txt, String report, String json, String biotools, QueryType type, boolean existingDirectory) throws IOException {
+	// notified of the time (in nanoseconds) each output file took to write
+	public interface Listener {
+		void written(String output, long time);
+	}
+
+	private Listener listener = null;
+
+	// if set, pages of the HTML report are rendered in parallel on it
+	private ExecutorService reportExecutor = null;
+
+	public Output(String txt, String report, String json, String biotools, String bin, QueryType type, boolean existingDirectory) throws IOException {
 		this.txt = (txt == null || txt.isEmpty()) ? null : PubFetcher.outputPath(txt);
 
 		this.report = (report == null || report.isEmpty()) ? null : PubFetcher.outputPath(report, true, existingDirectory);
@@ -64,20 +77,47 @@ public class Output {
 		}
 		this.biotools = (biotools == null || biotools.isEmpty()) ? null : PubFetcher.outputPath(biotools);
 
+		this.bin = (bin == null || bin.isEmpty()) ? null : PubFetcher.outputPath(bin);
+
 		this.type = type;
 
 		this.existingDirectory = existingDirectory;
 	}
 
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	public void setReportExecutor(ExecutorService reportExecutor) {
+		this.reportExecutor = reportExecutor;
+	}
+
+	private long written(String output, Path path, long start) {
+		long stop = System.nanoTime();
+		if (listener != null && path != null) {
+			listener.written(output, stop - start);
+		}
+		return stop;
+	}
+
 	public void output(CoreArgs args, List<ArgMain> argsMain, String queryPath, Map<String, String> jsonFields, int reportPageSize, int reportPaginationSize, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Webpage>> webpages, List<List<Webpage>> docs, List<List<Publication>> publications, Results results, Tool tool, long start, long stop, Version version, String jsonVersion) throws IOException {
-		Txt.output(type, txt, report, concepts, queries, publications, results.getMappings());
-		Report.output(args, argsMain, type, reportPageSize, reportPaginationSize, report, existingDirectory, concepts, queries, publications, webpages, docs, results, start, stop, version, txt != null, json != null);
+		long outputStart = System.nanoTime();
+		Txt.output(type, txt, report != null || bin != null, concepts, queries, publications, results.getMappings());
+		outputStart = written("txt", txt, outputStart);
+		Report.output(args, argsMain, type, reportPageSize, reportPaginationSize, report, existingDirectory, concepts, queries, publications, webpages, docs, results, start, stop, version, txt != null, json != null, reportExecutor);
+		outputStart = written("html", report, outputStart);
 		if (json != null) {
 			JsonType jsonType = (type == QueryType.server ? JsonType.full : JsonType.cli);
 			Json.output(args, argsMain, jsonFields, type, jsonType, json, concepts, queries, publications, webpages, docs, results, tool, start, stop, version, jsonVersion);
+			outputStart = written("json", json, outputStart);
 		}
 		if (biotools != null) {
 			Json.outputBiotools(args, queryPath, biotools, concepts, results);
+			outputStart = written("biotools", biotools, outputStart);
+		}
+		if (bin != null) {
+			Bin.output(bin, concepts, queries, results.getMappings());
+			written("bin", bin, outputStart);
 		}
 	}
 }
@@ -39,6 +39,8 @@ import org.edamontology.edammap.core.edam.Branch;
 import org.edamontology.edammap.core.edam.Concept;
 import org.edamontology.edammap.core.edam.Edam;
 import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.mapping.MapperProfile;
+import org.edamontology.edammap.core.mapping.QueryMatchType;
 import org.edamontology.edammap.core.mapping.args.MapperArgs;
 import org.edamontology.edammap.core.preprocessing.PreProcessorArgs;
 import org.edamontology.edammap.core.processing.ProcessorArgs;
@@ -71,6 +73,8 @@ public class Params {
 
 	private static final String TOTAL_ID = "total";
 
+	private static final String PROFILE_ID = "profile";
+
 	private static void write(Writer writer, Object value, Arg<?, ?> arg, boolean input) throws IOException {
 		if (arg.getEnumClass() != null) {
 			if (!input) {
@@ -481,6 +485,43 @@ public class Params {
 		writeMeasure(results, Measure.DCG, generator);
 		writeMeasure(results, Measure.DCGa, generator);
 		generator.writeEndObject();
+
+		if (results.getProfile() != null) {
+			writeProfile(results.getProfile(), generator);
+		}
+	}
+
+	// times are in seconds
+	public static void writeProfile(MapperProfile profile, JsonGenerator generator) throws IOException {
+		generator.writeFieldName(PROFILE_ID);
+		generator.writeStartObject();
+		for (QueryMatchType type : QueryMatchType.values()) {
+			if (profile.isEmpty(type)) continue;
+			generator.writeFieldName(type.name());
+			generator.writeStartObject();
+			generator.writeNumberField("tokenMatches", profile.getTokenMatches(type));
+			generator.writeNumberField("levenshtein", profile.getLevenshtein(type));
+			generator.writeNumberField("levenshteinExits", profile.getLevenshteinExits(type));
+			generator.writeNumberField("matches", profile.getMatches(type));
+			generator.writeFieldName("time");
+			generator.writeStartObject();
+			for (Branch branch : Branch.values()) {
+				generator.writeNumberField(branch.name(), profile.getTime(type, branch) / 1000000000.0);
+			}
+			generator.writeNumberField(TOTAL_ID, profile.getTime(type) / 1000000000.0);
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+		generator.writeFieldName("time");
+		generator.writeStartObject();
+		long total = 0;
+		for (Branch branch : Branch.values()) {
+			generator.writeNumberField(branch.name(), profile.getTime(branch) / 1000000000.0);
+			total += profile.getTime(branch);
+		}
+		generator.writeNumberField(TOTAL_ID, total / 1000000000.0);
+		generator.writeEndObject();
+		generator.writeEndObject();
 	}
 
 	public static void writeMain(List<ArgMain> argsMain, Writer writer) throws IOException {
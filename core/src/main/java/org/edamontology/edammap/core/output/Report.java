@@ -21,6 +21,8 @@ package org.edamontology.edammap.core.output;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -31,6 +33,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.edamontology.pubfetcher.core.common.FetcherArgs;
@@ -81,6 +87,8 @@ public class Report {
 		"LICENSE.txt"
 	};
 
+	private static final int PAGE_BUFFER_SIZE = 64 * 1024;
+
 	private static String percent(double val) {
 		double percent = val * 100;
 		if (percent < 0.1) {
@@ -265,17 +273,18 @@ public class Report {
 		}
 	}
 
-	private static void writeParentsChildren(Writer writer, Map<EdamUri, Concept> concepts, List<EdamUri> pc, String desc) throws IOException {
+	// links of parents and children are shared by all pages, as the same concepts are linked from many matches
+	private static void writeParentsChildren(Writer writer, Map<EdamUri, Concept> concepts, Map<EdamUri, String> conceptLinks, List<EdamUri> pc, String desc) throws IOException {
 		if (!pc.isEmpty()) {
 			writer.write("<br><span class=\"pc\">[" + desc + " ");
 			writer.write(pc.stream()
-				.map(a -> PubFetcher.getLinkHtml(a.toString(), concepts.get(a).getLabel()))
+				.map(a -> conceptLinks.computeIfAbsent(a, k -> PubFetcher.getLinkHtml(k.toString(), concepts.get(k).getLabel())))
 				.collect(Collectors.joining("; ")));
 			writer.write("]</span>");
 		}
 	}
 
-	private static void writeConcept(Writer writer, Map<EdamUri, Concept> concepts, Match match) throws IOException {
+	private static void writeConcept(Writer writer, Map<EdamUri, Concept> concepts, Map<EdamUri, String> conceptLinks, Match match) throws IOException {
 		EdamUri edamUri = match.getEdamUri();
 		Concept concept = concepts.get(edamUri);
 		writer.write("\t\t\t\t\t<div class=\"concept\">");
@@ -292,12 +301,12 @@ public class Report {
 		if (concept.isObsolete()) {
 			writer.write("</span>");
 		}
-		writeParentsChildren(writer, concepts, match.getParents(), "Child of");
-		writeParentsChildren(writer, concepts, match.getParentsAnnotation(), "Child of annotation");
-		writeParentsChildren(writer, concepts, match.getParentsRemainingAnnotation(), "Child of excluded annotation");
-		writeParentsChildren(writer, concepts, match.getChildren(), "Parent of");
-		writeParentsChildren(writer, concepts, match.getChildrenAnnotation(), "Parent of annotation");
-		writeParentsChildren(writer, concepts, match.getChildrenRemainingAnnotation(), "Parent of excluded annotation");
+		writeParentsChildren(writer, concepts, conceptLinks, match.getParents(), "Child of");
+		writeParentsChildren(writer, concepts, conceptLinks, match.getParentsAnnotation(), "Child of annotation");
+		writeParentsChildren(writer, concepts, conceptLinks, match.getParentsRemainingAnnotation(), "Child of excluded annotation");
+		writeParentsChildren(writer, concepts, conceptLinks, match.getChildren(), "Parent of");
+		writeParentsChildren(writer, concepts, conceptLinks, match.getChildrenAnnotation(), "Parent of annotation");
+		writeParentsChildren(writer, concepts, conceptLinks, match.getChildrenRemainingAnnotation(), "Parent of excluded annotation");
 		writer.write("</div>\n");
 	}
 
@@ -415,7 +424,7 @@ public class Report {
 	}
 
 	// concepts must contain the key match.getEdamUri(), but also all keys match.getParents(), match.getChildren(), etc
-	private static void writeMatches(ScoreArgs scoreArgs, Writer writer, Map<EdamUri, Concept> concepts, Query query, List<Publication> publications, MappingTest mapping) throws IOException {
+	private static void writeMatches(ScoreArgs scoreArgs, Writer writer, Map<EdamUri, Concept> concepts, Map<EdamUri, String> conceptLinks, Query query, List<Publication> publications, MappingTest mapping) throws IOException {
 		for (Branch branch : Branch.values()) {
 			List<MatchTest> matches = mapping.getMatches(branch);
 			if (matches.isEmpty()) continue;
@@ -425,7 +434,7 @@ public class Report {
 				Match match = matchTest.getMatch();
 				writer.write("\t\t\t<div class=\"match " + matchTest.getTest().name() + "\">\n");
 				writer.write("\t\t\t\t<div class=\"match-div\">\n");
-				writeConcept(writer, concepts, match);
+				writeConcept(writer, concepts, conceptLinks, match);
 				writeQueryMatch(writer, query, publications, match.getQueryMatch(), true);
 				writer.write("\t\t\t\t\t<div class=\"type\">" + match.getConceptMatch().getType() + "</div>\n");
 				writeScore(scoreArgs, writer, branch, match);
@@ -457,7 +466,7 @@ public class Report {
 		}
 	}
 
-	private static void writeArticle(CoreArgs args, QueryType type, Writer writer, Map<EdamUri, Concept> concepts, Query query, int queriesSize, List<Publication> publications, List<Webpage> webpages, List<Webpage> docs, MappingTest mapping, int page, int nr, int nrMin, int nrMax) throws IOException {
+	private static void writeArticle(CoreArgs args, QueryType type, Writer writer, Map<EdamUri, Concept> concepts, Map<EdamUri, String> conceptLinks, Query query, int queriesSize, List<Publication> publications, List<Webpage> webpages, List<Webpage> docs, MappingTest mapping, int page, int nr, int nrMin, int nrMax) throws IOException {
 		FetcherArgs fetcherArgs = args.getFetcherArgs();
 
 		writer.write("<article>\n");
@@ -600,7 +609,7 @@ public class Report {
 		}
 
 		writer.write("\t<section class=\"mapping\">\n");
-		writeMatches(args.getMapperArgs().getScoreArgs(), writer, concepts, query, publications, mapping);
+		writeMatches(args.getMapperArgs().getScoreArgs(), writer, concepts, conceptLinks, query, publications, mapping);
 		writer.write("\t</section>\n");
 
 		writer.write("</article>\n\n");
@@ -615,24 +624,13 @@ public class Report {
 		Params.writeBenchmarking(writer, concepts, queries, results);
 	}
 
-	private static void writePagination(CoreArgs args, int reportPageSize, int reportPaginationSize, Writer writer, int queriesSize, int page) throws IOException {
-		if (queriesSize <= reportPageSize || reportPageSize == 0) return;
+	private static String pagination(int reportPageSize, int reportPaginationSize, int queriesSize, int page) {
+		if (queriesSize <= reportPageSize || reportPageSize == 0) return "";
 
 		int pageMax = (queriesSize - 1) / reportPageSize + 1;
 		int paginationSize = reportPaginationSize;
 		if (paginationSize > pageMax) paginationSize = pageMax;
 
-		writer.write("<ul class=\"pagination\">\n");
-
-		writer.write("\t<li><a ");
-		if (page == 1) writer.write("class=\"disabled-page\"");
-		else writer.write("href=\"index.html\"");
-		writer.write(">«</a></li>\n");
-		writer.write("\t<li><a ");
-		if (page == 1) writer.write("class=\"disabled-page\"");
-		else writer.write("href=\"index" + (page - 1 == 1 ? "" : page - 1) + ".html\"");
-		writer.write(">‹</a></li>");
-
 		int first = page - (paginationSize - 1) / 2;
 		int last = page + paginationSize / 2;
 		if (first < 1) {
@@ -644,44 +642,94 @@ public class Report {
 			last = pageMax;
 		}
 		if (first < 1) first = 1;
+
+		StringBuilder sb = new StringBuilder(256 + (last - first + 1) * 48);
+
+		sb.append("<ul class=\"pagination\">\n");
+
+		sb.append("\t<li><a ");
+		if (page == 1) sb.append("class=\"disabled-page\"");
+		else sb.append("href=\"index.html\"");
+		sb.append(">«</a></li>\n");
+		sb.append("\t<li><a ");
+		if (page == 1) sb.append("class=\"disabled-page\"");
+		else sb.append("href=\"index").append(page - 1 == 1 ? "" : page - 1).append(".html\"");
+		sb.append(">‹</a></li>");
+
 		for (int i = first; i <= last; ++i) {
-			writer.write("\t<li><a ");
-			if (i == page) writer.write("class=\"current-page\"");
-			else writer.write("href=\"index" + (i == 1 ? "" : i) + ".html\"");
-			writer.write(">" + i + "</a></li>");
-		}
-
-		writer.write("\t<li><a ");
-		if (page == pageMax) writer.write("class=\"disabled-page\"");
-		else writer.write("href=\"index" + (page + 1) + ".html\"");
-		writer.write(">›</a></li>\n");
-		writer.write("\t<li><a ");
-		if (page == pageMax) writer.write("class=\"disabled-page\"");
-		else writer.write("href=\"index" + pageMax + ".html\"");
-		writer.write(">»</a></li>");
-
-		writer.write("</ul>\n\n");
-	}
+			sb.append("\t<li><a ");
+			if (i == page) sb.append("class=\"current-page\"");
+			else sb.append("href=\"index").append(i == 1 ? "" : i).append(".html\"");
+			sb.append(">").append(i).append("</a></li>");
+		}
+
+		sb.append("\t<li><a ");
+		if (page == pageMax) sb.append("class=\"disabled-page\"");
+		else sb.append("href=\"index").append(page + 1).append(".html\"");
+		sb.append(">›</a></li>\n");
+		sb.append("\t<li><a ");
+		if (page == pageMax) sb.append("class=\"disabled-page\"");
+		else sb.append("href=\"index").append(pageMax).append(".html\"");
+		sb.append(">»</a></li>");
 
-	private static void out(CoreArgs args, List<ArgMain> argsMain, QueryType type, int reportPageSize, int reportPaginationSize, Writer writer, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publications, List<List<Webpage>> webpages, List<List<Webpage>> docs, Results results, long start, long stop, Version version, int page, boolean txt, boolean json) throws IOException {
-		writer.write("<!DOCTYPE html>\n");
-		writer.write("<html lang=\"en\">\n\n");
+		sb.append("</ul>\n\n");
 
-		writer.write("<head>\n");
-		writer.write("\t<meta charset=\"utf-8\">\n");
-		writer.write("\t<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n");
-		writer.write("\t<meta name=\"generator\" content=\"" + version.getName() + " " + version.getVersion() + "\">\n");
-		writer.write("\t<title>" + version.getName() + " " + version.getVersion() + " Report</title>\n");
+		return sb.toString();
+	}
+
+	// the parts of a page that are the same for all pages, rendered once
+	private static String head(QueryType type, Version version) {
+		StringBuilder sb = new StringBuilder(1024);
+		sb.append("<!DOCTYPE html>\n");
+		sb.append("<html lang=\"en\">\n\n");
+
+		sb.append("<head>\n");
+		sb.append("\t<meta charset=\"utf-8\">\n");
+		sb.append("\t<meta name=\"viewport\" content=\"width=device-width, initial-scale=1\">\n");
+		sb.append("\t<meta name=\"generator\" content=\"").append(version.getName()).append(" ").append(version.getVersion()).append("\">\n");
+		sb.append("\t<title>").append(version.getName()).append(" ").append(version.getVersion()).append(" Report</title>\n");
 		if (type != QueryType.server) {
-			writer.write("\t<link rel=\"stylesheet\" href=\"edammap-" + version.getVersion() + ".css\">\n");
+			sb.append("\t<link rel=\"stylesheet\" href=\"edammap-").append(version.getVersion()).append(".css\">\n");
 		} else {
-			writer.write("\t<link rel=\"stylesheet\" href=\"../../edammap-" + version.getVersion() + ".css\">\n");
+			sb.append("\t<link rel=\"stylesheet\" href=\"../../edammap-").append(version.getVersion()).append(".css\">\n");
+		}
+		sb.append("</head>\n\n");
+
+		sb.append("<body>\n\n");
+
+		sb.append("<header>\n\n");
+		return sb.toString();
+	}
+
+	private static String generated(QueryType type, long start, long stop, Version version, boolean txt, boolean json) {
+		StringBuilder sb = new StringBuilder(512);
+		String startInstant = Instant.ofEpochMilli(start).toString();
+		sb.append("<p>Generated by ").append(PubFetcher.getLinkHtml(version.getUrl(), version.getName())).append(" ").append(version.getVersion())
+			.append(" in ").append((stop - start) / 1000.0).append(" seconds <span>(start <time datetime=\"").append(startInstant).append("\">").append(startInstant).append("</time>)</span></p>\n\n");
+		if (type == QueryType.server) {
+			if (txt) {
+				sb.append("<p>Results as <a href=\"results.txt\">plain text</a></p>\n\n");
+			}
+			if (json) {
+				sb.append("<p>Results as <a href=\"results.json\">JSON</a></p>\n\n");
+			}
 		}
-		writer.write("</head>\n\n");
+		return sb.toString();
+	}
+
+	private static String footer(CoreArgs args, List<ArgMain> argsMain, QueryType type, Map<EdamUri, Concept> concepts, List<Query> queries, Results results) throws IOException {
+		StringWriter writer = new StringWriter(64 * 1024);
+		writer.write("<h2>Parameters</h2>\n\n");
 
-		writer.write("<body>\n\n");
+		writer.write("<section id=\"tabs\">\n");
+		writer.write("\n");
+		writeParams(args, argsMain, type, writer, concepts, queries, results);
+		writer.write("</section>\n\n");
+		return writer.toString();
+	}
 
-		writer.write("<header>\n\n");
+	private static void out(CoreArgs args, QueryType type, int reportPageSize, int reportPaginationSize, Writer writer, Map<EdamUri, Concept> concepts, Map<EdamUri, String> conceptLinks, List<Query> queries, List<List<Publication>> publications, List<List<Webpage>> webpages, List<List<Webpage>> docs, Results results, Version version, int page, String head, String generated, String footer) throws IOException {
+		writer.write(head);
 
 		int resultMin = (page - 1) * reportPageSize + 1;
 		int resultMax = page * reportPageSize;
@@ -696,40 +744,26 @@ public class Report {
 		}
 		writer.write("</h1>\n\n");
 
-		String startInstant = Instant.ofEpochMilli(start).toString();
-		writer.write("<p>Generated by " + PubFetcher.getLinkHtml(version.getUrl(), version.getName()) + " " + version.getVersion()
-			+ " in " + ((stop - start) / 1000.0) + " seconds <span>(start <time datetime=\"" + startInstant + "\">" + startInstant + "</time>)</span></p>\n\n");
-		if (type == QueryType.server) {
-			if (txt) {
-				writer.write("<p>Results as <a href=\"results.txt\">plain text</a></p>\n\n");
-			}
-			if (json) {
-				writer.write("<p>Results as <a href=\"results.json\">JSON</a></p>\n\n");
-			}
-		}
+		writer.write(generated);
 
-		writePagination(args, reportPageSize, reportPaginationSize, writer, queries.size(), page);
+		String pagination = pagination(reportPageSize, reportPaginationSize, queries.size(), page);
+		writer.write(pagination);
 
 		writer.write("</header>\n\n");
 
 		writer.write("<main>\n\n");
 
 		for (int i = resultMin; i <= resultMax; ++i) {
-			writeArticle(args, type, writer, concepts, queries.get(i - 1), queries.size(), publications.get(i - 1), webpages.get(i - 1), docs.get(i - 1), results.getMappings().get(i - 1), page, i, resultMin, resultMax);
+			writeArticle(args, type, writer, concepts, conceptLinks, queries.get(i - 1), queries.size(), publications.get(i - 1), webpages.get(i - 1), docs.get(i - 1), results.getMappings().get(i - 1), page, i, resultMin, resultMax);
 		}
 
 		writer.write("</main>\n\n");
 
 		writer.write("<footer>\n\n");
 
-		writer.write("<h2>Parameters</h2>\n\n");
-
-		writer.write("<section id=\"tabs\">\n");
-		writer.write("\n");
-		writeParams(args, argsMain, type, writer, concepts, queries, results);
-		writer.write("</section>\n\n");
+		writer.write(footer);
 
-		writePagination(args, reportPageSize, reportPaginationSize, writer, queries.size(), page);
+		writer.write(pagination);
 
 		writer.write("</footer>\n\n");
 
@@ -738,6 +772,12 @@ public class Report {
 		writer.write("</html>\n");
 	}
 
+	private static void outPage(CoreArgs args, QueryType type, int reportPageSize, int reportPaginationSize, Path report, Map<EdamUri, Concept> concepts, Map<EdamUri, String> conceptLinks, List<Query> queries, List<List<Publication>> publications, List<List<Webpage>> webpages, List<List<Webpage>> docs, Results results, Version version, int page, String head, String generated, String footer) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(report.resolve("index" + (page == 1 ? "" : page) + ".html")), StandardCharsets.UTF_8), PAGE_BUFFER_SIZE)) {
+			out(args, type, reportPageSize, reportPaginationSize, writer, concepts, conceptLinks, queries, publications, webpages, docs, results, version, page, head, generated, footer);
+		}
+	}
+
 	public static void copyHtmlResources(Path path, Version version) throws IOException {
 		Files.copy(Report.class.getResourceAsStream("/html/style.css"), path.resolve("edammap-" + version.getVersion() + ".css"));
 	}
@@ -748,7 +788,7 @@ public class Report {
 		}
 	}
 
-	static void output(CoreArgs args, List<ArgMain> argsMain, QueryType type, int reportPageSize, int reportPaginationSize, Path report, boolean existingDirectory, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publications, List<List<Webpage>> webpages, List<List<Webpage>> docs, Results results, long start, long stop, Version version, boolean txt, boolean json) throws IOException {
+	static void output(CoreArgs args, List<ArgMain> argsMain, QueryType type, int reportPageSize, int reportPaginationSize, Path report, boolean existingDirectory, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publications, List<List<Webpage>> webpages, List<List<Webpage>> docs, Results results, long start, long stop, Version version, boolean txt, boolean json, ExecutorService executor) throws IOException {
 		if (report != null) {
 			if (!existingDirectory) {
 				Files.createDirectory(report);
@@ -758,17 +798,55 @@ public class Report {
 				copyFontResources(report);
 			}
 			int pageMax = (queries.size() - 1) / reportPageSize + 1;
-			for (int page = 1; page <= pageMax; ++page) {
-				try (BufferedWriter writer = Files.newBufferedWriter(report.resolve("index" + (page == 1 ? "" : page) + ".html"), StandardCharsets.UTF_8)) {
-					out(args, argsMain, type, reportPageSize, reportPaginationSize, writer, concepts, queries, publications, webpages, docs, results, start, stop, version, page, txt, json);
-				} catch (IOException e) {
+			String head = head(type, version);
+			String generated = generated(type, start, stop, version, txt, json);
+			String footer = footer(args, argsMain, type, concepts, queries, results);
+			Map<EdamUri, String> conceptLinks = new ConcurrentHashMap<>();
+			// pages are independent of each other, so they are rendered in parallel if an executor is given
+			List<Future<Void>> pages = new ArrayList<>();
+			try {
+				for (int page = 1; page <= pageMax; ++page) {
+					if (executor == null || pageMax == 1) {
+						outPage(args, type, reportPageSize, reportPaginationSize, report, concepts, conceptLinks, queries, publications, webpages, docs, results, version, page, head, generated, footer);
+					} else {
+						final int p = page;
+						pages.add(executor.submit(() -> {
+							outPage(args, type, reportPageSize, reportPaginationSize, report, concepts, conceptLinks, queries, publications, webpages, docs, results, version, p, head, generated, footer);
+							return null;
+						}));
+					}
+				}
+				for (Future<Void> page : pages) {
 					try {
-						Txt.out(type, System.out, concepts, queries, results.getMappings());
-					} catch (Exception e2) {
-						throw e;
+						page.get();
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause();
+						if (cause instanceof IOException) {
+							throw (IOException) cause;
+						} else if (cause instanceof RuntimeException) {
+							throw (RuntimeException) cause;
+						} else if (cause instanceof Error) {
+							throw (Error) cause;
+						} else {
+							throw new RuntimeException(cause);
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException(e);
 					}
+				}
+			} catch (IOException e) {
+				try {
+					Txt.out(type, System.out, concepts, queries, results.getMappings());
+				} catch (Exception e2) {
 					throw e;
 				}
+				throw e;
+			} finally {
+				// pages not rendered yet, if a page failed
+				for (Future<Void> page : pages) {
+					page.cancel(true);
+				}
 			}
 		}
 	}
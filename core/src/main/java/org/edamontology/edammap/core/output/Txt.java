@@ -106,8 +106,9 @@ public class Txt {
 		}
 	}
 
-	static void output(QueryType type, Path txt, Path report, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publications, List<MappingTest> mappings) throws IOException {
-		if (txt == null && report == null) {
+	// if there is no txt and no other output file, then results are written to standard output
+	static void output(QueryType type, Path txt, boolean otherOutput, Map<EdamUri, Concept> concepts, List<Query> queries, List<List<Publication>> publications, List<MappingTest> mappings) throws IOException {
+		if (txt == null && !otherOutput) {
 			out(type, System.out, concepts, queries, mappings);
 		} else if (txt != null) {
 			try (PrintStream ps = new PrintStream(new BufferedOutputStream(Files.newOutputStream(txt)), true, "UTF-8")) {
@@ -19,9 +19,26 @@
 
 package org.edamontology.edammap.core.processing;
 
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,119 +47,376 @@ import org.edamontology.pubfetcher.core.common.FetcherArgs;
 import org.edamontology.pubfetcher.core.common.PubFetcher;
 import org.edamontology.pubfetcher.core.db.Database;
 import org.edamontology.pubfetcher.core.db.DatabaseEntry;
+import org.edamontology.pubfetcher.core.db.DatabaseEntryType;
 import org.edamontology.pubfetcher.core.db.publication.PublicationIds;
+import org.edamontology.pubfetcher.core.db.webpage.Webpage;
 import org.edamontology.pubfetcher.core.fetching.Fetcher;
 
 import org.edamontology.edammap.core.input.DatabaseEntryId;
 import org.edamontology.edammap.core.output.DatabaseEntryEntry;
 
+// Gets database entries on a shared executor, limiting concurrency globally and per host
+// Each get runs in a thread of a pool bounded by the number of fetching threads (or in its own virtual thread, if enabled and supported),
+// which waits for free permits before getting, but not beyond the timeout of the get
+// Per-host permits are kept only while some get of the host is waiting or running
+// Concurrent gets of the same entry (with the same fetching parameters) are coalesced to one
+// Entries in the negative cache (if given) are not fetched, but only got from the database
+// With a shared database, entries are first copied from it to the side database (db), from where they are then got
 public class DatabaseEntryGet {
 
 	private static final Logger logger = LogManager.getLogger();
 
-	private Object lock = new Object();
+	// all publications are counted as one host, as they are mostly got through the same few APIs
+	private static final String PUBLICATION_HOST = "publication";
 
-	private Database db;
-	private Fetcher fetcher;
-	private FetcherArgs fetcherArgs;
+	private final Database db;
+	private final SharedDatabase sharedDb;
+	private final Fetcher fetcher;
 
-	private boolean lockDone;
-	private int numThreads;
-	private int index;
+	private final ExecutorService executor;
 
-	private List<DatabaseEntryId> databaseEntryIds;
-	private long startMillis;
-	private List<DatabaseEntryEntry> databaseEntries;
+	private final Semaphore permits;
 
-	public List<DatabaseEntryEntry> getDatabaseEntries(Database db, Fetcher fetcher, FetcherArgs fetcherArgs, List<DatabaseEntryId> ids, long start, int threads) {
-		if (ids == null || ids.isEmpty()) {
-			return Collections.emptyList();
+	private final int hostThreads;
+
+	private static final class HostPermits {
+		private final Semaphore semaphore;
+		// gets of the host waiting for or holding a permit, only changed inside compute() of hostPermits
+		private int users = 0;
+		private HostPermits(int permits) {
+			this.semaphore = new Semaphore(permits, true);
 		}
+	}
+
+	private final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+
+	private final Map<String, CompletableFuture<DatabaseEntryEntry>> inFlight = new ConcurrentHashMap<>();
+
+	private final int timeout;
 
+	private final NegativeCache negativeCache;
+
+	// notified of each get done, for example for collecting metrics
+	public interface Listener {
+		// time is in nanoseconds, error is null if a usable entry was got
+		void got(DatabaseEntryType type, long time, String error);
+		// entry was not fetched, because it is in the negative cache
+		void skipped(DatabaseEntryType type);
+	}
+
+	private volatile Listener listener = null;
+
+	public DatabaseEntryGet(Database db, SharedDatabase sharedDb, Fetcher fetcher, NegativeCache negativeCache, int threads, int hostThreads, int timeout, boolean virtualThreads) {
 		this.db = db;
+		this.sharedDb = sharedDb;
 		this.fetcher = fetcher;
-		this.fetcherArgs = fetcherArgs;
+		this.negativeCache = negativeCache;
+		this.executor = virtualThreads ? newVirtualThreadExecutor(threads) : newExecutor(threads);
+		this.permits = new Semaphore(threads > 0 ? threads : Integer.MAX_VALUE, true);
+		this.hostThreads = hostThreads;
+		this.timeout = timeout;
+	}
+
+	private static ThreadFactory threadFactory() {
+		final AtomicInteger threadNumber = new AtomicInteger(0);
+		return r -> {
+			Thread thread = new Thread(r, "fetch-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
 
-		lockDone = false;
-		numThreads = 0;
-		index = 0;
+	// 0 threads means no limit
+	private static ExecutorService newExecutor(int threads) {
+		if (threads <= 0) {
+			return Executors.newCachedThreadPool(threadFactory());
+		}
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
 
-		databaseEntryIds = ids;
-		startMillis = start;
-		databaseEntries = new ArrayList<>(ids.size());
-		for (int i = 0; i < ids.size(); ++i) {
-			databaseEntries.add(null);
+	// virtual threads (Java 21+) are created through reflection, as we are still compiling for Java 8
+	private static ExecutorService newVirtualThreadExecutor(int threads) {
+		try {
+			ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			logger.info("Using virtual threads for getting database entries");
+			return executor;
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			logger.warn("Virtual threads not supported by Java {}, using platform threads for getting database entries", System.getProperty("java.version"));
+			return newExecutor(threads);
 		}
+	}
 
-		logger.info("Get {} database entries", ids.size());
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
 
-		for (int i = 0; i < threads && i < ids.size(); ++i) {
-			Thread t = new Thread(new DatabaseEntryThread());
-			t.setDaemon(true);
-			t.start();
+	public void shutdown() throws IOException {
+		executor.shutdownNow();
+		if (negativeCache != null) {
+			negativeCache.save();
 		}
+	}
 
-		synchronized(lock) {
-			while (!lockDone || numThreads > 0) {
-				try {
-					lock.wait();
-				} catch (InterruptedException e) {
-					logger.error("Exception!", e);
-					break;
-				}
+	public static DatabaseEntryEntry getDatabaseEntry(Database db, Fetcher fetcher, FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		DatabaseEntry<? extends DatabaseEntry<?>> databaseEntry = null;
+		switch (id.getType()) {
+			case publication: databaseEntry = PubFetcher.getPublication((PublicationIds) id.getId(), db, fetcher, null, fetcherArgs); break;
+			case webpage: databaseEntry = PubFetcher.getWebpage((String) id.getId(), db, fetcher, fetcherArgs); break;
+			case doc: databaseEntry = PubFetcher.getDoc((String) id.getId(), db, fetcher, fetcherArgs); break;
+		}
+		return new DatabaseEntryEntry(databaseEntry, id.getType());
+	}
+
+	private static String getHost(DatabaseEntryId id) {
+		if (id.getId() instanceof String) {
+			try {
+				return new URL((String) id.getId()).getHost();
+			} catch (MalformedURLException e) {
+				return "";
 			}
+		} else {
+			return PUBLICATION_HOST;
 		}
+	}
 
-		long nullCount = databaseEntries.stream().filter(e -> e.getEntry() == null).count();
-		if (nullCount != 0) {
-			logger.warn("Got {} database entries (instead of {})", databaseEntries.size() - nullCount, ids.size());
+	private static String getIdKey(DatabaseEntryId id) {
+		String key;
+		if (id.getId() instanceof PublicationIds) {
+			PublicationIds publicationIds = (PublicationIds) id.getId();
+			key = publicationIds.getPmid() + "\t" + publicationIds.getPmcid() + "\t" + publicationIds.getDoi();
 		} else {
-			logger.info("Got {} database entries", databaseEntries.size());
+			key = String.valueOf(id.getId());
 		}
+		return id.getType() + "\t" + key;
+	}
 
-		return databaseEntries;
+	private static String getKey(DatabaseEntryId id, String fetcherArgsKey) {
+		return getIdKey(id) + "\n" + fetcherArgsKey;
 	}
 
-	public class DatabaseEntryThread implements Runnable {
+	private static String getFetcherArgsKey(FetcherArgs fetcherArgs) {
+		return fetcherArgs.getArgs().stream().map(arg -> arg.getId() + "=" + arg.getValue()).collect(Collectors.joining(" "));
+	}
 
-		@Override
-		public void run() {
-			synchronized(lock) {
-				++numThreads;
-				lockDone = true;
+	private static String getError(DatabaseEntryEntry entry, FetcherArgs fetcherArgs) {
+		DatabaseEntry<?> databaseEntry = entry.getEntry();
+		if (databaseEntry == null) {
+			return "missing";
+		} else if (databaseEntry instanceof Webpage && ((Webpage) databaseEntry).isBroken()) {
+			return "broken " + ((Webpage) databaseEntry).getStatusCode();
+		} else if (!databaseEntry.isUsable(fetcherArgs)) {
+			return "unusable";
+		} else {
+			return null;
+		}
+	}
+
+	private DatabaseEntryEntry getDatabaseEntryShared(Fetcher fetcher, FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		if (sharedDb != null) {
+			sharedDb.copy(fetcherArgs, id);
+		}
+		return getDatabaseEntry(db, fetcher, fetcherArgs, id);
+	}
+
+	// whether the entry was fetched during the get, and not just got from the database as it was
+	private static boolean isFetched(DatabaseEntryEntry entry, long start) {
+		return entry.getEntry() == null || entry.getEntry().getFetchTime() >= start;
+	}
+
+	// keyed by fetching parameters too, as whether an entry is usable depends on them
+	private DatabaseEntryEntry getDatabaseEntryNegative(FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		if (negativeCache == null || fetcher == null) {
+			return getDatabaseEntryShared(fetcher, fetcherArgs, id);
+		}
+		String key = getKey(id, getFetcherArgsKey(fetcherArgs));
+		String error = negativeCache.get(key);
+		if (error != null) {
+			logger.info("Not fetching {} {}, as it failed before ({})", id.getType(), id.getId(), error);
+			Listener listener = this.listener;
+			if (listener != null) {
+				listener.skipped(id.getType());
 			}
-			try {
-				while (true) {
-					DatabaseEntryId id;
-					int localIndex;
-					synchronized(databaseEntryIds) {
-						if (index >= databaseEntryIds.size()) {
-							break;
-						}
-						id = databaseEntryIds.get(index);
-						localIndex = index;
-						++index;
-					}
+			return getDatabaseEntryShared(null, fetcherArgs, id);
+		}
+		long start = System.currentTimeMillis();
+		DatabaseEntryEntry entry;
+		try {
+			entry = getDatabaseEntryShared(fetcher, fetcherArgs, id);
+		} catch (RuntimeException e) {
+			negativeCache.failed(key, e.getClass().getName());
+			throw e;
+		}
+		error = getError(entry, fetcherArgs);
+		if (error == null) {
+			negativeCache.succeeded(key);
+		} else if (isFetched(entry, start)) {
+			// an entry got from the database without trying to fetch it is not a new failure
+			negativeCache.failed(key, error);
+		}
+		return entry;
+	}
 
-					logger.info("Fetch {} {}", id.getType(), PubFetcher.progress(localIndex + 1, databaseEntryIds.size(), startMillis));
+	private HostPermits enterHost(String host) {
+		return hostPermits.compute(host, (h, p) -> {
+			if (p == null) {
+				p = new HostPermits(hostThreads);
+			}
+			++p.users;
+			return p;
+		});
+	}
 
-					DatabaseEntry<? extends DatabaseEntry<?>> databaseEntry = null;
-					switch (id.getType()) {
-						case publication: databaseEntry = PubFetcher.getPublication((PublicationIds) id.getId(), db, fetcher, null, fetcherArgs); break;
-						case webpage: databaseEntry = PubFetcher.getWebpage((String) id.getId(), db, fetcher, fetcherArgs); break;
-						case doc: databaseEntry = PubFetcher.getDoc((String) id.getId(), db, fetcher, fetcherArgs); break;
-					}
+	// permits of a host no get is waiting for or holding anymore are dropped
+	private void exitHost(String host) {
+		hostPermits.computeIfPresent(host, (h, p) -> --p.users == 0 ? null : p);
+	}
 
-					synchronized(databaseEntries) {
-						databaseEntries.set(localIndex, new DatabaseEntryEntry(databaseEntry, id.getType()));
+	// a deadline of 0 means waiting for permits without a time limit
+	private static boolean acquire(Semaphore semaphore, long deadline) throws InterruptedException {
+		if (deadline == 0) {
+			semaphore.acquire();
+			return true;
+		}
+		return semaphore.tryAcquire(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+	}
+
+	private DatabaseEntryEntry get(FetcherArgs fetcherArgs, DatabaseEntryId id, long deadline) throws InterruptedException {
+		String host = hostThreads > 0 ? getHost(id) : null;
+		HostPermits hostPermit = host != null ? enterHost(host) : null;
+		try {
+			if (hostPermit != null && !acquire(hostPermit.semaphore, deadline)) {
+				logger.warn("Not getting {} {}, as no permit for host {} was free in time", id.getType(), id.getId(), host);
+				return new DatabaseEntryEntry(null, id.getType());
+			}
+			try {
+				if (!acquire(permits, deadline)) {
+					logger.warn("Not getting {} {}, as no permit was free in time", id.getType(), id.getId());
+					return new DatabaseEntryEntry(null, id.getType());
+				}
+				try {
+					Listener listener = this.listener;
+					if (listener == null) {
+						return getDatabaseEntryNegative(fetcherArgs, id);
+					}
+					long start = System.nanoTime();
+					DatabaseEntryEntry entry;
+					try {
+						entry = getDatabaseEntryNegative(fetcherArgs, id);
+					} catch (RuntimeException e) {
+						listener.got(id.getType(), System.nanoTime() - start, e.getClass().getName());
+						throw e;
 					}
+					listener.got(id.getType(), System.nanoTime() - start, getError(entry, fetcherArgs));
+					return entry;
+				} finally {
+					permits.release();
 				}
 			} finally {
-				synchronized(lock) {
-					--numThreads;
-					lock.notifyAll();
+				if (hostPermit != null) {
+					hostPermit.semaphore.release();
 				}
 			}
+		} finally {
+			if (hostPermit != null) {
+				exitHost(host);
+			}
 		}
 	}
+
+	private CompletableFuture<DatabaseEntryEntry> submit(FetcherArgs fetcherArgs, String key, DatabaseEntryId id, long deadline) {
+		return inFlight.computeIfAbsent(key, k -> {
+			CompletableFuture<DatabaseEntryEntry> future = new CompletableFuture<>();
+			executor.execute(() -> {
+				try {
+					future.complete(get(fetcherArgs, id, deadline));
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				} finally {
+					inFlight.remove(k, future);
+				}
+			});
+			return future;
+		});
+	}
+
+	// a get that timed out is not coalesced onto anymore, but its thread will still finish it
+	private DatabaseEntryEntry await(CompletableFuture<DatabaseEntryEntry> future, String key, DatabaseEntryId id, long deadline) {
+		try {
+			if (timeout > 0) {
+				return future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+			} else {
+				return future.get();
+			}
+		} catch (TimeoutException e) {
+			inFlight.remove(key, future);
+			logger.warn("Getting {} {} timed out", id.getType(), id.getId());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("Exception!", e);
+		} catch (ExecutionException e) {
+			logger.error("Exception!", e.getCause());
+		}
+		return new DatabaseEntryEntry(null, id.getType());
+	}
+
+	private long getDeadline() {
+		return timeout > 0 ? System.currentTimeMillis() + timeout * 1000L : 0;
+	}
+
+	public DatabaseEntryEntry getDatabaseEntry(FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		long deadline = getDeadline();
+		String key = getKey(id, getFetcherArgsKey(fetcherArgs));
+		return await(submit(fetcherArgs, key, id, deadline), key, id, deadline);
+	}
+
+	// in the calling thread, without coalescing and the timeout
+	public DatabaseEntryEntry getDatabaseEntryInThread(FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		try {
+			return get(fetcherArgs, id, 0);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("Exception!", e);
+			return new DatabaseEntryEntry(null, id.getType());
+		}
+	}
+
+	// at most the given number of threads are used for the entries of one call
+	public List<DatabaseEntryEntry> getDatabaseEntries(FetcherArgs fetcherArgs, List<DatabaseEntryId> ids, long start, int threads) {
+		if (ids == null || ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		logger.info("Get {} database entries", ids.size());
+
+		long deadline = getDeadline();
+		String fetcherArgsKey = getFetcherArgsKey(fetcherArgs);
+
+		List<String> keys = new ArrayList<>(ids.size());
+		List<CompletableFuture<DatabaseEntryEntry>> futures = new ArrayList<>(ids.size());
+		List<DatabaseEntryEntry> databaseEntries = new ArrayList<>(ids.size());
+		for (int i = 0; i < ids.size(); ++i) {
+			if (threads > 0 && i >= threads) {
+				databaseEntries.add(await(futures.get(i - threads), keys.get(i - threads), ids.get(i - threads), deadline));
+			}
+			DatabaseEntryId id = ids.get(i);
+			logger.info("Fetch {} {}", id.getType(), PubFetcher.progress(i + 1, ids.size(), start));
+			String key = getKey(id, fetcherArgsKey);
+			keys.add(key);
+			futures.add(submit(fetcherArgs, key, id, deadline));
+		}
+		for (int i = databaseEntries.size(); i < ids.size(); ++i) {
+			databaseEntries.add(await(futures.get(i), keys.get(i), ids.get(i), deadline));
+		}
+
+		long nullCount = databaseEntries.stream().filter(e -> e.getEntry() == null).count();
+		if (nullCount != 0) {
+			logger.warn("Got {} database entries (instead of {})", databaseEntries.size() - nullCount, ids.size());
+		} else {
+			logger.info("Got {} database entries", databaseEntries.size());
+		}
+
+		return databaseEntries;
+	}
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.core.processing;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// Database entries that failed to be fetched or were not usable, so that fetching them is not retried on every run
+// After each consecutive failure, the time until fetching is tried again is doubled (up to maxTtl)
+// Stored as a TSV file of key, error, time of last failure and number of consecutive failures
+public class NegativeCache {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	// save after this many changes, in addition to saving on close
+	private static final int SAVE_CHANGES = 100;
+
+	private static final class Failure {
+		private final String error;
+		private final long time;
+		private final int count;
+		private Failure(String error, long time, int count) {
+			this.error = error;
+			this.time = time;
+			this.count = count;
+		}
+	}
+
+	private final Path path;
+
+	private final long ttl;
+
+	private final long maxTtl;
+
+	private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+
+	private final AtomicInteger changes = new AtomicInteger(0);
+
+	public NegativeCache(String path, long ttl, long maxTtl) throws IOException {
+		this.path = Paths.get(path);
+		this.ttl = ttl;
+		this.maxTtl = Math.max(maxTtl, ttl);
+		if (Files.exists(this.path)) {
+			try (BufferedReader br = Files.newBufferedReader(this.path, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = br.readLine()) != null) {
+					String[] fields = line.split("\t", -1);
+					if (fields.length != 4) {
+						logger.warn("Ignoring malformed line in negative cache {}: {}", path, line);
+						continue;
+					}
+					try {
+						failures.put(unescape(fields[0]), new Failure(fields[1], Long.parseLong(fields[2]), Integer.parseInt(fields[3])));
+					} catch (NumberFormatException e) {
+						logger.warn("Ignoring malformed line in negative cache {}: {}", path, line);
+					}
+				}
+			}
+			logger.info("Loaded {} failed entries from negative cache {}", failures.size(), path);
+		}
+	}
+
+	private static String escape(String key) {
+		return key.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+	}
+
+	private static String unescape(String key) {
+		StringBuilder sb = new StringBuilder(key.length());
+		for (int i = 0; i < key.length(); ++i) {
+			char c = key.charAt(i);
+			if (c == '\\' && i + 1 < key.length()) {
+				char n = key.charAt(++i);
+				sb.append(n == 't' ? '\t' : n == 'n' ? '\n' : n);
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private long getTtl(int count) {
+		long failureTtl = ttl;
+		for (int i = 1; i < count && failureTtl < maxTtl; ++i) {
+			failureTtl *= 2;
+		}
+		return Math.min(failureTtl, maxTtl);
+	}
+
+	// the error of the last failure, if fetching should not be tried yet, otherwise null
+	public String get(String key) {
+		Failure failure = failures.get(key);
+		if (failure != null && System.currentTimeMillis() - failure.time < getTtl(failure.count) * 1000) {
+			return failure.error;
+		}
+		return null;
+	}
+
+	public void failed(String key, String error) {
+		failures.merge(key, new Failure(error, System.currentTimeMillis(), 1), (previous, failure) -> new Failure(error, failure.time, previous.count + 1));
+		changed();
+	}
+
+	public void succeeded(String key) {
+		if (failures.remove(key) != null) {
+			changed();
+		}
+	}
+
+	public int size() {
+		return failures.size();
+	}
+
+	private void changed() {
+		if (changes.incrementAndGet() >= SAVE_CHANGES) {
+			try {
+				save();
+			} catch (IOException e) {
+				logger.error("Exception!", e);
+			}
+		}
+	}
+
+	public synchronized void save() throws IOException {
+		changes.set(0);
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Failure> entry : failures.entrySet()) {
+				Failure failure = entry.getValue();
+				writer.write(escape(entry.getKey()) + "\t" + failure.error.replaceAll("[\t\n]", " ") + "\t" + failure.time + "\t" + failure.count);
+				writer.newLine();
+			}
+		}
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -59,6 +59,10 @@ public class Processor {
 
 	private final Database database;
 
+	private final SharedDatabase sharedDatabase;
+
+	private final DatabaseEntryGet databaseEntryGet;
+
 	public Processor(ProcessorArgs args, FetcherPrivateArgs fetcherPrivateArgs) throws IOException, ParseException {
 		if (!args.isFetching()) {
 			this.fetcher = null;
@@ -68,13 +72,32 @@ public class Processor {
 
 		if (args.getDb() == null || args.getDb().isEmpty()) {
 			this.database = null;
-		} else {
+			this.sharedDatabase = null;
+		} else if (args.getDbSide() == null || args.getDbSide().isEmpty()) {
 			this.database = new Database(args.getDb());
+			this.sharedDatabase = null;
+		} else {
+			this.sharedDatabase = new SharedDatabase(args.getDb(), args.getDbSide());
+			this.database = sharedDatabase.getSide();
 		}
+
+		NegativeCache negativeCache = null;
+		if (args.getNegativeCache() != null && !args.getNegativeCache().isEmpty()) {
+			negativeCache = new NegativeCache(args.getNegativeCache(), args.getNegativeCacheTtl() * 3600L, args.getNegativeCacheMaxTtl() * 3600L);
+		}
+
+		this.databaseEntryGet = new DatabaseEntryGet(database, sharedDatabase, fetcher, negativeCache, args.getFetchThreads(), args.getFetchHostThreads(), args.getFetchTimeout(), args.isFetchVirtualThreads());
+	}
+
+	public void setDatabaseEntryListener(DatabaseEntryGet.Listener listener) {
+		databaseEntryGet.setListener(listener);
 	}
 
 	public void closeDatabase() throws IOException {
-		if (database != null) {
+		databaseEntryGet.shutdown();
+		if (sharedDatabase != null) {
+			sharedDatabase.close();
+		} else if (database != null) {
 			database.close();
 		}
 	}
@@ -287,16 +310,15 @@ public class Processor {
 
 		int fulltextWordCount = 0;
 		if (publication.getFulltext().isUsable(fetcherArgs)) {
+			SentenceStore fulltext = new SentenceStore(queryIdf != null);
 			for (String fulltextSentence : pp.sentences(publication.getFulltext().getContent())) {
 				List<String> fulltextTokens = pp.process(fulltextSentence);
 				if (!fulltextTokens.isEmpty()) {
-					publicationProcessed.addFulltextTokens(fulltextTokens);
+					fulltext.add(fulltextTokens, queryIdf != null ? queryIdf.getIdf(fulltextTokens) : null);
 					fulltextWordCount += fulltextTokens.size();
-					if (queryIdf != null) {
-						publicationProcessed.addFulltextIdfs(queryIdf.getIdf(fulltextTokens));
-					}
 				}
 			}
+			publicationProcessed.setFulltext(fulltext.pack());
 		}
 
 		if (publication.getEfoTerms().isUsable(fetcherArgs)) {
@@ -340,79 +362,44 @@ public class Processor {
 		return publicationProcessed;
 	}
 
-	private void addWebpage(Webpage webpage, QueryProcessed queryProcessed, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs, Iterator<Link> it) {
-		List<List<String>> webpageTokens = null;
-		List<List<Double>> webpageIdfs = null;
-		if (webpage != null && webpage.isUsable(fetcherArgs)) {
-			List<String> titleProcessed = pp.process(webpage.getTitle());
-			if (!titleProcessed.isEmpty()) {
-				webpageTokens = new ArrayList<>();
-				webpageTokens.add(titleProcessed);
-				if (queryIdf != null) {
-					webpageIdfs = new ArrayList<>();
-					webpageIdfs.add(queryIdf.getIdf(titleProcessed));
-				}
-			}
-			for (String contentSentence : pp.sentences(webpage.getContent())) {
-				List<String> contentSentenceProcessed = pp.process(contentSentence);
-				if (!contentSentenceProcessed.isEmpty()) {
-					if (webpageTokens == null) {
-						webpageTokens = new ArrayList<>();
-					}
-					webpageTokens.add(contentSentenceProcessed);
-					if (queryIdf != null) {
-						if (webpageIdfs == null) {
-							webpageIdfs = new ArrayList<>();
-						}
-						webpageIdfs.add(queryIdf.getIdf(contentSentenceProcessed));
-					}
-				}
+	// title and content sentences of a webpage or doc, null if nothing was left after processing
+	private SentenceStore webpageSentences(Webpage webpage, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs) {
+		if (webpage == null || !webpage.isUsable(fetcherArgs)) {
+			return null;
+		}
+		SentenceStore sentences = new SentenceStore(queryIdf != null);
+		List<String> titleProcessed = pp.process(webpage.getTitle());
+		if (!titleProcessed.isEmpty()) {
+			sentences.add(titleProcessed, queryIdf != null ? queryIdf.getIdf(titleProcessed) : null);
+		}
+		for (String contentSentence : pp.sentences(webpage.getContent())) {
+			List<String> contentSentenceProcessed = pp.process(contentSentence);
+			if (!contentSentenceProcessed.isEmpty()) {
+				sentences.add(contentSentenceProcessed, queryIdf != null ? queryIdf.getIdf(contentSentenceProcessed) : null);
 			}
 		}
-		if (webpageTokens == null && it != null) {
+		return sentences.isEmpty() ? null : sentences.pack();
+	}
+
+	private void addWebpage(Webpage webpage, QueryProcessed queryProcessed, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs, Iterator<Link> it) {
+		SentenceStore webpageSentences = webpageSentences(webpage, pp, queryIdf, fetcherArgs);
+		if (webpageSentences == null && it != null) {
 			it.remove();
 		} else {
 			queryProcessed.addWebpage(webpage);
-			queryProcessed.addWebpageTokens(webpageTokens);
-			queryProcessed.addWebpageIdfs(webpageIdfs);
+			queryProcessed.addWebpageTokens(webpageSentences != null ? webpageSentences.getTokens() : null);
+			queryProcessed.addWebpageIdfs(webpageSentences != null ? webpageSentences.getIdfs() : null);
 		}
 	}
 
 	private void addDoc(Webpage doc, QueryProcessed queryProcessed, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs, Iterator<Link> it) {
-		List<List<String>> docTokens = null;
-		List<List<Double>> docIdfs = null;
-		if (doc != null && doc.isUsable(fetcherArgs)) {
-			List<String> titleProcessed = pp.process(doc.getTitle());
-			if (!titleProcessed.isEmpty()) {
-				docTokens = new ArrayList<>();
-				docTokens.add(titleProcessed);
-				if (queryIdf != null) {
-					docIdfs = new ArrayList<>();
-					docIdfs.add(queryIdf.getIdf(titleProcessed));
-				}
-			}
-			for (String contentSentence : pp.sentences(doc.getContent())) {
-				List<String> contentSentenceProcessed = pp.process(contentSentence);
-				if (!contentSentenceProcessed.isEmpty()) {
-					if (docTokens == null) {
-						docTokens = new ArrayList<>();
-					}
-					docTokens.add(contentSentenceProcessed);
-					if (queryIdf != null) {
-						if (docIdfs == null) {
-							docIdfs = new ArrayList<>();
-						}
-						docIdfs.add(queryIdf.getIdf(contentSentenceProcessed));
-					}
-				}
-			}
-		}
-		if (docTokens == null && it != null) {
+		SentenceStore docSentences = webpageSentences(doc, pp, queryIdf, fetcherArgs);
+		if (docSentences == null && it != null) {
 			it.remove();
 		} else {
 			queryProcessed.addDoc(doc);
-			queryProcessed.addDocTokens(docTokens);
-			queryProcessed.addDocIdfs(docIdfs);
+			queryProcessed.addDocTokens(docSentences != null ? docSentences.getTokens() : null);
+			queryProcessed.addDocIdfs(docSentences != null ? docSentences.getIdfs() : null);
 		}
 	}
 
@@ -426,11 +413,9 @@ public class Processor {
 		}
 	}
 
-	public QueryProcessed getProcessedQuery(Query query, QueryType type, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs, Integer threads) {
+	private QueryProcessed getProcessedQueryText(Query query, PreProcessor pp, Idf queryIdf) {
 		QueryProcessed queryProcessed = new QueryProcessed();
 
-		boolean removeBroken = (type == QueryType.Bioconductor);
-
 		if (query.getName() != null) {
 			List<String> nameTokens = pp.process(query.getName());
 			if (!nameTokens.isEmpty()) {
@@ -472,11 +457,19 @@ public class Processor {
 			}
 		}
 
+		return queryProcessed;
+	}
+
+	public QueryProcessed getProcessedQuery(Query query, QueryType type, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs, Integer threads) {
+		QueryProcessed queryProcessed = getProcessedQueryText(query, pp, queryIdf);
+
+		boolean removeBroken = (type == QueryType.Bioconductor);
+
 		if (threads == null) {
 			if (query.getWebpageUrls() != null) {
 				for (Iterator<Link> it = query.getWebpageUrls().iterator(); it.hasNext(); ) {
 					String webpageUrl = it.next().getUrl();
-					Webpage webpage = PubFetcher.getWebpage(webpageUrl, database, fetcher, fetcherArgs);
+					Webpage webpage = (Webpage) databaseEntryGet.getDatabaseEntryInThread(fetcherArgs, new DatabaseEntryId(webpageUrl, DatabaseEntryType.webpage)).getEntry();
 					addWebpage(webpage, queryProcessed, pp, queryIdf, fetcherArgs, removeBroken ? it : null);
 				}
 			}
@@ -484,14 +477,14 @@ public class Processor {
 			if (query.getDocUrls() != null) {
 				for (Iterator<Link> it = query.getDocUrls().iterator(); it.hasNext(); ) {
 					String docUrl = it.next().getUrl();
-					Webpage doc = PubFetcher.getDoc(docUrl, database, fetcher, fetcherArgs);
+					Webpage doc = (Webpage) databaseEntryGet.getDatabaseEntryInThread(fetcherArgs, new DatabaseEntryId(docUrl, DatabaseEntryType.doc)).getEntry();
 					addDoc(doc, queryProcessed, pp, queryIdf, fetcherArgs, removeBroken ? it : null);
 				}
 			}
 
 			if (query.getPublicationIds() != null) {
 				for (PublicationIdsQuery publicationIds : query.getPublicationIds()) {
-					Publication publication = PubFetcher.getPublication(publicationIds, database, fetcher, null, fetcherArgs);
+					Publication publication = (Publication) databaseEntryGet.getDatabaseEntryInThread(fetcherArgs, new DatabaseEntryId(publicationIds, DatabaseEntryType.publication)).getEntry();
 					addPublication(publication, queryProcessed, pp, queryIdf, fetcherArgs);
 				}
 			}
@@ -535,8 +528,60 @@ public class Processor {
 		return queryProcessed;
 	}
 
+	// IDs of all webpages, then all docs, then all publications of the query
+	public List<DatabaseEntryId> getDatabaseEntryIds(Query query) {
+		List<DatabaseEntryId> ids = new ArrayList<>();
+		if (query.getWebpageUrls() != null) {
+			for (Link webpageUrl : query.getWebpageUrls()) {
+				ids.add(new DatabaseEntryId(webpageUrl.getUrl(), DatabaseEntryType.webpage));
+			}
+		}
+		if (query.getDocUrls() != null) {
+			for (Link docUrl : query.getDocUrls()) {
+				ids.add(new DatabaseEntryId(docUrl.getUrl(), DatabaseEntryType.doc));
+			}
+		}
+		if (query.getPublicationIds() != null) {
+			for (PublicationIdsQuery publicationIds : query.getPublicationIds()) {
+				ids.add(new DatabaseEntryId(publicationIds, DatabaseEntryType.publication));
+			}
+		}
+		return ids;
+	}
+
+	// entries must have been got beforehand, in the order of getDatabaseEntryIds()
+	public QueryProcessed getProcessedQueryPrefetched(Query query, QueryType type, PreProcessor pp, Idf queryIdf, FetcherArgs fetcherArgs, List<DatabaseEntryEntry> entries) {
+		QueryProcessed queryProcessed = getProcessedQueryText(query, pp, queryIdf);
+
+		boolean removeBroken = (type == QueryType.Bioconductor);
+
+		int e = 0;
+
+		if (query.getWebpageUrls() != null) {
+			for (Iterator<Link> it = query.getWebpageUrls().iterator(); it.hasNext(); ) {
+				it.next();
+				addWebpage((Webpage) entries.get(e++).getEntry(), queryProcessed, pp, queryIdf, fetcherArgs, removeBroken ? it : null);
+			}
+		}
+
+		if (query.getDocUrls() != null) {
+			for (Iterator<Link> it = query.getDocUrls().iterator(); it.hasNext(); ) {
+				it.next();
+				addDoc((Webpage) entries.get(e++).getEntry(), queryProcessed, pp, queryIdf, fetcherArgs, removeBroken ? it : null);
+			}
+		}
+
+		if (query.getPublicationIds() != null) {
+			for (int i = 0; i < query.getPublicationIds().size(); ++i) {
+				addPublication((Publication) entries.get(e++).getEntry(), queryProcessed, pp, queryIdf, fetcherArgs);
+			}
+		}
+
+		return queryProcessed;
+	}
+
 	public List<DatabaseEntryEntry> getDatabaseEntries(List<DatabaseEntryId> ids, FetcherArgs fetcherArgs, int threads) {
-		return new DatabaseEntryGet().getDatabaseEntries(database, fetcher, fetcherArgs, ids, System.currentTimeMillis(), threads);
+		return databaseEntryGet.getDatabaseEntries(fetcherArgs, ids, System.currentTimeMillis(), threads);
 	}
 
 	public int makeQueryIdf(List<Query> queries, QueryType type, String outputPath, boolean webpagesDocs, boolean fulltext, PreProcessor preProcessor, Idf queryIdf, FetcherArgs fetcherArgs, boolean progress) throws IOException {
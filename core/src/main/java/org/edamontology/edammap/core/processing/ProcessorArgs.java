@@ -25,6 +25,7 @@ import com.beust.jcommander.Parameter;
 
 import org.edamontology.pubfetcher.core.common.Arg;
 import org.edamontology.pubfetcher.core.common.Args;
+import org.edamontology.pubfetcher.core.common.PositiveInteger;
 
 public class ProcessorArgs extends Args {
 
@@ -40,6 +41,12 @@ public class ProcessorArgs extends Args {
 	@Parameter(names = { "--" + dbId, "--database" }, description = dbDescription)
 	private String db = dbDefault;
 
+	private static final String dbSideId = "dbSide";
+	private static final String dbSideDescription = "Share the database given with --db with other processes: each process reads from its own snapshot of it (a copy next to the side database, taken again within a minute of the shared database being modified) and entries read from it, and all new and updated entries, are stored in the given side database instead (which is created if it does not exist and must not be used by other processes); side databases can be merged to the shared database with the EDAMmap-Util command -merge-db";
+	private static final String dbSideDefault = "";
+	@Parameter(names = { "--" + dbSideId }, description = dbSideDescription)
+	private String dbSide = dbSideDefault;
+
 	private static final String idfId = "idf";
 	private static final String idfDescription = "Use the given query IDF file (when stemming is not enabled); if not specified, weighting of queries with IDF scores will be disabled (when stemming is not enabled)";
 	private static final String idfDefault = "";
@@ -52,12 +59,62 @@ public class ProcessorArgs extends Args {
 	@Parameter(names = { "--" + idfStemmedId, "--query-" + idfStemmedId }, description = idfStemmedDescription)
 	private String idfStemmed = idfStemmedDefault;
 
+	private static final String fetchThreadsId = "fetchThreads";
+	private static final String fetchThreadsDescription = "Maximum number of publications, webpages and docs got (from the database or by fetching) at the same time, over all queries; set to 0 for no limit";
+	private static final Integer fetchThreadsDefault = 32;
+	@Parameter(names = { "--" + fetchThreadsId }, validateWith = PositiveInteger.class, description = fetchThreadsDescription)
+	private Integer fetchThreads = fetchThreadsDefault;
+
+	private static final String fetchHostThreadsId = "fetchHostThreads";
+	private static final String fetchHostThreadsDescription = "Maximum number of webpages and docs got at the same time from one host (all publications count as one host); set to 0 for no limit";
+	private static final Integer fetchHostThreadsDefault = 4;
+	@Parameter(names = { "--" + fetchHostThreadsId }, validateWith = PositiveInteger.class, description = fetchHostThreadsDescription)
+	private Integer fetchHostThreads = fetchHostThreadsDefault;
+
+	private static final String fetchTimeoutId = "fetchTimeout";
+	private static final String fetchTimeoutDescription = "Time in seconds to wait for the publications, webpages and docs of a query, after which missing entries are left empty; set to 0 for no limit";
+	private static final Integer fetchTimeoutDefault = 0;
+	@Parameter(names = { "--" + fetchTimeoutId }, validateWith = PositiveInteger.class, description = fetchTimeoutDescription)
+	private Integer fetchTimeout = fetchTimeoutDefault;
+
+	private static final String fetchVirtualThreadsId = "fetchVirtualThreads";
+	private static final String fetchVirtualThreadsDescription = "Get each publication, webpage and doc in a virtual thread, if supported by the Java version (21 or later); concurrency is still limited by --fetchThreads and --fetchHostThreads";
+	private static final Boolean fetchVirtualThreadsDefault = false;
+	@Parameter(names = { "--" + fetchVirtualThreadsId }, arity = 1, description = fetchVirtualThreadsDescription)
+	private Boolean fetchVirtualThreads = fetchVirtualThreadsDefault;
+
+	private static final String negativeCacheId = "negativeCache";
+	private static final String negativeCacheDescription = "Keep publications, webpages and docs that failed to be fetched or were not usable in the given file, so that fetching them is not tried again until some time has passed; if not specified, fetching of failed entries is tried every time";
+	private static final String negativeCacheDefault = "";
+	@Parameter(names = { "--" + negativeCacheId }, description = negativeCacheDescription)
+	private String negativeCache = negativeCacheDefault;
+
+	private static final String negativeCacheTtlId = "negativeCacheTtl";
+	private static final String negativeCacheTtlDescription = "Time in hours after which fetching of a failed publication, webpage or doc in --negativeCache is tried again; the time is doubled after each consecutive failure";
+	private static final Integer negativeCacheTtlDefault = 24;
+	@Parameter(names = { "--" + negativeCacheTtlId }, validateWith = PositiveInteger.class, description = negativeCacheTtlDescription)
+	private Integer negativeCacheTtl = negativeCacheTtlDefault;
+
+	private static final String negativeCacheMaxTtlId = "negativeCacheMaxTtl";
+	private static final String negativeCacheMaxTtlDescription = "Maximum time in hours after which fetching of a failed publication, webpage or doc in --negativeCache is tried again";
+	private static final Integer negativeCacheMaxTtlDefault = 720;
+	@Parameter(names = { "--" + negativeCacheMaxTtlId }, validateWith = PositiveInteger.class, description = negativeCacheMaxTtlDescription)
+	private Integer negativeCacheMaxTtl = negativeCacheMaxTtlDefault;
+
 	@Override
 	protected void addArgs() {
 		args.add(new Arg<>(this::isFetching, this::setFetching, fetchingDefault, fetchingId, "Fetching", fetchingDescription, null));
 		args.add(new Arg<>(this::getDbFilename, this::setDb, dbDefault, dbId, "Database file", dbDescription, null));
+		args.add(new Arg<>(this::getDbSideFilename, this::setDbSide, dbSideDefault, dbSideId, "Side database file", dbSideDescription, null));
 		args.add(new Arg<>(this::getIdfFilename, this::setIdf, idfDefault, idfId, "Query IDF file", idfDescription, null));
 		args.add(new Arg<>(this::getIdfStemmedFilename, this::setIdfStemmed, idfStemmedDefault, idfStemmedId, "Stemmed query IDF file", idfStemmedDescription, null));
+		args.add(new Arg<>(this::getFetchThreads, this::setFetchThreads, fetchThreadsDefault, 0, null, fetchThreadsId, "Fetch threads", fetchThreadsDescription, null));
+		args.add(new Arg<>(this::getFetchHostThreads, this::setFetchHostThreads, fetchHostThreadsDefault, 0, null, fetchHostThreadsId, "Fetch threads per host", fetchHostThreadsDescription, null));
+		args.add(new Arg<>(this::getFetchTimeout, this::setFetchTimeout, fetchTimeoutDefault, 0, null, fetchTimeoutId, "Fetch timeout", fetchTimeoutDescription, null));
+		args.add(new Arg<>(this::isFetchVirtualThreads, this::setFetchVirtualThreads, fetchVirtualThreadsDefault, fetchVirtualThreadsId, "Fetch in virtual threads", fetchVirtualThreadsDescription, null));
+		args.add(new Arg<>(this::getNegativeCacheFilename, this::setNegativeCache, negativeCacheDefault, negativeCacheId, "Negative cache file", negativeCacheDescription, null));
+		args.add(new Arg<>(this::getNegativeCacheTtl, this::setNegativeCacheTtl, negativeCacheTtlDefault, 0, null, negativeCacheTtlId, "Negative cache TTL", negativeCacheTtlDescription, null));
+		args.add(new Arg<>(this::getNegativeCacheMaxTtl, this::setNegativeCacheMaxTtl, negativeCacheMaxTtlDefault, 0, null, negativeCacheMaxTtlId, "Negative cache max TTL", negativeCacheMaxTtlDescription, null));
 	}
 
 	@Override
@@ -87,6 +144,16 @@ public class ProcessorArgs extends Args {
 		this.db = db;
 	}
 
+	public String getDbSide() {
+		return dbSide;
+	}
+	public String getDbSideFilename() {
+		return new File(dbSide).getName();
+	}
+	public void setDbSide(String dbSide) {
+		this.dbSide = dbSide;
+	}
+
 	public String getIdf() {
 		return idf;
 	}
@@ -106,4 +173,56 @@ public class ProcessorArgs extends Args {
 	public void setIdfStemmed(String idfStemmed) {
 		this.idfStemmed = idfStemmed;
 	}
+
+	public Integer getFetchThreads() {
+		return fetchThreads;
+	}
+	public void setFetchThreads(Integer fetchThreads) {
+		this.fetchThreads = fetchThreads;
+	}
+
+	public Integer getFetchHostThreads() {
+		return fetchHostThreads;
+	}
+	public void setFetchHostThreads(Integer fetchHostThreads) {
+		this.fetchHostThreads = fetchHostThreads;
+	}
+
+	public Integer getFetchTimeout() {
+		return fetchTimeout;
+	}
+	public void setFetchTimeout(Integer fetchTimeout) {
+		this.fetchTimeout = fetchTimeout;
+	}
+
+	public Boolean isFetchVirtualThreads() {
+		return fetchVirtualThreads;
+	}
+	public void setFetchVirtualThreads(Boolean fetchVirtualThreads) {
+		this.fetchVirtualThreads = fetchVirtualThreads;
+	}
+
+	public String getNegativeCache() {
+		return negativeCache;
+	}
+	public String getNegativeCacheFilename() {
+		return new File(negativeCache).getName();
+	}
+	public void setNegativeCache(String negativeCache) {
+		this.negativeCache = negativeCache;
+	}
+
+	public Integer getNegativeCacheTtl() {
+		return negativeCacheTtl;
+	}
+	public void setNegativeCacheTtl(Integer negativeCacheTtl) {
+		this.negativeCacheTtl = negativeCacheTtl;
+	}
+
+	public Integer getNegativeCacheMaxTtl() {
+		return negativeCacheMaxTtl;
+	}
+	public void setNegativeCacheMaxTtl(Integer negativeCacheMaxTtl) {
+		this.negativeCacheMaxTtl = negativeCacheMaxTtl;
+	}
 }
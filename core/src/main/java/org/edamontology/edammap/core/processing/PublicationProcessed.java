@@ -44,8 +44,7 @@ public class PublicationProcessed {
 	private List<List<String>> abstractTokens = new ArrayList<>();
 	private List<List<Double>> abstractIdfs = null;
 
-	private List<List<String>> fulltextTokens = new ArrayList<>();
-	private List<List<Double>> fulltextIdfs = null;
+	private SentenceStore fulltext = new SentenceStore(false);
 
 	public List<String> getTitleTokens() {
 		return titleTokens;
@@ -141,18 +140,15 @@ public class PublicationProcessed {
 	}
 
 	public List<List<String>> getFulltextTokens() {
-		return fulltextTokens;
-	}
-	public void addFulltextTokens(List<String> fulltextTokens) {
-		this.fulltextTokens.add(fulltextTokens);
+		return fulltext.getTokens();
 	}
 	public List<List<Double>> getFulltextIdfs() {
-		return fulltextIdfs;
+		return fulltext.getIdfs();
 	}
-	public void addFulltextIdfs(List<Double> fulltextIdfs) {
-		if (this.fulltextIdfs == null) {
-			this.fulltextIdfs = new ArrayList<>();
-		}
-		this.fulltextIdfs.add(fulltextIdfs);
+	public SentenceStore getFulltext() {
+		return fulltext;
+	}
+	public void setFulltext(SentenceStore fulltext) {
+		this.fulltext = fulltext;
 	}
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.core.processing;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// Tokens (and IDFs) of the sentences of long content (publication fulltext, webpages, docs) packed into arrays,
+// with tokens stored once per distinct token and referenced by ID
+// Read-only list views of the sentences are given out in place of List<List<String>> and List<List<Double>>
+public class SentenceStore {
+
+	private final boolean hasIdfs;
+
+	// only used while adding, dropped by pack()
+	private Map<String, Integer> ids = new HashMap<>();
+
+	private String[] vocabulary = new String[16];
+	private int vocabularySize = 0;
+
+	private int[] tokens = new int[64];
+	private double[] idfs;
+	private int tokensSize = 0;
+
+	// sentence i has tokens from offsets[i] (inclusive) to offsets[i + 1] (exclusive)
+	private int[] offsets = new int[17];
+	private int size = 0;
+
+	// sentence views are created on first access and then reused, as Mapper goes through them again for each concept
+	// (a racy creation is harmless, as the views are immutable)
+	private TokenSentence[] tokenSentences = null;
+	private IdfSentence[] idfSentences = null;
+
+	private final List<List<String>> tokensView = new Sentences<String>() {
+		@Override
+		List<String> sentence(int index) {
+			if (tokenSentences == null) {
+				tokenSentences = new TokenSentence[size];
+			}
+			TokenSentence sentence = tokenSentences[index];
+			if (sentence == null) {
+				sentence = new TokenSentence(offsets[index], offsets[index + 1]);
+				tokenSentences[index] = sentence;
+			}
+			return sentence;
+		}
+	};
+
+	private final List<List<Double>> idfsView = new Sentences<Double>() {
+		@Override
+		List<Double> sentence(int index) {
+			if (idfSentences == null) {
+				idfSentences = new IdfSentence[size];
+			}
+			IdfSentence sentence = idfSentences[index];
+			if (sentence == null) {
+				sentence = new IdfSentence(offsets[index], offsets[index + 1]);
+				idfSentences[index] = sentence;
+			}
+			return sentence;
+		}
+	};
+
+	private abstract class Sentences<E> extends AbstractList<List<E>> implements RandomAccess {
+		abstract List<E> sentence(int index);
+		@Override
+		public List<E> get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			}
+			return sentence(index);
+		}
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+
+	private abstract static class Sentence<E> extends AbstractList<E> implements RandomAccess {
+		private final int from;
+		private final int to;
+		private Sentence(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+		int index(int index) {
+			if (index < 0 || index >= to - from) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+			}
+			return from + index;
+		}
+		@Override
+		public int size() {
+			return to - from;
+		}
+	}
+
+	private final class TokenSentence extends Sentence<String> {
+		private TokenSentence(int from, int to) {
+			super(from, to);
+		}
+		@Override
+		public String get(int index) {
+			return vocabulary[tokens[index(index)]];
+		}
+	}
+
+	// IDFs of one sentence, which can also be got without boxing
+	public final class IdfSentence extends Sentence<Double> {
+		private IdfSentence(int from, int to) {
+			super(from, to);
+		}
+		public double getIdf(int index) {
+			return idfs[index(index)];
+		}
+		@Override
+		public Double get(int index) {
+			return getIdf(index);
+		}
+	}
+
+	public SentenceStore(boolean hasIdfs) {
+		this.hasIdfs = hasIdfs;
+		this.idfs = hasIdfs ? new double[tokens.length] : null;
+	}
+
+	private int id(String token) {
+		if (ids == null) {
+			ids = new HashMap<>();
+			for (int i = 0; i < vocabularySize; ++i) {
+				ids.put(vocabulary[i], i);
+			}
+		}
+		Integer id = ids.get(token);
+		if (id == null) {
+			if (vocabularySize == vocabulary.length) {
+				vocabulary = Arrays.copyOf(vocabulary, Math.max(vocabulary.length * 2, 16));
+			}
+			id = vocabularySize;
+			vocabulary[vocabularySize++] = token;
+			ids.put(token, id);
+		}
+		return id;
+	}
+
+	// idfs must be given (and be of the same size as tokens) if and only if the store has IDFs
+	public void add(List<String> sentenceTokens, List<Double> sentenceIdfs) {
+		if (hasIdfs != (sentenceIdfs != null) || sentenceIdfs != null && sentenceIdfs.size() != sentenceTokens.size()) {
+			throw new IllegalArgumentException("IDFs do not correspond to tokens");
+		}
+		int needed = tokensSize + sentenceTokens.size();
+		if (needed > tokens.length) {
+			int length = Math.max(needed, tokens.length * 2);
+			tokens = Arrays.copyOf(tokens, length);
+			if (hasIdfs) {
+				idfs = Arrays.copyOf(idfs, length);
+			}
+		}
+		for (int i = 0; i < sentenceTokens.size(); ++i) {
+			tokens[tokensSize] = id(sentenceTokens.get(i));
+			if (hasIdfs) {
+				idfs[tokensSize] = sentenceIdfs.get(i);
+			}
+			++tokensSize;
+		}
+		if (size + 2 > offsets.length) {
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		}
+		offsets[++size] = tokensSize;
+		tokenSentences = null;
+		idfSentences = null;
+	}
+
+	// trim arrays to size, after all sentences have been added
+	public SentenceStore pack() {
+		ids = null;
+		vocabulary = Arrays.copyOf(vocabulary, vocabularySize);
+		tokens = Arrays.copyOf(tokens, tokensSize);
+		if (hasIdfs) {
+			idfs = Arrays.copyOf(idfs, tokensSize);
+		}
+		offsets = Arrays.copyOf(offsets, size + 1);
+		tokenSentences = null;
+		idfSentences = null;
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public List<List<String>> getTokens() {
+		return tokensView;
+	}
+
+	// null if the store has no IDFs or no sentences
+	public List<List<Double>> getIdfs() {
+		return (hasIdfs && size > 0) ? idfsView : null;
+	}
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.core.processing;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.edamontology.pubfetcher.core.common.FetcherArgs;
+import org.edamontology.pubfetcher.core.db.Database;
+import org.edamontology.pubfetcher.core.db.DatabaseEntry;
+import org.edamontology.pubfetcher.core.db.DatabaseEntryType;
+import org.edamontology.pubfetcher.core.db.publication.Publication;
+import org.edamontology.pubfetcher.core.db.publication.PublicationIds;
+import org.edamontology.pubfetcher.core.db.webpage.Webpage;
+
+import org.edamontology.edammap.core.input.DatabaseEntryId;
+
+// A database shared by many processes, which only read from it
+// As a database can be open in only one process at a time, each process reads from its own snapshot of the shared database (a copy of its file next to the side database),
+// which is taken under a lock on the file <database>.lock and taken again when the shared database has been modified (for example, by merge())
+// While the lock can't be got (as a merge is in progress), the old snapshot (if any) is kept, so no process waits for the shared database when getting entries
+// Entries read from the snapshot are copied to the side database of the process, where also all new and updated entries are written
+// Side databases can be merged to the shared database with merge()
+public class SharedDatabase implements Closeable {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	// seconds between checks of whether the shared database has been modified since the snapshot was taken
+	private static final long REFRESH = 60;
+
+	// milliseconds to wait for other processes to release the shared database before trying again at the next check
+	private static final long LOCK_WAIT = 2000;
+
+	// milliseconds between tries of the lock of the shared database
+	private static final long LOCK_RETRY = 20;
+
+	private static final String SNAPSHOT_SUFFIX = ".shared";
+
+	private final String path;
+
+	private final Path snapshotPath;
+
+	private final Database side;
+
+	private final ScheduledExecutorService refresher;
+
+	// read-locked by the threads reading from the snapshot, write-locked while replacing it
+	private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+	private Database snapshot = null;
+
+	// last modified time of the shared database when the snapshot was taken, only used by the refresher
+	private long snapshotModified = -1;
+
+	public SharedDatabase(String path, String sidePath) throws IOException {
+		if (!Files.exists(Paths.get(path))) {
+			throw new FileNotFoundException("Shared database " + path + " does not exist");
+		}
+		this.path = path;
+		this.snapshotPath = Paths.get(sidePath + SNAPSHOT_SUFFIX);
+		if (!Files.exists(Paths.get(sidePath))) {
+			logger.info("Creating side database {}", sidePath);
+			Database.init(sidePath);
+		}
+		this.side = new Database(sidePath);
+		this.refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "shared-db-refresher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		refresh();
+		this.refresher.scheduleWithFixedDelay(this::refresh, REFRESH, REFRESH, TimeUnit.SECONDS);
+	}
+
+	public Database getSide() {
+		return side;
+	}
+
+	private static FileChannel openLockChannel(String path) throws IOException {
+		return FileChannel.open(Paths.get(path + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	}
+
+	// blocks until no other process has the database open
+	private static FileChannel lock(String path) throws IOException {
+		FileChannel lockChannel = openLockChannel(path);
+		try {
+			lockChannel.lock();
+		} catch (IOException | RuntimeException e) {
+			lockChannel.close();
+			throw e;
+		}
+		return lockChannel;
+	}
+
+	// returns null if another process still has the database open after the wait
+	private static FileChannel tryLock(String path, long wait) throws IOException, InterruptedException {
+		FileChannel lockChannel = openLockChannel(path);
+		try {
+			long deadline = System.currentTimeMillis() + wait;
+			while (lockChannel.tryLock() == null) {
+				if (System.currentTimeMillis() >= deadline) {
+					lockChannel.close();
+					return null;
+				}
+				Thread.sleep(LOCK_RETRY);
+			}
+		} catch (IOException | RuntimeException | InterruptedException e) {
+			lockChannel.close();
+			throw e;
+		}
+		return lockChannel;
+	}
+
+	// must be called with the write lock of the snapshot held
+	private void closeSnapshot() {
+		if (snapshot != null) {
+			try {
+				snapshot.close();
+			} catch (Exception e) {
+				logger.error("Exception!", e);
+			}
+			snapshot = null;
+		}
+	}
+
+	// take a new snapshot, if the shared database has been modified since the last one and is not locked by another process
+	private void refresh() {
+		try {
+			long modified = Files.getLastModifiedTime(Paths.get(path)).toMillis();
+			if (modified == snapshotModified) {
+				return;
+			}
+			Path snapshotCopy = Paths.get(snapshotPath + ".tmp");
+			try (FileChannel lockChannel = tryLock(path, LOCK_WAIT)) {
+				if (lockChannel == null) {
+					logger.info("Shared database {} is locked, keeping its old snapshot", path);
+					return;
+				}
+				modified = Files.getLastModifiedTime(Paths.get(path)).toMillis();
+				Files.copy(Paths.get(path), snapshotCopy, StandardCopyOption.REPLACE_EXISTING);
+			}
+			snapshotLock.writeLock().lock();
+			try {
+				closeSnapshot();
+				Files.move(snapshotCopy, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+				snapshot = new Database(snapshotPath.toString());
+			} finally {
+				snapshotLock.writeLock().unlock();
+			}
+			snapshotModified = modified;
+			logger.info("Took snapshot {} of shared database {}", snapshotPath, path);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			logger.error("Can't take snapshot of shared database {}", path);
+			logger.error("Exception!", e);
+		}
+	}
+
+	// the reader is not run and null is returned if there is no snapshot yet
+	private <T> T read(Function<Database, T> reader) {
+		snapshotLock.readLock().lock();
+		try {
+			return snapshot != null ? reader.apply(snapshot) : null;
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	private static void put(Database db, DatabaseEntry<?> entry, DatabaseEntryType type) {
+		switch (type) {
+			case publication: db.putPublication((Publication) entry); break;
+			case webpage: db.putWebpage((Webpage) entry); break;
+			case doc: db.putDoc((Webpage) entry); break;
+		}
+	}
+
+	// copy the entry from the snapshot of the shared database to the side database, if not already there
+	public void copy(FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		if (DatabaseEntryGet.getDatabaseEntry(side, null, fetcherArgs, id).getEntry() != null) {
+			return;
+		}
+		DatabaseEntry<?> entry;
+		try {
+			entry = read(shared -> DatabaseEntryGet.getDatabaseEntry(shared, null, fetcherArgs, id).getEntry());
+		} catch (RuntimeException e) {
+			logger.error("Can't read {} {} from shared database {}", id.getType(), id.getId(), path);
+			logger.error("Exception!", e);
+			return;
+		}
+		if (entry != null) {
+			synchronized (side) {
+				put(side, entry, id.getType());
+				side.commit();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		refresher.shutdownNow();
+		try {
+			refresher.awaitTermination(LOCK_WAIT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		snapshotLock.writeLock().lock();
+		try {
+			closeSnapshot();
+		} finally {
+			snapshotLock.writeLock().unlock();
+		}
+		Files.deleteIfExists(snapshotPath);
+		side.close();
+	}
+
+	// merge all entries of the side database to the shared database, overwriting entries there only if they were fetched earlier
+	public static int merge(String sidePath, String path, FetcherArgs fetcherArgs) throws IOException {
+		Database side = new Database(sidePath);
+		try (FileChannel lockChannel = lock(path)) {
+			Database shared = new Database(path);
+			int count = 0;
+			try {
+				for (PublicationIds publicationIds : side.getPublicationIds()) {
+					count += merge(side, shared, fetcherArgs, new DatabaseEntryId(publicationIds, DatabaseEntryType.publication));
+				}
+				for (String webpageUrl : side.getWebpageUrls()) {
+					count += merge(side, shared, fetcherArgs, new DatabaseEntryId(webpageUrl, DatabaseEntryType.webpage));
+				}
+				for (String docUrl : side.getDocUrls()) {
+					count += merge(side, shared, fetcherArgs, new DatabaseEntryId(docUrl, DatabaseEntryType.doc));
+				}
+				shared.commit();
+			} finally {
+				shared.close();
+			}
+			return count;
+		} finally {
+			side.close();
+		}
+	}
+
+	private static int merge(Database side, Database shared, FetcherArgs fetcherArgs, DatabaseEntryId id) {
+		DatabaseEntry<?> entry = DatabaseEntryGet.getDatabaseEntry(side, null, fetcherArgs, id).getEntry();
+		if (entry == null) {
+			return 0;
+		}
+		// another process may have merged a newer copy of the entry in the meantime
+		DatabaseEntry<?> existing = DatabaseEntryGet.getDatabaseEntry(shared, null, fetcherArgs, id).getEntry();
+		if (existing != null && existing.getFetchTime() >= entry.getFetchTime()) {
+			return 0;
+		}
+		put(shared, entry, id.getType());
+		return 1;
+	}
+}
@@ -21,6 +21,7 @@ package org.edamontology.edammap.core.query;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,9 +35,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -52,7 +56,9 @@ import org.edamontology.edammap.core.edam.EdamUri;
 import org.edamontology.edammap.core.input.Csv;
 import org.edamontology.edammap.core.input.InputType;
 import org.edamontology.edammap.core.input.Json;
+import org.edamontology.edammap.core.input.InputIterator;
 import org.edamontology.edammap.core.input.ServerInput;
+import org.edamontology.edammap.core.input.UncheckedParseException;
 import org.edamontology.edammap.core.input.Xml;
 import org.edamontology.edammap.core.input.csv.Bioconductor;
 import org.edamontology.edammap.core.input.csv.Generic;
@@ -556,36 +562,55 @@ public class QueryLoader {
 			annotations);
 	}
 
-	public static List<Query> get(String queryPath, QueryType type, Map<EdamUri, Concept> concepts, int timeout, String userAgent) throws IOException, ParseException {
+	static Query get(InputType input, QueryType type, Map<EdamUri, Concept> concepts, String filename) {
+		switch (type) {
+			case generic: return getGeneric((Generic) input, concepts, filename);
+			case SEQwiki: return getSEQwiki((SEQwiki) input, concepts, filename);
+			case msutils: return getMsutils((Msutils) input, concepts, filename);
+			case Bioconductor: return getBioconductor((Bioconductor) input, concepts);
+			case biotools14: return getBiotools14((Biotools14) input, concepts, filename);
+			case biotools: return getBiotools((Tool) input, concepts, 0, 0, filename);
+			default: return null;
+		}
+	}
+
+	// queries are read and created lazily from the input
+	public static QuerySource source(String queryPath, QueryType type, Map<EdamUri, Concept> concepts, int timeout, String userAgent, boolean dedup) throws IOException, ParseException {
 		if (type == QueryType.server) {
 			throw new IllegalArgumentException("Query of type \"" + QueryType.server.name() + "\" is not loadable from path, but has to be provided");
 		}
 
-		List<? extends InputType> inputs;
+		InputIterator<? extends InputType> inputs;
 		if (type == QueryType.biotools) {
-			inputs = Json.load(queryPath, type, timeout, userAgent);
+			inputs = Json.iterate(queryPath, type, timeout, userAgent);
 		} else if (type == QueryType.biotools14) {
-			inputs = Xml.load(queryPath, type, timeout, userAgent);
+			inputs = Xml.iterate(queryPath, type, timeout, userAgent);
 		} else {
-			inputs = Csv.load(queryPath, type, timeout, userAgent);
+			inputs = Csv.iterate(queryPath, type, timeout, userAgent);
 		}
 
-		Set<Query> queries = new LinkedHashSet<>();
-		String filename = new File(queryPath).getName();
+		return new QuerySource(inputs, type, concepts, new File(queryPath).getName(), dedup);
+	}
 
-		for (InputType input : inputs) {
-			switch (type) {
-				case generic: queries.add(getGeneric((Generic) input, concepts, filename)); break;
-				case SEQwiki: queries.add(getSEQwiki((SEQwiki) input, concepts, filename)); break;
-				case msutils: queries.add(getMsutils((Msutils) input, concepts, filename)); break;
-				case Bioconductor: queries.add(getBioconductor((Bioconductor) input, concepts)); break;
-				case biotools14: queries.add(getBiotools14((Biotools14) input, concepts, filename)); break;
-				case biotools: queries.add(getBiotools((Tool) input, concepts, 0, 0, filename)); break;
-				case server: break;
-			}
-		}
+	// the returned stream must be closed
+	public static Stream<Query> stream(String queryPath, QueryType type, Map<EdamUri, Concept> concepts, int timeout, String userAgent, boolean dedup) throws IOException, ParseException {
+		QuerySource source = source(queryPath, type, concepts, timeout, userAgent, dedup);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(source, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(() -> {
+				try {
+					source.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+	}
 
-		return new ArrayList<>(queries);
+	public static List<Query> get(String queryPath, QueryType type, Map<EdamUri, Concept> concepts, int timeout, String userAgent) throws IOException, ParseException {
+		try (Stream<Query> queries = stream(queryPath, type, concepts, timeout, userAgent, false)) {
+			return new ArrayList<>(queries.collect(Collectors.toCollection(LinkedHashSet::new)));
+		} catch (UncheckedIOException | UncheckedParseException e) {
+			throw UncheckedParseException.unwrap(e);
+		}
 	}
 
 	public static List<Query> get(String queryPath, QueryType type, int timeout, String userAgent) throws IOException, ParseException {
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.core.query;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.input.InputIterator;
+import org.edamontology.edammap.core.input.InputType;
+
+// Queries created one at a time from lazily read input, so only as many queries as are consumed are kept in memory
+public class QuerySource implements Iterator<Query>, Closeable {
+
+	private final InputIterator<? extends InputType> inputs;
+
+	private final QueryType type;
+
+	private final Map<EdamUri, Concept> concepts;
+
+	private final String filename;
+
+	// fingerprints of queries returned so far, if duplicates are removed (about 150 bytes per query)
+	private final Set<ByteBuffer> fingerprints;
+
+	private Query next = null;
+
+	private int count = 0;
+
+	QuerySource(InputIterator<? extends InputType> inputs, QueryType type, Map<EdamUri, Concept> concepts, String filename, boolean dedup) {
+		this.inputs = inputs;
+		this.type = type;
+		this.concepts = concepts;
+		this.filename = filename;
+		this.fingerprints = (dedup ? new HashSet<>() : null);
+	}
+
+	// SHA-256 of all fields of a query, as storing the queries themselves for removing duplicates would defeat streaming.
+	// Each value is length-prefixed and null is distinguished from empty, so that different queries can't give the same input to the digest.
+	private static ByteBuffer fingerprint(Query query) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		update(digest, query.getId());
+		update(digest, query.getName());
+		update(digest, query.getDescription());
+		if (query.getKeywords() != null) {
+			update(digest, query.getKeywords().size());
+			for (Keyword keyword : query.getKeywords()) {
+				update(digest, keyword.getType());
+				update(digest, keyword.getValue());
+				update(digest, keyword.getUrl());
+			}
+		} else {
+			update(digest, -1);
+		}
+		updateLinks(digest, query.getWebpageUrls());
+		updateLinks(digest, query.getDocUrls());
+		if (query.getPublicationIds() != null) {
+			update(digest, query.getPublicationIds().size());
+			for (PublicationIdsQuery publicationIds : query.getPublicationIds()) {
+				update(digest, publicationIds.getPmid());
+				update(digest, publicationIds.getPmcid());
+				update(digest, publicationIds.getDoi());
+				update(digest, publicationIds.getType());
+			}
+		} else {
+			update(digest, -1);
+		}
+		if (query.getAnnotations() != null) {
+			// annotations are compared as a set, so their order must not matter
+			List<String> annotations = query.getAnnotations().stream().map(EdamUri::toString).sorted().collect(Collectors.toList());
+			update(digest, annotations.size());
+			for (String annotation : annotations) {
+				update(digest, annotation);
+			}
+		} else {
+			update(digest, -1);
+		}
+		return ByteBuffer.wrap(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, int value) {
+		digest.update((byte) (value >>> 24));
+		digest.update((byte) (value >>> 16));
+		digest.update((byte) (value >>> 8));
+		digest.update((byte) value);
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value == null) {
+			update(digest, -1);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			update(digest, bytes.length);
+			digest.update(bytes);
+		}
+	}
+
+	private static void updateLinks(MessageDigest digest, List<Link> links) {
+		if (links == null) {
+			update(digest, -1);
+		} else {
+			update(digest, links.size());
+			for (Link link : links) {
+				update(digest, link.getUrl());
+				update(digest, link.getType());
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (next == null && inputs.hasNext()) {
+			Query query = QueryLoader.get(inputs.next(), type, concepts, filename);
+			if (fingerprints == null || fingerprints.add(fingerprint(query))) {
+				next = query;
+			}
+		}
+		return next != null;
+	}
+
+	@Override
+	public Query next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Query query = next;
+		next = null;
+		++count;
+		return query;
+	}
+
+	// number of queries returned so far
+	public int getCount() {
+		return count;
+	}
+
+	// number of input entries, if the input tells it before being read, otherwise -1
+	// removed duplicates are not accounted for, so it's an upper bound of the number of queries
+	public int getSize() {
+		return inputs.getSize();
+	}
+
+	@Override
+	public void close() throws IOException {
+		inputs.close();
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.input.ServerInput;
+import org.edamontology.edammap.core.input.json.Tool;
+import org.edamontology.edammap.core.output.JsonType;
+
+import org.edamontology.pubfetcher.core.common.IllegalRequestException;
+
+public final class Batch {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	// how long finished jobs can be queried for status
+	private static final long KEEP_MILLIS = 24 * 60 * 60 * 1000;
+
+	private static final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+	private static ThreadPoolExecutor executor = null;
+
+	private static int threads;
+
+	// 0 means no limit
+	private static int maxJobs;
+
+	static void init(int batchThreads, int batchJobs) {
+		threads = (batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors());
+		maxJobs = batchJobs;
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), WorkerPools.threadFactory("batch"));
+	}
+
+	static void shutdown() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	static ThreadPoolExecutor getExecutor() {
+		return executor;
+	}
+
+	private static void removeOld() {
+		long now = System.currentTimeMillis();
+		for (Iterator<BatchJob> it = jobs.values().iterator(); it.hasNext(); ) {
+			BatchJob job = it.next();
+			if (job.isFinished() && now - job.getStop() > KEEP_MILLIS) {
+				it.remove();
+			}
+		}
+	}
+
+	static synchronized BatchJob submit(CoreArgs coreArgs, JsonType jsonType, String jsonVersion, List<ServerInput> serverInputs, List<Tool> tools) throws IOException {
+		removeOld();
+
+		long active = jobs.values().stream().filter(j -> !j.isFinished()).count();
+		if (maxJobs > 0 && active >= maxJobs) {
+			throw new RejectedExecutionException("Number of unfinished batch jobs (" + active + ") has reached the maximum allowed (" + maxJobs + "), try again later");
+		}
+
+		String uuidDirPrefix = Server.args.getServerPrivateArgs().getFiles() + "/";
+		String uuidButLast = Server.version.getVersion() + "/" + DateTimeFormatter.ofPattern("uuuu-MM").format(LocalDateTime.ofInstant(Instant.now(), ZoneId.of("Z")));
+		String id;
+		do {
+			id = UUID.randomUUID().toString();
+		} while (jobs.containsKey(id) || Files.exists(Paths.get(uuidDirPrefix + uuidButLast + "/" + id + "-batch")));
+		Files.createDirectories(Paths.get(uuidDirPrefix + uuidButLast));
+		Path dir = Files.createDirectory(Paths.get(uuidDirPrefix + uuidButLast + "/" + id + "-batch"));
+
+		BatchJob job = new BatchJob(id, dir, coreArgs, jsonType, jsonVersion, serverInputs, tools);
+		jobs.put(id, job);
+
+		int jobThreads = Math.min(threads, job.getSize());
+		for (int i = 0; i < jobThreads; ++i) {
+			executor.execute(job::work);
+		}
+
+		logger.info("Batch {} submitted ({} entries)", id, job.getSize());
+
+		return job;
+	}
+
+	static boolean exists(String id) {
+		return jobs.containsKey(id);
+	}
+
+	static BatchJob get(String id) {
+		BatchJob job = jobs.get(id);
+		if (job == null) {
+			throw new IllegalRequestException("No batch job with id '" + id + "'");
+		}
+		return job;
+	}
+}
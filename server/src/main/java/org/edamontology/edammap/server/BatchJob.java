@@ -0,0 +1,382 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.core.Response.Status;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.benchmarking.Benchmark;
+import org.edamontology.edammap.core.benchmarking.Results;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.idf.Idf;
+import org.edamontology.edammap.core.input.ServerInput;
+import org.edamontology.edammap.core.input.json.Tool;
+import org.edamontology.edammap.core.mapping.Mapper;
+import org.edamontology.edammap.core.mapping.Mapping;
+import org.edamontology.edammap.core.output.Json;
+import org.edamontology.edammap.core.output.JsonType;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+import org.edamontology.edammap.core.processing.ConceptProcessed;
+import org.edamontology.edammap.core.processing.QueryProcessed;
+import org.edamontology.edammap.core.query.Query;
+import org.edamontology.edammap.core.query.QueryLoader;
+import org.edamontology.edammap.core.query.QueryType;
+
+import org.edamontology.pubfetcher.core.common.IllegalRequestException;
+import org.edamontology.pubfetcher.core.db.publication.Publication;
+import org.edamontology.pubfetcher.core.db.webpage.Webpage;
+
+public class BatchJob {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	static final String RESULTS_FILE = "results.ndjson";
+
+	private final Object lock = new Object();
+
+	private final String id;
+
+	private final Path dir;
+
+	private final CoreArgs coreArgs;
+
+	private final JsonType jsonType;
+
+	private final String jsonVersion;
+
+	// only one of serverInputs and tools is non-null
+	private final List<ServerInput> serverInputs;
+	private final List<Tool> tools;
+
+	private final int size;
+
+	// results are written in order of entries as soon as they are mapped, finished results of later entries wait here for earlier ones
+	private final Map<Integer, String> pending = new HashMap<>();
+
+	private BufferedWriter writer = null;
+
+	private int written = 0;
+
+	private boolean writeFailed = false;
+
+	private Map<EdamUri, ConceptProcessed> processedConcepts = null;
+
+	private int index = 0;
+
+	private int done = 0;
+
+	private int failed = 0;
+
+	private int numThreads = 0;
+
+	private BatchStatus status = BatchStatus.queued;
+
+	private final long submitted;
+
+	private long start = -1;
+
+	private long stop = -1;
+
+	BatchJob(String id, Path dir, CoreArgs coreArgs, JsonType jsonType, String jsonVersion, List<ServerInput> serverInputs, List<Tool> tools) {
+		this.id = id;
+		this.dir = dir;
+		this.coreArgs = coreArgs;
+		this.jsonType = jsonType;
+		this.jsonVersion = jsonVersion;
+		this.serverInputs = serverInputs;
+		this.tools = tools;
+		this.size = (serverInputs != null ? serverInputs.size() : tools.size());
+		this.submitted = System.currentTimeMillis();
+		if (serverInputs != null) {
+			for (int i = 0; i < serverInputs.size(); ++i) {
+				serverInputs.get(i).setId(id + "/" + (i + 1));
+			}
+		}
+	}
+
+	private static String compact(String jsonString) {
+		return javax.json.Json.createReader(new StringReader(jsonString)).readObject().toString();
+	}
+
+	private Map<EdamUri, ConceptProcessed> getProcessedConcepts(PreProcessor preProcessor) {
+		synchronized (lock) {
+			if (processedConcepts == null) {
+				logger.info("Processing {} concepts for batch {}", Server.concepts.size(), id);
+				long startConcepts = System.currentTimeMillis();
+				processedConcepts = Server.processor.getProcessedConcepts(Server.concepts,
+					coreArgs.getMapperArgs().getIdfArgs(), coreArgs.getMapperArgs().getMultiplierArgs(), preProcessor);
+				logger.info("Processing concepts for batch {} took {}s", id, (System.currentTimeMillis() - startConcepts) / 1000.0);
+			}
+			return processedConcepts;
+		}
+	}
+
+	private String map(int i, PreProcessor preProcessor, Mapper mapper, Idf idf) throws IOException {
+		long startEntry = System.currentTimeMillis();
+
+		Query query;
+		Tool tool = null;
+		if (serverInputs != null) {
+			query = QueryLoader.fromServer(serverInputs.get(i), Server.concepts, Resource.MAX_KEYWORDS_SIZE, Resource.MAX_LINKS_SIZE, Resource.MAX_PUBLICATION_IDS_SIZE);
+		} else {
+			tool = tools.get(i);
+			boolean toolMissingId = false;
+			if (tool.getBiotoolsID() == null || tool.getBiotoolsID().isEmpty()) {
+				toolMissingId = true;
+				tool.setBiotoolsID(id + "/" + (i + 1));
+			}
+			query = QueryLoader.getBiotools(tool, Server.concepts, Resource.MAX_LINKS_SIZE, Resource.MAX_PUBLICATION_IDS_SIZE, QueryType.server.name());
+			if (toolMissingId) {
+				tool.setBiotoolsID(null);
+			}
+		}
+
+		QueryProcessed processedQuery = Server.processor.getProcessedQuery(query, QueryType.server, preProcessor, idf, coreArgs.getFetcherArgs(), Server.args.getServerPrivateArgs().getFetchingThreads());
+		Resource.refreshed(processedQuery);
+
+		Mapping mapping = mapper.map(query, processedQuery, coreArgs.getMapperArgs());
+
+		List<Query> queries = Collections.singletonList(query);
+		List<List<Webpage>> webpages = Collections.singletonList(processedQuery.getWebpages());
+		List<List<Webpage>> docs = Collections.singletonList(processedQuery.getDocs());
+		List<List<Publication>> publications = Collections.singletonList(processedQuery.getPublications());
+		List<Mapping> mappings = Collections.singletonList(mapping);
+		Results results = Benchmark.calculate(queries, mappings);
+
+		long stopEntry = System.currentTimeMillis();
+
+		return compact(Json.output(coreArgs, Server.getArgsMain(false, false, false, true), null, QueryType.server, jsonType, null,
+			Server.concepts, queries, publications, webpages, docs, results, tool, startEntry, stopEntry, Server.version, jsonVersion));
+	}
+
+	private void open() throws IOException {
+		if (writer == null) {
+			writer = Files.newBufferedWriter(dir.resolve(RESULTS_FILE), StandardCharsets.UTF_8);
+		}
+	}
+
+	// called with lock held
+	private void write(int i, String result) {
+		if (writeFailed) return;
+		pending.put(i, result);
+		try {
+			open();
+			String next;
+			while ((next = pending.remove(written)) != null) {
+				writer.write(next);
+				writer.write("\n");
+				++written;
+			}
+		} catch (IOException e) {
+			logger.error("Exception!", e);
+			writeFailed = true;
+			pending.clear();
+		}
+	}
+
+	// called with lock held
+	private void finish() {
+		if (!writeFailed) {
+			// an empty results file, if there were no entries
+			try {
+				open();
+			} catch (IOException e) {
+				logger.error("Exception!", e);
+				writeFailed = true;
+			}
+		}
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				logger.error("Exception!", e);
+				writeFailed = true;
+			}
+			writer = null;
+		}
+		stop = System.currentTimeMillis();
+		if (writeFailed || written != size) {
+			status = BatchStatus.failed;
+			logger.error("Batch {} failed, as writing results failed ({} of {} entries written)", id, written, size);
+		} else {
+			status = BatchStatus.done;
+			logger.info("Batch {} done ({} entries, {} failed) in {}s", id, size, failed, (stop - start) / 1000.0);
+		}
+	}
+
+	void work() {
+		synchronized (lock) {
+			if (status == BatchStatus.queued) {
+				status = BatchStatus.running;
+				start = System.currentTimeMillis();
+				logger.info("Batch {} started ({} entries)", id, size);
+			}
+			++numThreads;
+		}
+
+		PreProcessor preProcessor = null;
+		Mapper mapper = null;
+		Idf idf = null;
+		Throwable setupException = null;
+		try {
+			preProcessor = new PreProcessor(coreArgs.getPreProcessorArgs(), Server.stopwordsAll.get(coreArgs.getPreProcessorArgs().getStopwords()));
+			mapper = new Mapper(getProcessedConcepts(preProcessor), Server.edamBlacklist);
+			if (coreArgs.getPreProcessorArgs().isStemming()) {
+				idf = Server.idfStemmed;
+			} else {
+				idf = Server.idf;
+			}
+		} catch (Throwable e) {
+			logger.error("Exception!", e);
+			setupException = e;
+		}
+
+		try {
+			while (true) {
+				int i;
+				synchronized (lock) {
+					if (index >= size) break;
+					i = index++;
+				}
+
+				String result;
+				boolean success = false;
+				try {
+					if (setupException != null) {
+						throw setupException;
+					}
+					result = map(i, preProcessor, mapper, idf);
+					success = true;
+				} catch (IllegalRequestException e) {
+					result = compact(ExceptionCommon.toJson(Status.BAD_REQUEST, e.getMessage()));
+				} catch (Throwable e) {
+					logger.error("Exception!", e);
+					result = compact(ExceptionCommon.toJson(Status.INTERNAL_SERVER_ERROR, null));
+				}
+				if (serverInputs != null) {
+					serverInputs.set(i, null);
+				} else {
+					tools.set(i, null);
+				}
+
+				synchronized (lock) {
+					write(i, result);
+					++done;
+					if (!success) {
+						++failed;
+					}
+				}
+			}
+		} finally {
+			synchronized (lock) {
+				--numThreads;
+				if (numThreads == 0 && done == size) {
+					finish();
+				}
+			}
+		}
+	}
+
+	String getId() {
+		return id;
+	}
+
+	int getSize() {
+		return size;
+	}
+
+	boolean isDone() {
+		synchronized (lock) {
+			return status == BatchStatus.done;
+		}
+	}
+
+	boolean isFailed() {
+		synchronized (lock) {
+			return status == BatchStatus.failed;
+		}
+	}
+
+	// done or failed, so no more work will be done
+	boolean isFinished() {
+		synchronized (lock) {
+			return status == BatchStatus.done || status == BatchStatus.failed;
+		}
+	}
+
+	long getStop() {
+		synchronized (lock) {
+			return stop;
+		}
+	}
+
+	Path getResultsPath() {
+		return dir.resolve(RESULTS_FILE);
+	}
+
+	String toJson(String location, String resultsLocation) {
+		StringWriter writer = new StringWriter();
+		Map<String, Object> config = new HashMap<>();
+		config.put(JsonGenerator.PRETTY_PRINTING, true);
+		JsonGenerator generator = javax.json.Json.createGeneratorFactory(config).createGenerator(writer);
+		synchronized (lock) {
+			generator.writeStartObject();
+			generator.write("success", true);
+			generator.write("id", id);
+			generator.write("status", status.name());
+			generator.write("location", location);
+			if (status == BatchStatus.done) {
+				generator.write("results", resultsLocation);
+			}
+			generator.write("size", size);
+			generator.write("done", done);
+			generator.write("failed", failed);
+			generator.write("submitted", Instant.ofEpochMilli(submitted).toString());
+			if (start > -1) {
+				generator.write("start", Instant.ofEpochMilli(start).toString());
+			}
+			if (stop > -1) {
+				generator.write("stop", Instant.ofEpochMilli(stop).toString());
+				generator.write("duration", (stop - start) / 1000.0);
+			}
+			generator.writeEnd();
+		}
+		generator.close();
+		return writer.toString();
+	}
+}
@@ -56,7 +56,9 @@ public final class ExceptionCommon {
 	}
 
 	static boolean isJson(HttpHeaders headers) {
-		boolean json = headers.getMediaType().getType().equalsIgnoreCase(MediaType.APPLICATION_JSON_TYPE.getType())
+		// GET requests have no body and thus no media type
+		boolean json = headers.getMediaType() != null
+			&& headers.getMediaType().getType().equalsIgnoreCase(MediaType.APPLICATION_JSON_TYPE.getType())
 			&& headers.getMediaType().getSubtype().equalsIgnoreCase(MediaType.APPLICATION_JSON_TYPE.getSubtype());
 		if (!json) {
 			for (MediaType mediaType : headers.getAcceptableMediaTypes()) {
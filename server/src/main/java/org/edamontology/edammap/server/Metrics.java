@@ -0,0 +1,217 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.server;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.edamontology.pubfetcher.core.db.DatabaseEntryType;
+
+import org.edamontology.edammap.core.output.Output;
+import org.edamontology.edammap.core.processing.DatabaseEntryGet;
+
+// Timings and counts of request stages, output in the Prometheus text format on /api/metrics
+public final class Metrics {
+
+	// upper bounds in seconds
+	private static final double[] BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300 };
+
+	private static final class Histogram {
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKETS.length + 1);
+		private final LongAdder sum = new LongAdder();
+		private void observe(long nanos) {
+			double seconds = nanos / 1000000000.0;
+			int i = 0;
+			while (i < BUCKETS.length && seconds > BUCKETS[i]) {
+				++i;
+			}
+			counts.incrementAndGet(i);
+			sum.add(nanos);
+		}
+		private void write(StringBuilder sb, String name, String labels) {
+			long count = 0;
+			for (int i = 0; i <= BUCKETS.length; ++i) {
+				count += counts.get(i);
+				sb.append(name).append("_bucket{").append(labels).append(labels.isEmpty() ? "" : ",")
+					.append("le=\"").append(i < BUCKETS.length ? number(BUCKETS[i]) : "+Inf").append("\"} ").append(count).append('\n');
+			}
+			String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+			sb.append(name).append("_sum").append(braces).append(' ').append(number(sum.sum() / 1000000000.0)).append('\n');
+			sb.append(name).append("_count").append(braces).append(' ').append(count).append('\n');
+		}
+	}
+
+	private static final Histogram concepts = new Histogram();
+	private static final Histogram query = new Histogram();
+	private static final Map<DatabaseEntryType, Histogram> fetch = new EnumMap<>(DatabaseEntryType.class);
+	private static final Histogram mapping = new Histogram();
+	private static final Map<String, Histogram> output = new LinkedHashMap<>();
+	private static final Histogram request = new Histogram();
+
+	private static final LongAdder resultCacheHits = new LongAdder();
+	private static final LongAdder resultCacheMisses = new LongAdder();
+	private static final LongAdder negativeCacheHits = new LongAdder();
+	private static final Map<DatabaseEntryType, LongAdder> fetchFailures = new EnumMap<>(DatabaseEntryType.class);
+	private static final LongAdder rejected = new LongAdder();
+	private static final LongAdder timedOut = new LongAdder();
+
+	static {
+		for (DatabaseEntryType type : DatabaseEntryType.values()) {
+			fetch.put(type, new Histogram());
+			fetchFailures.put(type, new LongAdder());
+		}
+		// "response" is the JSON returned in the response body, the rest are the result files
+		for (String o : new String[] { "txt", "html", "json", "response" }) {
+			output.put(o, new Histogram());
+		}
+	}
+
+	private Metrics() {}
+
+	static void concepts(long nanos) {
+		concepts.observe(nanos);
+	}
+
+	static void query(long nanos) {
+		query.observe(nanos);
+	}
+
+	static void mapping(long nanos) {
+		mapping.observe(nanos);
+	}
+
+	static void output(String o, long nanos) {
+		Histogram histogram = output.get(o);
+		if (histogram != null) {
+			histogram.observe(nanos);
+		}
+	}
+
+	static void request(long nanos) {
+		request.observe(nanos);
+	}
+
+	static void resultCache(boolean hit) {
+		if (hit) {
+			resultCacheHits.increment();
+		} else {
+			resultCacheMisses.increment();
+		}
+	}
+
+	static void rejected() {
+		rejected.increment();
+	}
+
+	static void timedOut() {
+		timedOut.increment();
+	}
+
+	static final Output.Listener outputListener = Metrics::output;
+
+	static final DatabaseEntryGet.Listener databaseEntryListener = new DatabaseEntryGet.Listener() {
+		@Override
+		public void got(DatabaseEntryType type, long time, String error) {
+			fetch.get(type).observe(time);
+			if (error != null) {
+				fetchFailures.get(type).increment();
+			}
+		}
+		@Override
+		public void skipped(DatabaseEntryType type) {
+			negativeCacheHits.increment();
+		}
+	};
+
+	private static String number(double value) {
+		if (value == Math.rint(value) && !Double.isInfinite(value)) {
+			return String.valueOf((long) value);
+		}
+		return Double.toString(value);
+	}
+
+	private static void header(StringBuilder sb, String name, String type, String help) {
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	// one sample line of a counter or gauge, whose type is given in its header
+	private static void sample(StringBuilder sb, String name, String labels, long value) {
+		sb.append(name);
+		if (!labels.isEmpty()) {
+			sb.append('{').append(labels).append('}');
+		}
+		sb.append(' ').append(value).append('\n');
+	}
+
+	static String toPrometheus() {
+		StringBuilder sb = new StringBuilder();
+
+		header(sb, "edammap_concepts_processing_seconds", "histogram", "Time of processing EDAM concepts for a request");
+		concepts.write(sb, "edammap_concepts_processing_seconds", "");
+
+		header(sb, "edammap_query_loading_seconds", "histogram", "Time of loading a query, including getting its webpages, docs and publications");
+		query.write(sb, "edammap_query_loading_seconds", "");
+
+		header(sb, "edammap_fetch_seconds", "histogram", "Time of getting one database entry, from the database or by fetching");
+		for (Map.Entry<DatabaseEntryType, Histogram> entry : fetch.entrySet()) {
+			entry.getValue().write(sb, "edammap_fetch_seconds", "type=\"" + entry.getKey() + "\"");
+		}
+
+		header(sb, "edammap_mapping_seconds", "histogram", "Time of mapping a query to EDAM concepts");
+		mapping.write(sb, "edammap_mapping_seconds", "");
+
+		header(sb, "edammap_output_seconds", "histogram", "Time of writing one output of the results");
+		for (Map.Entry<String, Histogram> entry : output.entrySet()) {
+			entry.getValue().write(sb, "edammap_output_seconds", "output=\"" + entry.getKey() + "\"");
+		}
+
+		header(sb, "edammap_request_seconds", "histogram", "Total time of a mapping request, from receiving to having the response");
+		request.write(sb, "edammap_request_seconds", "");
+
+		header(sb, "edammap_cache_hits_total", "counter", "Number of requests answered from the result cache and of entries not fetched because of the negative cache");
+		sample(sb, "edammap_cache_hits_total", "cache=\"result\"", resultCacheHits.sum());
+		sample(sb, "edammap_cache_hits_total", "cache=\"negative\"", negativeCacheHits.sum());
+
+		header(sb, "edammap_cache_misses_total", "counter", "Number of requests not found in the result cache");
+		sample(sb, "edammap_cache_misses_total", "cache=\"result\"", resultCacheMisses.sum());
+
+		header(sb, "edammap_fetch_failures_total", "counter", "Number of database entries got as missing, broken or unusable, or failing with an exception");
+		for (Map.Entry<DatabaseEntryType, LongAdder> entry : fetchFailures.entrySet()) {
+			sample(sb, "edammap_fetch_failures_total", "type=\"" + entry.getKey() + "\"", entry.getValue().sum());
+		}
+
+		header(sb, "edammap_rejected_requests_total", "counter", "Number of requests rejected because of a full worker pool queue");
+		sample(sb, "edammap_rejected_requests_total", "", rejected.sum());
+
+		header(sb, "edammap_timed_out_requests_total", "counter", "Number of requests with a stage that ran out of its time budget");
+		sample(sb, "edammap_timed_out_requests_total", "", timedOut.sum());
+
+		header(sb, "edammap_overrunning_workers", "gauge", "Number of worker threads still busy with a stage that ran out of its time budget");
+		sample(sb, "edammap_overrunning_workers", "pool=\"mapping\"", WorkerPools.getOverrunningMapping());
+		sample(sb, "edammap_overrunning_workers", "pool=\"io\"", WorkerPools.getOverrunningIo());
+
+		return sb.toString();
+	}
+}
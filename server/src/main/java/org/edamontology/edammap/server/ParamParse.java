@@ -189,6 +189,20 @@ public final class ParamParse {
 		}
 	}
 
+	static List<Arg<?, ?>> getArgs(CoreArgs args) {
+		List<Arg<?, ?>> argsList = new ArrayList<>();
+		argsList.addAll(args.getPreProcessorArgs().getArgs());
+		argsList.addAll(args.getFetcherArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getAlgorithmArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getIdfArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getMultiplierArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getNormaliserArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getWeightArgs().getArgs());
+		argsList.addAll(args.getMapperArgs().getScoreArgs().getArgs());
+		return argsList;
+	}
+
 	static void parseParams(MultivaluedMap<String, String> params, CoreArgs args, boolean json) {
 		if (params == null || params.isEmpty()) {
 			if (params == null) {
@@ -197,31 +211,7 @@ public final class ParamParse {
 			return;
 		}
 
-		for (Arg<?, ?> arg : args.getPreProcessorArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getFetcherArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getAlgorithmArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getIdfArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getMultiplierArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getNormaliserArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getWeightArgs().getArgs()) {
-			param(params, arg, json);
-		}
-		for (Arg<?, ?> arg : args.getMapperArgs().getScoreArgs().getArgs()) {
+		for (Arg<?, ?> arg : getArgs(args)) {
 			param(params, arg, json);
 		}
 	}
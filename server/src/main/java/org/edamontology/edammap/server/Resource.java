@@ -19,6 +19,7 @@
 
 package org.edamontology.edammap.server;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -30,10 +31,14 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.json.JsonArray;
@@ -41,16 +46,21 @@ import javax.json.JsonNumber;
 import javax.json.JsonObject;
 import javax.json.JsonString;
 import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.logging.log4j.LogManager;
@@ -58,9 +68,14 @@ import org.apache.logging.log4j.Logger;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.util.Header;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.edamontology.edammap.core.args.ArgMain;
 import org.edamontology.edammap.core.args.CoreArgs;
 import org.edamontology.edammap.core.benchmarking.Benchmark;
 import org.edamontology.edammap.core.benchmarking.Results;
+import org.edamontology.edammap.core.edam.Concept;
 import org.edamontology.edammap.core.edam.EdamUri;
 import org.edamontology.edammap.core.idf.Idf;
 import org.edamontology.edammap.core.input.DatabaseEntryId;
@@ -79,8 +94,10 @@ import org.edamontology.edammap.core.query.Query;
 import org.edamontology.edammap.core.query.QueryLoader;
 import org.edamontology.edammap.core.query.QueryType;
 
+import org.edamontology.pubfetcher.core.common.Arg;
 import org.edamontology.pubfetcher.core.common.FetcherArgs;
 import org.edamontology.pubfetcher.core.common.IllegalRequestException;
+import org.edamontology.pubfetcher.core.db.DatabaseEntry;
 import org.edamontology.pubfetcher.core.db.DatabaseEntryType;
 import org.edamontology.pubfetcher.core.db.publication.Publication;
 import org.edamontology.pubfetcher.core.db.webpage.Webpage;
@@ -97,21 +114,121 @@ public class Resource {
 	static final int MAX_PUBLICATION_IDS_LENGTH = 10000;
 	static final int MAX_ANNOTATIONS_LENGTH = 10000;
 
-	private static final int MAX_KEYWORDS_SIZE = 100;
-	private static final int MAX_LINKS_SIZE = 10;
-	private static final int MAX_PUBLICATION_IDS_SIZE = 10;
+	static final int MAX_KEYWORDS_SIZE = 100;
+	static final int MAX_LINKS_SIZE = 10;
+	static final int MAX_PUBLICATION_IDS_SIZE = 10;
 
 	private static final int MAX_JSON_TOOL_LENGTH = 1000000;
 
-	private class PostResult {
-		private final String jsonString;
+	private static final int JSON_RESPONSE_SIZE = 64 * 1024;
+
+	private static final int MAX_BATCH_SIZE = 10000;
+
+	private static final String BATCH_TOOLS = "tools";
+	private static final String BATCH_INPUTS = "inputs";
+	private static final String BATCH_RESULTS_TYPE = "application/x-ndjson";
+
+	private static final String METRICS_TYPE = "text/plain;version=0.0.4;charset=utf-8";
+
+	private static class PostResult {
+		// UTF-8 encoded, as written to the response, if the result is cached
+		private final byte[] json;
+		// otherwise the JSON is written directly to the response
+		private final StreamingOutput jsonStream;
 		private final URI htmlLocation;
-		private PostResult(String jsonString, URI htmlLocation) {
-			this.jsonString = jsonString;
+		private PostResult(byte[] json, StreamingOutput jsonStream, URI htmlLocation) {
+			this.json = json;
+			this.jsonStream = jsonStream;
 			this.htmlLocation = htmlLocation;
 		}
 	}
 
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private static ResultCache<PostResult> resultCache = new ResultCache<>(0, 0);
+
+	private class Post {
+		private MultivaluedMap<String, String> params;
+		private Tool tool;
+		private boolean isJson;
+		private long start;
+		private long startNanos;
+		private String jsonVersion;
+		private CoreArgs coreArgs;
+		private boolean txt;
+		private boolean html;
+		private boolean json;
+		private String cacheKey;
+		private PostResult cached;
+		private String uuid;
+		private String txtOutput;
+		private String htmlOutput;
+		private String jsonOutput;
+		private Output output;
+		private PreProcessor preProcessor;
+		private Query query;
+		private Idf idf;
+		private URI baseLocation;
+		private QueryProcessed processedQuery;
+		private Mapping mapping;
+		private Results results;
+	}
+
+	static void initCache(ServerPrivateArgs privateArgs) {
+		long ttl = privateArgs.getCacheTtl();
+		// cached results must not point to results directories deleted in the meantime
+		long resultsAge = TimeUnit.DAYS.toSeconds(privateArgs.getResultsAge());
+		if (resultsAge > 0 && (ttl == 0 || ttl > resultsAge)) {
+			ttl = resultsAge;
+		}
+		resultCache = new ResultCache<>(privateArgs.getCacheSize(), ttl);
+	}
+
+	static void writeCache(JsonGenerator generator) {
+		resultCache.write(generator, "cache");
+	}
+
+	static void refreshed(QueryProcessed processedQuery) {
+		for (DatabaseEntry<?> entry : getEntries(processedQuery)) {
+			resultCache.refreshed(entry.toStringId(), entry.getFetchTime());
+		}
+	}
+
+	private static List<DatabaseEntry<?>> getEntries(QueryProcessed processedQuery) {
+		List<DatabaseEntry<?>> entries = new ArrayList<>();
+		for (Webpage webpage : processedQuery.getWebpages()) {
+			if (webpage != null) entries.add(webpage);
+		}
+		for (Webpage doc : processedQuery.getDocs()) {
+			if (doc != null) entries.add(doc);
+		}
+		for (Publication publication : processedQuery.getPublications()) {
+			if (publication != null) entries.add(publication);
+		}
+		return entries;
+	}
+
+	// identical input and effective arguments give an identical key
+	private static String getCacheKey(Post post, ServerInput serverInput) throws JsonProcessingException {
+		StringBuilder sb = new StringBuilder();
+		sb.append(post.isJson).append('\n');
+		sb.append(post.txt).append(' ').append(post.html).append(' ').append(post.json).append('\n');
+		sb.append(post.isJson ? getJsonType(post.params) : "").append(' ').append(post.jsonVersion).append('\n');
+		sb.append(post.baseLocation).append('\n');
+		if (serverInput != null) {
+			for (String field : new String[] { serverInput.getName(), serverInput.getKeywords(), serverInput.getDescription(),
+					serverInput.getWebpageUrls(), serverInput.getDocUrls(), serverInput.getPublicationIds(), serverInput.getAnnotations() }) {
+				sb.append(field != null ? field.trim() : "").append('\n');
+			}
+		} else {
+			sb.append(mapper.writeValueAsString(post.tool)).append('\n');
+		}
+		for (Arg<?, ?> arg : ParamParse.getArgs(post.coreArgs)) {
+			sb.append(arg.getId()).append('=').append(arg.getValue()).append('\n');
+		}
+		return ResultCache.digest(sb.toString());
+	}
+
 	static String runGet(MultivaluedMap<String, String> params, Request request) {
 		try {
 			logger.info("GET {} from {}", params, request.getRemoteAddr());
@@ -142,13 +259,7 @@ public class Resource {
 		return Response.ok(responseText).header(Header.ContentLength.toString(), responseText.getBytes().length).build();
 	}
 
-	private PostResult runPost(MultivaluedMap<String, String> params, Tool tool, Request request, boolean isJson) throws IOException, URISyntaxException {
-		logger.info("POST {} from {}", params, request.getRemoteAddr());
-
-		long start = System.currentTimeMillis();
-		Instant startInstant = Instant.ofEpochMilli(start);
-		logger.info("Start: {}", startInstant);
-
+	private static String getJsonVersion(MultivaluedMap<String, String> params, boolean isJson) {
 		String jsonVersion = null;
 		if (isJson) {
 			if ((jsonVersion = ParamParse.getParamString(params, Server.VERSION_ID)) != null) {
@@ -161,6 +272,72 @@ public class Resource {
 		} else {
 			jsonVersion = "1";
 		}
+		return jsonVersion;
+	}
+
+	private static JsonType getJsonType(MultivaluedMap<String, String> params) {
+		JsonType jsonType = JsonType.core;
+		Enum<?> valueEnum;
+		if ((valueEnum = ParamParse.getParamEnum(params, Json.TYPE_ID, JsonType.class, true)) != null) {
+			if ((JsonType) valueEnum == JsonType.full) {
+				jsonType = JsonType.full;
+			}
+		}
+		return jsonType;
+	}
+
+	private static URI getBaseLocation(Request request) throws URISyntaxException {
+		return new URI(Server.args.getServerPrivateArgs().isHttpsProxy() ? "https" : request.getScheme(), null, request.getServerName(), Server.args.getServerPrivateArgs().isHttpsProxy() ? 443 : request.getServerPort(), null, null, null);
+	}
+
+	static void checkServerInput(ServerInput serverInput) {
+		if (serverInput.getName() != null && serverInput.getName().length() > MAX_NAME_LENGTH) {
+			throw new IllegalRequestException("Name length (" + serverInput.getName().length() + ") is greater than maximum allowed (" + MAX_NAME_LENGTH + ")");
+		}
+		if (serverInput.getKeywords() != null && serverInput.getKeywords().length() > MAX_KEYWORDS_LENGTH) {
+			throw new IllegalRequestException("Keywords length (" + serverInput.getKeywords().length() + ") is greater than maximum allowed (" + MAX_KEYWORDS_LENGTH + ")");
+		}
+		if (serverInput.getDescription() != null && serverInput.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+			throw new IllegalRequestException("Description length (" + serverInput.getDescription().length() + ") is greater than maximum allowed (" + MAX_DESCRIPTION_LENGTH + ")");
+		}
+		if (serverInput.getWebpageUrls() != null && serverInput.getWebpageUrls().length() > MAX_LINKS_LENGTH) {
+			throw new IllegalRequestException("Webpage URLs length (" + serverInput.getWebpageUrls().length() + ") is greater than maximum allowed (" + MAX_LINKS_LENGTH + ")");
+		}
+		if (serverInput.getDocUrls() != null && serverInput.getDocUrls().length() > MAX_LINKS_LENGTH) {
+			throw new IllegalRequestException("Doc URLs length (" + serverInput.getDocUrls().length() + ") is greater than maximum allowed (" + MAX_LINKS_LENGTH + ")");
+		}
+		if (serverInput.getPublicationIds() != null && serverInput.getPublicationIds().length() > MAX_PUBLICATION_IDS_LENGTH) {
+			throw new IllegalRequestException("Publication IDs length (" + serverInput.getPublicationIds().length() + ") is greater than maximum allowed (" + MAX_PUBLICATION_IDS_LENGTH + ")");
+		}
+		if (serverInput.getAnnotations() != null && serverInput.getAnnotations().length() > MAX_ANNOTATIONS_LENGTH) {
+			throw new IllegalRequestException("Annotations length (" + serverInput.getAnnotations().length() + ") is greater than maximum allowed (" + MAX_ANNOTATIONS_LENGTH + ")");
+		}
+	}
+
+	static void checkTool(Tool tool) {
+		if (tool.getName() != null && tool.getName().length() > MAX_NAME_LENGTH) {
+			throw new IllegalRequestException("Name length (" + tool.getName().length() + ") is greater than maximum allowed (" + MAX_NAME_LENGTH + ")");
+		}
+		if (tool.getDescription() != null && tool.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+			throw new IllegalRequestException("Description length (" + tool.getDescription().length() + ") is greater than maximum allowed (" + MAX_DESCRIPTION_LENGTH + ")");
+		}
+	}
+
+	private Post preparePost(MultivaluedMap<String, String> params, Tool tool, Request request, boolean isJson) throws IOException, URISyntaxException {
+		logger.info("POST {} from {}", params, request.getRemoteAddr());
+
+		long start = System.currentTimeMillis();
+		Instant startInstant = Instant.ofEpochMilli(start);
+		logger.info("Start: {}", startInstant);
+
+		Post post = new Post();
+		post.params = params;
+		post.tool = tool;
+		post.isJson = isJson;
+		post.start = start;
+		post.startNanos = System.nanoTime();
+		post.jsonVersion = getJsonVersion(params, isJson);
+		post.baseLocation = getBaseLocation(request);
 
 		CoreArgs coreArgs = new CoreArgs();
 		ParamParse.parseParams(params, coreArgs, isJson);
@@ -208,34 +385,22 @@ public class Resource {
 		}
 
 		if (serverInput != null) {
-			if (serverInput.getName() != null && serverInput.getName().length() > MAX_NAME_LENGTH) {
-				throw new IllegalRequestException("Name length (" + serverInput.getName().length() + ") is greater than maximum allowed (" + MAX_NAME_LENGTH + ")");
-			}
-			if (serverInput.getKeywords() != null && serverInput.getKeywords().length() > MAX_KEYWORDS_LENGTH) {
-				throw new IllegalRequestException("Keywords length (" + serverInput.getKeywords().length() + ") is greater than maximum allowed (" + MAX_KEYWORDS_LENGTH + ")");
-			}
-			if (serverInput.getDescription() != null && serverInput.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
-				throw new IllegalRequestException("Description length (" + serverInput.getDescription().length() + ") is greater than maximum allowed (" + MAX_DESCRIPTION_LENGTH + ")");
-			}
-			if (serverInput.getWebpageUrls() != null && serverInput.getWebpageUrls().length() > MAX_LINKS_LENGTH) {
-				throw new IllegalRequestException("Webpage URLs length (" + serverInput.getWebpageUrls().length() + ") is greater than maximum allowed (" + MAX_LINKS_LENGTH + ")");
-			}
-			if (serverInput.getDocUrls() != null && serverInput.getDocUrls().length() > MAX_LINKS_LENGTH) {
-				throw new IllegalRequestException("Doc URLs length (" + serverInput.getDocUrls().length() + ") is greater than maximum allowed (" + MAX_LINKS_LENGTH + ")");
-			}
-			if (serverInput.getPublicationIds() != null && serverInput.getPublicationIds().length() > MAX_PUBLICATION_IDS_LENGTH) {
-				throw new IllegalRequestException("Publication IDs length (" + serverInput.getPublicationIds().length() + ") is greater than maximum allowed (" + MAX_PUBLICATION_IDS_LENGTH + ")");
-			}
-			if (serverInput.getAnnotations() != null && serverInput.getAnnotations().length() > MAX_ANNOTATIONS_LENGTH) {
-				throw new IllegalRequestException("Annotations length (" + serverInput.getAnnotations().length() + ") is greater than maximum allowed (" + MAX_ANNOTATIONS_LENGTH + ")");
-			}
+			checkServerInput(serverInput);
 		} else {
-			if (tool.getName() != null && tool.getName().length() > MAX_NAME_LENGTH) {
-				throw new IllegalRequestException("Name length (" + tool.getName().length() + ") is greater than maximum allowed (" + MAX_NAME_LENGTH + ")");
-			}
-			if (tool.getDescription() != null && tool.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
-				throw new IllegalRequestException("Description length (" + tool.getDescription().length() + ") is greater than maximum allowed (" + MAX_DESCRIPTION_LENGTH + ")");
-			}
+			checkTool(tool);
+		}
+
+		post.coreArgs = coreArgs;
+		post.txt = txt;
+		post.html = html;
+		post.json = json;
+
+		post.cacheKey = getCacheKey(post, serverInput);
+		post.cached = resultCache.get(post.cacheKey);
+		Metrics.resultCache(post.cached != null);
+		if (post.cached != null) {
+			logger.info("Returning cached result");
+			return post;
 		}
 
 		String uuidDirPrefix = Server.args.getServerPrivateArgs().getFiles() + "/";
@@ -258,76 +423,101 @@ public class Resource {
 			tool.setBiotoolsID(uuid);
 		}
 		logger.info("UUID: {}", uuid);
+		post.uuid = uuid;
 
-		String txtOutput = (txt ? uuid + "/results.txt" : null);
-		String htmlOutput = (html ? uuid + "/" : null);
-		String jsonOutput = (json ? uuid + "/results.json" : null);
-		Output output = new Output(
-			txtOutput != null ? uuidDirPrefix + txtOutput : null,
-			htmlOutput != null ? uuidDirPrefix + htmlOutput : null,
-			jsonOutput != null ? uuidDirPrefix + jsonOutput : null, null, QueryType.server, true);
+		post.txtOutput = (txt ? uuid + "/results.txt" : null);
+		post.htmlOutput = (html ? uuid + "/" : null);
+		post.jsonOutput = (json ? uuid + "/results.json" : null);
+		post.output = new Output(
+			post.txtOutput != null ? uuidDirPrefix + post.txtOutput : null,
+			post.htmlOutput != null ? uuidDirPrefix + post.htmlOutput : null,
+			post.jsonOutput != null ? uuidDirPrefix + post.jsonOutput : null, null, null, QueryType.server, true);
+		post.output.setListener(Metrics.outputListener);
 
-		PreProcessor preProcessor = new PreProcessor(coreArgs.getPreProcessorArgs(), Server.stopwordsAll.get(coreArgs.getPreProcessorArgs().getStopwords()));
-
-		logger.info("Processing {} concepts", Server.concepts.size());
-		long startConcepts = System.currentTimeMillis();
-
-		Map<EdamUri, ConceptProcessed> processedConcepts = Server.processor.getProcessedConcepts(Server.concepts,
-			coreArgs.getMapperArgs().getIdfArgs(), coreArgs.getMapperArgs().getMultiplierArgs(), preProcessor);
-
-		logger.info("Processing concepts took {}s", (System.currentTimeMillis() - startConcepts) / 1000.0);
+		post.preProcessor = new PreProcessor(coreArgs.getPreProcessorArgs(), Server.stopwordsAll.get(coreArgs.getPreProcessorArgs().getStopwords()));
 
 		logger.info("Loading query");
-		long startQuery = System.currentTimeMillis();
 
-		Query query;
 		if (serverInput != null) {
-			query = QueryLoader.fromServer(serverInput, Server.concepts, MAX_KEYWORDS_SIZE, MAX_LINKS_SIZE, MAX_PUBLICATION_IDS_SIZE);
+			post.query = QueryLoader.fromServer(serverInput, Server.concepts, MAX_KEYWORDS_SIZE, MAX_LINKS_SIZE, MAX_PUBLICATION_IDS_SIZE);
 		} else {
-			query = QueryLoader.getBiotools(tool, Server.concepts, MAX_LINKS_SIZE, MAX_PUBLICATION_IDS_SIZE, QueryType.server.name());
+			post.query = QueryLoader.getBiotools(tool, Server.concepts, MAX_LINKS_SIZE, MAX_PUBLICATION_IDS_SIZE, QueryType.server.name());
 			if (toolMissingId) {
 				tool.setBiotoolsID(null);
 			}
 		}
 
-		Idf idf;
 		if (coreArgs.getPreProcessorArgs().isStemming()) {
-			idf = Server.idfStemmed;
+			post.idf = Server.idfStemmed;
 		} else {
-			idf = Server.idf;
+			post.idf = Server.idf;
 		}
 
-		QueryProcessed processedQuery = Server.processor.getProcessedQuery(query, QueryType.server, preProcessor, idf, coreArgs.getFetcherArgs(), Server.args.getServerPrivateArgs().getFetchingThreads());
+		return post;
+	}
+
+	private Post fetch(Post post) throws IOException {
+		long startQuery = System.currentTimeMillis();
+		long startQueryNanos = System.nanoTime();
+
+		post.processedQuery = Server.processor.getProcessedQuery(post.query, QueryType.server, post.preProcessor, post.idf, post.coreArgs.getFetcherArgs(), Server.args.getServerPrivateArgs().getFetchingThreads());
+		refreshed(post.processedQuery);
+
+		Metrics.query(System.nanoTime() - startQueryNanos);
 
 		logger.info("Loading query took {}s", (System.currentTimeMillis() - startQuery) / 1000.0);
 
+		return post;
+	}
+
+	private Post map(Post post) {
+		logger.info("Processing {} concepts", Server.concepts.size());
+		long startConcepts = System.currentTimeMillis();
+		long startConceptsNanos = System.nanoTime();
+
+		Map<EdamUri, ConceptProcessed> processedConcepts = Server.processor.getProcessedConcepts(Server.concepts,
+			post.coreArgs.getMapperArgs().getIdfArgs(), post.coreArgs.getMapperArgs().getMultiplierArgs(), post.preProcessor);
+
+		Metrics.concepts(System.nanoTime() - startConceptsNanos);
+
+		logger.info("Processing concepts took {}s", (System.currentTimeMillis() - startConcepts) / 1000.0);
+
 		logger.info("Mapping query");
 		long startMapping = System.currentTimeMillis();
+		long startMappingNanos = System.nanoTime();
+
+		post.mapping = new Mapper(processedConcepts, Server.edamBlacklist).map(post.query, post.processedQuery, post.coreArgs.getMapperArgs());
 
-		Mapping mapping = new Mapper(processedConcepts, Server.edamBlacklist).map(query, processedQuery, coreArgs.getMapperArgs());
+		List<Query> queries = Collections.singletonList(post.query);
+		List<Mapping> mappings = Collections.singletonList(post.mapping);
+		post.results = Benchmark.calculate(queries, mappings);
 
-		List<Query> queries = Collections.singletonList(query);
-		List<List<Webpage>> webpages = Collections.singletonList(processedQuery.getWebpages());
-		List<List<Webpage>> docs = Collections.singletonList(processedQuery.getDocs());
-		List<List<Publication>> publications = Collections.singletonList(processedQuery.getPublications());
-		List<Mapping> mappings = Collections.singletonList(mapping);
-		Results results = Benchmark.calculate(queries, mappings);
+		Metrics.mapping(System.nanoTime() - startMappingNanos);
 
 		logger.info("Mapping query took {}s", (System.currentTimeMillis() - startMapping) / 1000.0);
 
-		URI baseLocation = new URI(Server.args.getServerPrivateArgs().isHttpsProxy() ? "https" : request.getScheme(), null, request.getServerName(), Server.args.getServerPrivateArgs().isHttpsProxy() ? 443 : request.getServerPort(), null, null, null);
+		return post;
+	}
+
+	private PostResult output(Post post) throws IOException, URISyntaxException {
+		List<Query> queries = Collections.singletonList(post.query);
+		List<List<Webpage>> webpages = Collections.singletonList(post.processedQuery.getWebpages());
+		List<List<Webpage>> docs = Collections.singletonList(post.processedQuery.getDocs());
+		List<List<Publication>> publications = Collections.singletonList(post.processedQuery.getPublications());
+
+		URI baseLocation = post.baseLocation;
 		URI apiLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/api", null, null);
 		URI txtLocation = null;
-		if (txtOutput != null) {
-			txtLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/" + txtOutput, null, null);
+		if (post.txtOutput != null) {
+			txtLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/" + post.txtOutput, null, null);
 		}
 		URI htmlLocation = null;
-		if (htmlOutput != null) {
-			htmlLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/" + htmlOutput, null, null);
+		if (post.htmlOutput != null) {
+			htmlLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/" + post.htmlOutput, null, null);
 		}
 		URI jsonLocation = null;
-		if (jsonOutput != null) {
-			jsonLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/" + jsonOutput, null, null);
+		if (post.jsonOutput != null) {
+			jsonLocation = new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/" + post.jsonOutput, null, null);
 		}
 
 		Map<String, String> jsonFields = new LinkedHashMap<>();
@@ -338,47 +528,98 @@ public class Resource {
 
 		long stop = System.currentTimeMillis();
 		logger.info("Stop: {}", Instant.ofEpochMilli(stop));
-		logger.info("Total time is {}s", (stop - start) / 1000.0);
+		logger.info("Total time is {}s", (stop - post.start) / 1000.0);
 
 		logger.info("Outputting results");
 
-		output.output(coreArgs, Server.getArgsMain(false, txt, html, json), null, jsonFields, 1, 1,
-			Server.concepts, queries, webpages, docs, publications, results, tool, start, stop, Server.version, jsonVersion);
-
-		String jsonString = null;
-		if (isJson) {
-			JsonType jsonType = JsonType.core;
-			Enum<?> valueEnum;
-			if ((valueEnum = ParamParse.getParamEnum(params, Json.TYPE_ID, JsonType.class, isJson)) != null) {
-				if ((JsonType) valueEnum == JsonType.full) {
-					jsonType = JsonType.full;
-				}
+		// files are written after the response, a GET of them will wait until that is done
+		ResultFiles.write(post.uuid, Server.args.getServerPrivateArgs().getOutputTimeout(), () -> {
+			post.output.output(post.coreArgs, Server.getArgsMain(false, post.txt, post.html, post.json), null, jsonFields, 1, 1,
+				Server.concepts, queries, webpages, docs, publications, post.results, post.tool, post.start, stop, Server.version, post.jsonVersion);
+			return null;
+		});
+
+		byte[] json = null;
+		StreamingOutput jsonStream = null;
+		if (post.isJson) {
+			JsonType jsonType = getJsonType(post.params);
+			List<ArgMain> argsMain = Server.getArgsMain(false, post.txt, post.html, post.json);
+			if (resultCache.isEnabled()) {
+				// kept for the result cache, so written to bytes once instead of through a String
+				long startResponse = System.nanoTime();
+				ByteArrayOutputStream os = new ByteArrayOutputStream(JSON_RESPONSE_SIZE);
+				Json.output(post.coreArgs, argsMain, jsonFields, QueryType.server, jsonType, os,
+					Server.concepts, queries, publications, webpages, docs, post.results, post.tool, post.start, stop, Server.version, post.jsonVersion);
+				json = os.toByteArray();
+				Metrics.output("response", System.nanoTime() - startResponse);
+			} else {
+				jsonStream = os -> {
+					long startResponse = System.nanoTime();
+					Json.output(post.coreArgs, argsMain, jsonFields, QueryType.server, jsonType, os,
+						Server.concepts, queries, publications, webpages, docs, post.results, post.tool, post.start, stop, Server.version, post.jsonVersion);
+					Metrics.output("response", System.nanoTime() - startResponse);
+				};
 			}
-			jsonString = Json.output(coreArgs, Server.getArgsMain(false, txt, html, json), jsonFields, QueryType.server, jsonType, null,
-				Server.concepts, queries, publications, webpages, docs, results, tool, start, stop, Server.version, jsonVersion);
 		}
 
-		if (isJson) {
+		if (post.isJson) {
 			logger.info("POSTED JSON {}", jsonLocation);
 		} else {
 			logger.info("POSTED {}", htmlLocation);
 		}
 
-		return new PostResult(jsonString, htmlLocation);
+		PostResult postResult = new PostResult(json, jsonStream, htmlLocation);
+		if (resultCache.isEnabled()) {
+			Map<String, Long> ids = new HashMap<>();
+			for (DatabaseEntry<?> entry : getEntries(post.processedQuery)) {
+				ids.put(entry.toStringId(), entry.getFetchTime());
+			}
+			resultCache.put(post.cacheKey, postResult, ids);
+		}
+
+		return postResult;
+	}
+
+	// fetching, mapping and output are run on the worker pools, each stage within its own time budget
+	private CompletableFuture<PostResult> runPost(MultivaluedMap<String, String> params, Tool tool, Request request, boolean isJson) throws IOException, URISyntaxException {
+		Post post = preparePost(params, tool, request, isJson);
+		if (post.cached != null) {
+			Metrics.request(System.nanoTime() - post.startNanos);
+			return CompletableFuture.completedFuture(post.cached);
+		}
+		ServerPrivateArgs privateArgs = Server.args.getServerPrivateArgs();
+		return WorkerPools.ioStage("fetching", privateArgs.getFetchingTimeout(), () -> fetch(post))
+			.thenCompose(p -> WorkerPools.mappingStage("mapping", privateArgs.getMappingTimeout(), () -> map(p)))
+			.thenCompose(p -> WorkerPools.outputStage("output", privateArgs.getOutputTimeout(), () -> output(p)))
+			.whenComplete((r, e) -> Metrics.request(System.nanoTime() - post.startNanos));
+	}
+
+	private static void resume(AsyncResponse asyncResponse, Throwable e) {
+		if (e instanceof CompletionException && e.getCause() != null) {
+			e = e.getCause();
+		}
+		logger.error("Exception!", e);
+		asyncResponse.resume(e);
 	}
 
 	@POST
 	@Consumes(MediaType.APPLICATION_FORM_URLENCODED)
-	public Response post(MultivaluedMap<String, String> params, @Context Request request) throws IOException, URISyntaxException {
+	public void post(MultivaluedMap<String, String> params, @Suspended AsyncResponse asyncResponse, @Context Request request) throws IOException, URISyntaxException {
 		try {
-			return Response.seeOther(runPost(params, null, request, false).htmlLocation).build();
+			runPost(params, null, request, false).whenComplete((postResult, e) -> {
+				if (e != null) {
+					resume(asyncResponse, e);
+				} else {
+					asyncResponse.resume(Response.seeOther(postResult.htmlLocation).build());
+				}
+			});
 		} catch (Throwable e) {
 			logger.error("Exception!", e);
 			throw e;
 		}
 	}
 
-	private String toJsonString(JsonValue jsonValue) {
+	private static String toJsonString(JsonValue jsonValue) {
 		if (jsonValue == null) return "";
 		switch (jsonValue.getValueType()) {
 			case STRING: return ((JsonString) jsonValue).getString();
@@ -389,7 +630,7 @@ public class Resource {
 		}
 	}
 
-	private MultivaluedHashMap<String, String> parseJson(JsonObject json) {
+	static MultivaluedHashMap<String, String> parseJson(JsonObject json) {
 		return json.entrySet().stream()
 			.collect(Collectors.toMap(Map.Entry::getKey, e -> {
 				switch (e.getValue().getValueType()) {
@@ -417,7 +658,7 @@ public class Resource {
 	@POST
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.APPLICATION_JSON)
-	public String json(JsonObject json, @Context Request request) throws IOException, URISyntaxException {
+	public void json(JsonObject json, @Suspended AsyncResponse asyncResponse, @Context Request request) throws IOException, URISyntaxException {
 		try {
 			logger.info("POST JSON {} from {}", json, request.getRemoteAddr());
 
@@ -435,16 +676,20 @@ public class Resource {
 				}
 			}
 
-			PostResult postResult = runPost(parseJson(json), toolString != null ? Tool.fromString(toolString) : null, request, true);
-
-			return postResult.jsonString;
+			runPost(parseJson(json), toolString != null ? Tool.fromString(toolString) : null, request, true).whenComplete((postResult, e) -> {
+				if (e != null) {
+					resume(asyncResponse, e);
+				} else {
+					asyncResponse.resume(Response.ok(postResult.json != null ? postResult.json : postResult.jsonStream).type(MediaType.APPLICATION_JSON + ";charset=utf-8").build());
+				}
+			});
 		} catch (Throwable e) {
 			logger.error("Exception!", e);
 			throw e;
 		}
 	}
 
-	private Response patch(JsonObject json, String key, Request request, String resource, DatabaseEntryType type, int max) throws IOException {
+	private void patch(JsonObject json, String key, AsyncResponse asyncResponse, Request request, String resource, DatabaseEntryType type, int max) {
 		logger.info("PATCH JSON {} {} from {}", resource, json, request.getRemoteAddr());
 		MultivaluedHashMap<String, String> params = parseJson(json);
 		List<String> databaseEntryIds = params.get(key);
@@ -460,19 +705,32 @@ public class Resource {
 		for (Object id : QueryLoader.fromServerEntry(requestString, type, max)) {
 			ids.add(new DatabaseEntryId(id, type));
 		}
-		List<DatabaseEntryEntry> databaseEntries = Server.processor.getDatabaseEntries(ids, fetcherArgs, Server.args.getServerPrivateArgs().getFetchingThreads());
-		Response response = Response.ok(Json.fromDatabaseEntries(key, databaseEntries, fetcherArgs)).type(MediaType.APPLICATION_JSON).build();
-		logger.info("PATCHED {} {}", resource, response.getEntity());
-		return response;
+		WorkerPools.ioStage("fetching", Server.args.getServerPrivateArgs().getFetchingTimeout(), () -> {
+			List<DatabaseEntryEntry> databaseEntries = Server.processor.getDatabaseEntries(ids, fetcherArgs, Server.args.getServerPrivateArgs().getFetchingThreads());
+			for (DatabaseEntryEntry databaseEntry : databaseEntries) {
+				if (databaseEntry.getEntry() != null) {
+					resultCache.refreshed(databaseEntry.getEntry().toStringId(), databaseEntry.getEntry().getFetchTime());
+				}
+			}
+			StreamingOutput stream = os -> Json.fromDatabaseEntries(key, databaseEntries, fetcherArgs, os);
+			return Response.ok(stream).type(MediaType.APPLICATION_JSON + ";charset=utf-8").build();
+		}).whenComplete((response, e) -> {
+			if (e != null) {
+				resume(asyncResponse, e);
+			} else {
+				logger.info("PATCHED {} {} entries", resource, ids.size());
+				asyncResponse.resume(response);
+			}
+		});
 	}
 
 	@Path("web")
 	@POST
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response patchWeb(JsonObject json, @Context Request request) throws IOException {
+	public void patchWeb(JsonObject json, @Suspended AsyncResponse asyncResponse, @Context Request request) {
 		try {
-			return patch(json, Query.WEBPAGE_URLS, request, "/web", DatabaseEntryType.webpage, MAX_LINKS_SIZE);
+			patch(json, Query.WEBPAGE_URLS, asyncResponse, request, "/web", DatabaseEntryType.webpage, MAX_LINKS_SIZE);
 		} catch (Throwable e) {
 			logger.error("Exception!", e);
 			throw e;
@@ -483,9 +741,9 @@ public class Resource {
 	@POST
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response patchDoc(JsonObject json, @Context Request request) throws IOException {
+	public void patchDoc(JsonObject json, @Suspended AsyncResponse asyncResponse, @Context Request request) {
 		try {
-			return patch(json, Query.DOC_URLS, request, "/doc", DatabaseEntryType.doc, MAX_LINKS_SIZE);
+			patch(json, Query.DOC_URLS, asyncResponse, request, "/doc", DatabaseEntryType.doc, MAX_LINKS_SIZE);
 		} catch (Throwable e) {
 			logger.error("Exception!", e);
 			throw e;
@@ -496,9 +754,9 @@ public class Resource {
 	@POST
 	@Consumes(MediaType.APPLICATION_JSON)
 	@Produces(MediaType.APPLICATION_JSON)
-	public Response patchPub(JsonObject json, @Context Request request) throws IOException {
+	public void patchPub(JsonObject json, @Suspended AsyncResponse asyncResponse, @Context Request request) {
 		try {
-			return patch(json, Query.PUBLICATION_IDS, request, "/pub", DatabaseEntryType.publication, MAX_PUBLICATION_IDS_SIZE);
+			patch(json, Query.PUBLICATION_IDS, asyncResponse, request, "/pub", DatabaseEntryType.publication, MAX_PUBLICATION_IDS_SIZE);
 		} catch (Throwable e) {
 			logger.error("Exception!", e);
 			throw e;
@@ -519,12 +777,159 @@ public class Resource {
 				requestString = String.join("\n", annotations);
 			}
 			logger.info("CHECK /edam {} from {}", requestString, request.getRemoteAddr());
-			Response response = Response.ok(Json.fromAnnotations(QueryLoader.fromServerEdam(requestString, Server.concepts))).type(MediaType.APPLICATION_JSON).build();
-			logger.info("CHECKED /edam {}", response.getEntity());
-			return response;
+			Map<EdamUri, Concept> checked = QueryLoader.fromServerEdam(requestString, Server.concepts);
+			StreamingOutput stream = os -> Json.fromAnnotations(checked, os);
+			logger.info("CHECKED /edam {}", checked.keySet());
+			return Response.ok(stream).type(MediaType.APPLICATION_JSON + ";charset=utf-8").build();
 		} catch (Throwable e) {
 			logger.error("Exception!", e);
 			throw e;
 		}
 	}
+
+	private URI getBatchLocation(Request request, String id, boolean results) throws URISyntaxException {
+		URI baseLocation = getBaseLocation(request);
+		return new URI(baseLocation.getScheme(), null, baseLocation.getHost(), baseLocation.getPort(), "/" + Server.args.getServerPrivateArgs().getPath() + "/api/batch/" + id + (results ? "/results" : ""), null, null);
+	}
+
+	@Path("batch")
+	@POST
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response batch(JsonObject json, @Context Request request) throws IOException, URISyntaxException {
+		try {
+			logger.info("POST JSON /batch from {}", request.getRemoteAddr());
+
+			JsonArray toolsJson;
+			JsonArray inputsJson;
+			try {
+				toolsJson = json.getJsonArray(BATCH_TOOLS);
+				inputsJson = json.getJsonArray(BATCH_INPUTS);
+			} catch (ClassCastException e) {
+				throw new IllegalRequestException(e);
+			}
+			if (toolsJson == null && inputsJson == null || toolsJson != null && inputsJson != null) {
+				throw new IllegalRequestException("Exactly one of \"" + BATCH_TOOLS + "\" or \"" + BATCH_INPUTS + "\" must be specified");
+			}
+			JsonArray entries = (toolsJson != null ? toolsJson : inputsJson);
+			if (entries.isEmpty()) {
+				throw new IllegalRequestException("No entries in batch");
+			}
+			if (entries.size() > MAX_BATCH_SIZE) {
+				throw new IllegalRequestException("Number of entries (" + entries.size() + ") is greater than maximum allowed (" + MAX_BATCH_SIZE + ")");
+			}
+
+			MultivaluedHashMap<String, String> params = parseJson(json);
+			String jsonVersion = getJsonVersion(params, true);
+			CoreArgs coreArgs = new CoreArgs();
+			ParamParse.parseParams(params, coreArgs, true);
+			coreArgs.setProcessorArgs(Server.args.getProcessorArgs());
+			coreArgs.getFetcherArgs().setPrivateArgs(Server.args.getFetcherPrivateArgs());
+			JsonType jsonType = getJsonType(params);
+
+			List<ServerInput> serverInputs = null;
+			List<Tool> tools = null;
+			if (toolsJson != null) {
+				tools = new ArrayList<>();
+				for (int i = 0; i < toolsJson.size(); ++i) {
+					JsonObject tool;
+					try {
+						tool = toolsJson.getJsonObject(i);
+					} catch (ClassCastException e) {
+						throw new IllegalRequestException(e);
+					}
+					String toolString = tool.toString();
+					if (toolString.length() > MAX_JSON_TOOL_LENGTH) {
+						throw new IllegalRequestException("\"tool\" length (" + toolString.length() + ") is greater than maximum allowed (" + MAX_JSON_TOOL_LENGTH + ")");
+					}
+					Tool t = Tool.fromString(toolString);
+					checkTool(t);
+					tools.add(t);
+				}
+			} else {
+				serverInputs = new ArrayList<>();
+				for (int i = 0; i < inputsJson.size(); ++i) {
+					MultivaluedHashMap<String, String> input;
+					try {
+						input = parseJson(inputsJson.getJsonObject(i));
+					} catch (ClassCastException e) {
+						throw new IllegalRequestException(e);
+					}
+					ServerInput serverInput = new ServerInput(
+						ParamParse.getParamStrings(input, Query.NAME),
+						ParamParse.getParamStrings(input, Query.KEYWORDS),
+						ParamParse.getParamStrings(input, Query.DESCRIPTION),
+						ParamParse.getParamStrings(input, Query.WEBPAGE_URLS),
+						ParamParse.getParamStrings(input, Query.DOC_URLS),
+						ParamParse.getParamStrings(input, Query.PUBLICATION_IDS),
+						ParamParse.getParamStrings(input, Query.ANNOTATIONS));
+					checkServerInput(serverInput);
+					serverInputs.add(serverInput);
+				}
+			}
+
+			BatchJob job = Batch.submit(coreArgs, jsonType, jsonVersion, serverInputs, tools);
+
+			URI location = getBatchLocation(request, job.getId(), false);
+			logger.info("POSTED JSON /batch {}", location);
+			return Response.accepted(job.toJson(location.toString(), getBatchLocation(request, job.getId(), true).toString()))
+				.location(location).type(MediaType.APPLICATION_JSON).build();
+		} catch (Throwable e) {
+			logger.error("Exception!", e);
+			throw e;
+		}
+	}
+
+	@Path("batch/{id}")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response batchStatus(@PathParam("id") String id, @Context Request request) throws URISyntaxException {
+		try {
+			BatchJob job = Batch.get(id);
+			return Response.ok(job.toJson(getBatchLocation(request, id, false).toString(), getBatchLocation(request, id, true).toString()))
+				.type(MediaType.APPLICATION_JSON).build();
+		} catch (Throwable e) {
+			logger.error("Exception!", e);
+			throw e;
+		}
+	}
+
+	@Path("batch/{id}/results")
+	@GET
+	@Produces({ BATCH_RESULTS_TYPE, MediaType.APPLICATION_JSON })
+	public Response batchResults(@PathParam("id") String id, @Context Request request) {
+		try {
+			logger.info("GET /batch/{}/results from {}", id, request.getRemoteAddr());
+			BatchJob job = Batch.get(id);
+			if (job.isFailed()) {
+				throw new IllegalRequestException("Writing results of batch job '" + id + "' failed");
+			}
+			if (!job.isDone()) {
+				throw new IllegalRequestException("Batch job '" + id + "' is not done yet");
+			}
+			final java.nio.file.Path resultsPath = job.getResultsPath();
+			if (!Files.exists(resultsPath)) {
+				throw new IllegalRequestException("Results of batch job '" + id + "' are not available");
+			}
+			StreamingOutput stream = os -> Files.copy(resultsPath, os);
+			return Response.ok(stream).type(BATCH_RESULTS_TYPE + ";charset=utf-8").build();
+		} catch (Throwable e) {
+			logger.error("Exception!", e);
+			throw e;
+		}
+	}
+
+	@Path("status")
+	@GET
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response status() {
+		return Response.ok(WorkerPools.toJson()).type(MediaType.APPLICATION_JSON).build();
+	}
+
+	@Path("metrics")
+	@GET
+	@Produces(METRICS_TYPE)
+	public Response metrics() {
+		return Response.ok(Metrics.toPrometheus()).type(METRICS_TYPE).build();
+	}
 }
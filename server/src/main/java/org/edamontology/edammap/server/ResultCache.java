@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.server;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.json.stream.JsonGenerator;
+
+public class ResultCache<V> {
+
+	private class Entry {
+		private final V value;
+		private final long created;
+		// IDs of database entries used for the result together with their fetch time
+		private final Map<String, Long> ids;
+		private Entry(V value, long created, Map<String, Long> ids) {
+			this.value = value;
+			this.created = created;
+			this.ids = ids;
+		}
+	}
+
+	private final int size;
+
+	private final long ttl;
+
+	private final LinkedHashMap<String, Entry> entries;
+
+	// database entry ID -> keys of results that used it
+	private final Map<String, Set<String>> index = new HashMap<>();
+
+	private long hits = 0;
+
+	private long misses = 0;
+
+	private long invalidations = 0;
+
+	ResultCache(int size, long ttlSeconds) {
+		this.size = size;
+		this.ttl = ttlSeconds * 1000L;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if (size() > ResultCache.this.size) {
+					unindex(eldest.getKey(), eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	static String digest(String key) {
+		MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		byte[] hash = md.digest(key.getBytes(StandardCharsets.UTF_8));
+		StringBuilder sb = new StringBuilder(hash.length * 2);
+		for (byte b : hash) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	private void unindex(String key, Entry entry) {
+		for (String id : entry.ids.keySet()) {
+			Set<String> keys = index.get(id);
+			if (keys != null) {
+				keys.remove(key);
+				if (keys.isEmpty()) {
+					index.remove(id);
+				}
+			}
+		}
+	}
+
+	private void remove(String key) {
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			unindex(key, entry);
+		}
+	}
+
+	boolean isEnabled() {
+		return size > 0;
+	}
+
+	synchronized V get(String key) {
+		if (size == 0) return null;
+		Entry entry = entries.get(key);
+		if (entry != null && ttl > 0 && System.currentTimeMillis() - entry.created > ttl) {
+			remove(key);
+			entry = null;
+		}
+		if (entry == null) {
+			++misses;
+			return null;
+		}
+		++hits;
+		return entry.value;
+	}
+
+	synchronized void put(String key, V value, Map<String, Long> ids) {
+		if (size == 0) return;
+		remove(key);
+		entries.put(key, new Entry(value, System.currentTimeMillis(), ids));
+		for (String id : ids.keySet()) {
+			Set<String> keys = index.get(id);
+			if (keys == null) {
+				keys = new HashSet<>();
+				index.put(id, keys);
+			}
+			keys.add(key);
+		}
+	}
+
+	// a database entry was (possibly) refetched, so results using an older version of it are invalidated
+	synchronized void refreshed(String id, long fetchTime) {
+		Set<String> keys = index.get(id);
+		if (keys == null) return;
+		for (String key : new HashSet<>(keys)) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				Long cachedFetchTime = entry.ids.get(id);
+				if (cachedFetchTime == null || cachedFetchTime < fetchTime) {
+					remove(key);
+					++invalidations;
+				}
+			}
+		}
+	}
+
+	synchronized void write(JsonGenerator generator, String name) {
+		generator.writeStartObject(name);
+		generator.write("size", entries.size());
+		generator.write("maxSize", size);
+		generator.write("hits", hits);
+		generator.write("misses", misses);
+		generator.write("invalidations", invalidations);
+		generator.writeEnd();
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public final class ResultFiles {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final long SWEEP_INTERVAL_HOURS = 1;
+
+	private static final String MONTH_PATTERN = "[0-9]{4}-[0-9]{2}";
+
+	private static final String BATCH_SUFFIX = "-batch";
+
+	// results directories (version/uuuu-MM/uuid) whose files are still being written
+	private static final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+	private static ScheduledExecutorService sweeper = null;
+
+	static void init(ServerPrivateArgs args) {
+		if (args.getResultsAge() > 0) {
+			long maxAgeMillis = args.getResultsAge() * 24L * 60 * 60 * 1000;
+			sweeper = Executors.newSingleThreadScheduledExecutor(WorkerPools.threadFactory("sweeper"));
+			sweeper.scheduleWithFixedDelay(() -> {
+				try {
+					sweep(Paths.get(args.getFiles()), maxAgeMillis);
+				} catch (Throwable e) {
+					logger.error("Exception!", e);
+				}
+			}, 0, SWEEP_INTERVAL_HOURS, TimeUnit.HOURS);
+		}
+	}
+
+	static void shutdown() {
+		if (sweeper != null) {
+			sweeper.shutdownNow();
+		}
+	}
+
+	private static void finish(String uuid, CompletableFuture<Void> done) {
+		pending.remove(uuid);
+		done.complete(null);
+	}
+
+	// the response can be sent before results are written to the results directory
+	// results stay pending until the writer itself returns, as a writer running out of its time budget is not interrupted
+	static void write(String uuid, int timeout, Callable<Void> writer) {
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		pending.put(uuid, done);
+		// claimed by whoever first gets to run the writer or to decide it will not be run
+		AtomicBoolean claimed = new AtomicBoolean(false);
+		Callable<Void> wrapped = () -> {
+			if (!claimed.compareAndSet(false, true)) return null;
+			try {
+				return writer.call();
+			} finally {
+				finish(uuid, done);
+			}
+		};
+		WorkerPools.outputStage("output", timeout, wrapped).whenComplete((r, e) -> {
+			if (e instanceof RejectedExecutionException) {
+				// IO threads are busy, so write in the current thread instead
+				try {
+					wrapped.call();
+					e = null;
+				} catch (Throwable ee) {
+					e = ee;
+				}
+			}
+			if (e instanceof StageTimeoutException) {
+				if (claimed.compareAndSet(false, true)) {
+					logger.error("Writing results to {} not started in {}s", uuid, timeout);
+					finish(uuid, done);
+				} else {
+					logger.warn("Writing results to {} still not finished in {}s", uuid, timeout);
+				}
+			} else if (e != null) {
+				logger.error("Writing results to {} failed", uuid);
+				logger.error("Exception!", e);
+			}
+		});
+	}
+
+	// wait for results to be written, if GET of the results directory comes before that is finished
+	static void await(String uri, int timeout) throws InterruptedException {
+		String[] parts = uri.split("/");
+		if (parts.length < 4) return;
+		CompletableFuture<Void> done = pending.get(parts[1] + "/" + parts[2] + "/" + parts[3]);
+		if (done == null) return;
+		try {
+			if (timeout > 0) {
+				done.get(timeout, TimeUnit.SECONDS);
+			} else {
+				done.get();
+			}
+		} catch (TimeoutException e) {
+			logger.warn("Results for {} not written in {}s", uri, timeout);
+		} catch (Exception e) {
+			logger.error("Exception!", e);
+		}
+	}
+
+	private static List<Path> list(Path dir) throws IOException {
+		try (Stream<Path> stream = Files.list(dir)) {
+			return stream.filter(Files::isDirectory).collect(Collectors.toList());
+		}
+	}
+
+	private static void delete(Path dir) throws IOException {
+		try (Stream<Path> stream = Files.walk(dir)) {
+			for (Path path : stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	// delete results directories under files/version/uuuu-MM/ not modified in the given time
+	static void sweep(Path files, long maxAgeMillis) throws IOException {
+		long start = System.currentTimeMillis();
+		int deleted = 0;
+		for (Path versionDir : list(files)) {
+			for (Path monthDir : list(versionDir)) {
+				if (!monthDir.getFileName().toString().matches(MONTH_PATTERN)) continue;
+				for (Path uuidDir : list(monthDir)) {
+					String name = uuidDir.getFileName().toString();
+					if (pending.containsKey(versionDir.getFileName() + "/" + monthDir.getFileName() + "/" + name)) continue;
+					if (name.endsWith(BATCH_SUFFIX) && Batch.exists(name.substring(0, name.length() - BATCH_SUFFIX.length()))) continue;
+					try {
+						if (start - Files.getLastModifiedTime(uuidDir).toMillis() > maxAgeMillis) {
+							delete(uuidDir);
+							++deleted;
+						}
+					} catch (IOException e) {
+						logger.error("Exception!", e);
+					}
+				}
+			}
+		}
+		if (deleted > 0) {
+			logger.info("Deleted {} old results directories in {}s", deleted, (System.currentTimeMillis() - start) / 1000.0);
+		}
+	}
+}
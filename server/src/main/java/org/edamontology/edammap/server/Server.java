@@ -41,12 +41,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.glassfish.grizzly.http.server.HttpHandler;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
 import org.glassfish.grizzly.http.server.StaticHttpHandler;
 import org.glassfish.grizzly.http.server.accesslog.AccessLogBuilder;
 import org.glassfish.grizzly.http.server.accesslog.ApacheLogFormat;
 import org.glassfish.grizzly.http.util.ContentType;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 
@@ -128,12 +130,34 @@ public final class Server {
 		logger.info("Loading concepts from {}", args.getEdam());
 		concepts = Edam.load(args.getEdam());
 
+		processor.setDatabaseEntryListener(Metrics.databaseEntryListener);
+
+		WorkerPools.init(args.getServerPrivateArgs());
+		Batch.init(args.getServerPrivateArgs().getBatchThreads(), args.getServerPrivateArgs().getBatchJobs());
+		Resource.initCache(args.getServerPrivateArgs());
+		ResultFiles.init(args.getServerPrivateArgs());
+
 		logger.info("Configuring server");
 
 		final ResourceConfig rc = new ResourceConfig().packages("org.edamontology.edammap.server");
 
 		HttpServer httpServer = GrizzlyHttpServerFactory.createHttpServer(URI.create(args.getServerPrivateArgs().getBaseUri() + "/" + args.getServerPrivateArgs().getPath() + "/api"), rc, false);
 
+		// 0 threads means the number of processors and a queue of 0 means no limit (-1 for Grizzly)
+		int serverThreads = args.getServerPrivateArgs().getServerThreads();
+		if (serverThreads == 0) {
+			serverThreads = Runtime.getRuntime().availableProcessors();
+		}
+		int serverQueue = args.getServerPrivateArgs().getServerQueue();
+		ThreadPoolConfig workerConfig = ThreadPoolConfig.defaultConfig().copy()
+			.setPoolName("edammap-worker")
+			.setCorePoolSize(serverThreads)
+			.setMaxPoolSize(serverThreads)
+			.setQueueLimit(serverQueue > 0 ? serverQueue : -1);
+		for (NetworkListener listener : httpServer.getListeners()) {
+			listener.getTransport().setWorkerThreadPoolConfig(workerConfig);
+		}
+
 		final StaticHttpHandler filesHttpHandler = new StaticHttpHandler(args.getServerPrivateArgs().getFiles()) {
 			@Override
 			protected boolean handle(String uri, Request request, Response response) throws Exception {
@@ -143,6 +167,7 @@ public final class Server {
 				if (extStart > -1 && path.substring(extStart).equals(".json")) {
 					response.getResponse().setContentType(MediaType.APPLICATION_JSON);
 				}
+				ResultFiles.await(uri, args.getServerPrivateArgs().getOutputTimeout());
 				return super.handle(uri, request, response);
 			}
 		};
@@ -193,6 +218,9 @@ public final class Server {
 			@Override
 			public void run() {
 				logger.info("Stopping server");
+				ResultFiles.shutdown();
+				Batch.shutdown();
+				WorkerPools.shutdown();
 				if (processor != null) {
 					try {
 						processor.closeDatabase();
@@ -59,6 +59,96 @@ public class ServerPrivateArgs extends Args {
 	@Parameter(names = { "--" + fetchingThreadsId }, validateWith = PositiveInteger.class, description = fetchingThreadsDescription)
 	private Integer fetchingThreads = fetchingThreadsDefault;
 
+	private static final String batchThreadsId = "batchThreads";
+	private static final String batchThreadsDescription = "How many threads to create for mapping the entries of batch jobs (shared by all batch jobs), 0 means the number of processors";
+	private static final Integer batchThreadsDefault = 4;
+	@Parameter(names = { "--" + batchThreadsId }, validateWith = PositiveInteger.class, description = batchThreadsDescription)
+	private Integer batchThreads = batchThreadsDefault;
+
+	private static final String batchJobsId = "batchJobs";
+	private static final String batchJobsDescription = "Maximum number of batch jobs that can be queued or running at the same time, 0 means no limit";
+	private static final Integer batchJobsDefault = 100;
+	@Parameter(names = { "--" + batchJobsId }, validateWith = PositiveInteger.class, description = batchJobsDescription)
+	private Integer batchJobs = batchJobsDefault;
+
+	private static final String serverThreadsId = "serverThreads";
+	private static final String serverThreadsDescription = "Number of worker threads of the HTTP server, 0 means the number of processors";
+	private static final Integer serverThreadsDefault = 32;
+	@Parameter(names = { "--" + serverThreadsId }, validateWith = PositiveInteger.class, description = serverThreadsDescription)
+	private Integer serverThreads = serverThreadsDefault;
+
+	private static final String serverQueueId = "serverQueue";
+	private static final String serverQueueDescription = "Maximum number of requests queued for the worker threads of the HTTP server, 0 means no limit";
+	private static final Integer serverQueueDefault = 1000;
+	@Parameter(names = { "--" + serverQueueId }, validateWith = PositiveInteger.class, description = serverQueueDescription)
+	private Integer serverQueue = serverQueueDefault;
+
+	private static final String mappingThreadsId = "mappingThreads";
+	private static final String mappingThreadsDescription = "Number of threads for CPU-bound work (processing of concepts, mapping) of requests, 0 means the number of processors";
+	private static final Integer mappingThreadsDefault = 4;
+	@Parameter(names = { "--" + mappingThreadsId }, validateWith = PositiveInteger.class, description = mappingThreadsDescription)
+	private Integer mappingThreads = mappingThreadsDefault;
+
+	private static final String mappingQueueId = "mappingQueue";
+	private static final String mappingQueueDescription = "Maximum number of requests waiting for a mapping thread, before new requests are rejected with 503 Service Unavailable; with 0, requests are rejected as soon as all mapping threads are busy";
+	private static final Integer mappingQueueDefault = 50;
+	@Parameter(names = { "--" + mappingQueueId }, validateWith = PositiveInteger.class, description = mappingQueueDescription)
+	private Integer mappingQueue = mappingQueueDefault;
+
+	private static final String ioThreadsId = "ioThreads";
+	private static final String ioThreadsDescription = "Number of threads for IO-bound work (fetching of webpages, docs and publications) of requests, 0 means the number of processors";
+	private static final Integer ioThreadsDefault = 16;
+	@Parameter(names = { "--" + ioThreadsId }, validateWith = PositiveInteger.class, description = ioThreadsDescription)
+	private Integer ioThreads = ioThreadsDefault;
+
+	private static final String ioQueueId = "ioQueue";
+	private static final String ioQueueDescription = "Maximum number of requests waiting for an IO thread, before new requests are rejected with 503 Service Unavailable; with 0, requests are rejected as soon as all IO threads are busy";
+	private static final Integer ioQueueDefault = 200;
+	@Parameter(names = { "--" + ioQueueId }, validateWith = PositiveInteger.class, description = ioQueueDescription)
+	private Integer ioQueue = ioQueueDefault;
+
+	private static final String retryAfterId = "retryAfter";
+	private static final String retryAfterDescription = "Number of seconds sent in the Retry-After header of 503 Service Unavailable responses";
+	private static final Integer retryAfterDefault = 30;
+	@Parameter(names = { "--" + retryAfterId }, validateWith = PositiveInteger.class, description = retryAfterDescription)
+	private Integer retryAfter = retryAfterDefault;
+
+	private static final String fetchingTimeoutId = "fetchingTimeout";
+	private static final String fetchingTimeoutDescription = "Time budget in seconds for fetching and processing the query of a request, 0 means no limit";
+	private static final Integer fetchingTimeoutDefault = 600;
+	@Parameter(names = { "--" + fetchingTimeoutId }, validateWith = PositiveInteger.class, description = fetchingTimeoutDescription)
+	private Integer fetchingTimeout = fetchingTimeoutDefault;
+
+	private static final String mappingTimeoutId = "mappingTimeout";
+	private static final String mappingTimeoutDescription = "Time budget in seconds for processing the concepts and mapping the query of a request, 0 means no limit";
+	private static final Integer mappingTimeoutDefault = 300;
+	@Parameter(names = { "--" + mappingTimeoutId }, validateWith = PositiveInteger.class, description = mappingTimeoutDescription)
+	private Integer mappingTimeout = mappingTimeoutDefault;
+
+	private static final String outputTimeoutId = "outputTimeout";
+	private static final String outputTimeoutDescription = "Time budget in seconds for outputting the results of a request, 0 means no limit; when exceeded, only the response fails, as writing of result files is not interrupted";
+	private static final Integer outputTimeoutDefault = 120;
+	@Parameter(names = { "--" + outputTimeoutId }, validateWith = PositiveInteger.class, description = outputTimeoutDescription)
+	private Integer outputTimeout = outputTimeoutDefault;
+
+	private static final String cacheSizeId = "cacheSize";
+	private static final String cacheSizeDescription = "Maximum number of results kept in the cache of identical mapping requests, 0 disables the cache";
+	private static final Integer cacheSizeDefault = 1000;
+	@Parameter(names = { "--" + cacheSizeId }, validateWith = PositiveInteger.class, description = cacheSizeDescription)
+	private Integer cacheSize = cacheSizeDefault;
+
+	private static final String cacheTtlId = "cacheTtl";
+	private static final String cacheTtlDescription = "Time in seconds a cached result is returned for identical mapping requests, 0 means no limit";
+	private static final Integer cacheTtlDefault = 3600;
+	@Parameter(names = { "--" + cacheTtlId }, validateWith = PositiveInteger.class, description = cacheTtlDescription)
+	private Integer cacheTtl = cacheTtlDefault;
+
+	private static final String resultsAgeId = "resultsAge";
+	private static final String resultsAgeDescription = "Results directories not modified in the given number of days are deleted, 0 means results are never deleted";
+	private static final Integer resultsAgeDefault = 0;
+	@Parameter(names = { "--" + resultsAgeId }, validateWith = PositiveInteger.class, description = resultsAgeDescription)
+	private Integer resultsAge = resultsAgeDefault;
+
 	@Override
 	protected void addArgs() {
 		args.add(new Arg<>(this::getBaseUri, null, baseUriDefault, baseUriId, "", baseUriDescription, null));
@@ -66,6 +156,21 @@ public class ServerPrivateArgs extends Args {
 		args.add(new Arg<>(this::isHttpsProxy, null, httpsProxyDefault, httpsProxyId, "", httpsProxyDescription, null));
 		args.add(new Arg<>(this::getFilesFilename, null, filesDefault, filesId, "", filesDescription, null));
 		args.add(new Arg<>(this::getFetchingThreads, null, 0, null, fetchingThreadsDefault, fetchingThreadsId, "", fetchingThreadsDescription, null));
+		args.add(new Arg<>(this::getBatchThreads, null, batchThreadsDefault, 0, null, batchThreadsId, "", batchThreadsDescription, null));
+		args.add(new Arg<>(this::getBatchJobs, null, batchJobsDefault, 0, null, batchJobsId, "", batchJobsDescription, null));
+		args.add(new Arg<>(this::getServerThreads, null, serverThreadsDefault, 0, null, serverThreadsId, "", serverThreadsDescription, null));
+		args.add(new Arg<>(this::getServerQueue, null, serverQueueDefault, 0, null, serverQueueId, "", serverQueueDescription, null));
+		args.add(new Arg<>(this::getMappingThreads, null, mappingThreadsDefault, 0, null, mappingThreadsId, "", mappingThreadsDescription, null));
+		args.add(new Arg<>(this::getMappingQueue, null, mappingQueueDefault, 0, null, mappingQueueId, "", mappingQueueDescription, null));
+		args.add(new Arg<>(this::getIoThreads, null, ioThreadsDefault, 0, null, ioThreadsId, "", ioThreadsDescription, null));
+		args.add(new Arg<>(this::getIoQueue, null, ioQueueDefault, 0, null, ioQueueId, "", ioQueueDescription, null));
+		args.add(new Arg<>(this::getRetryAfter, null, retryAfterDefault, 0, null, retryAfterId, "", retryAfterDescription, null));
+		args.add(new Arg<>(this::getFetchingTimeout, null, fetchingTimeoutDefault, 0, null, fetchingTimeoutId, "", fetchingTimeoutDescription, null));
+		args.add(new Arg<>(this::getMappingTimeout, null, mappingTimeoutDefault, 0, null, mappingTimeoutId, "", mappingTimeoutDescription, null));
+		args.add(new Arg<>(this::getOutputTimeout, null, outputTimeoutDefault, 0, null, outputTimeoutId, "", outputTimeoutDescription, null));
+		args.add(new Arg<>(this::getCacheSize, null, cacheSizeDefault, 0, null, cacheSizeId, "", cacheSizeDescription, null));
+		args.add(new Arg<>(this::getCacheTtl, null, cacheTtlDefault, 0, null, cacheTtlId, "", cacheTtlDescription, null));
+		args.add(new Arg<>(this::getResultsAge, null, resultsAgeDefault, 0, null, resultsAgeId, "", resultsAgeDescription, null));
 	}
 
 	@Override
@@ -100,4 +205,64 @@ public class ServerPrivateArgs extends Args {
 	public Integer getFetchingThreads() {
 		return fetchingThreads;
 	}
+
+	public Integer getBatchThreads() {
+		return batchThreads;
+	}
+
+	public Integer getBatchJobs() {
+		return batchJobs;
+	}
+
+	public Integer getServerThreads() {
+		return serverThreads;
+	}
+
+	public Integer getServerQueue() {
+		return serverQueue;
+	}
+
+	public Integer getMappingThreads() {
+		return mappingThreads;
+	}
+
+	public Integer getMappingQueue() {
+		return mappingQueue;
+	}
+
+	public Integer getIoThreads() {
+		return ioThreads;
+	}
+
+	public Integer getIoQueue() {
+		return ioQueue;
+	}
+
+	public Integer getRetryAfter() {
+		return retryAfter;
+	}
+
+	public Integer getFetchingTimeout() {
+		return fetchingTimeout;
+	}
+
+	public Integer getMappingTimeout() {
+		return mappingTimeout;
+	}
+
+	public Integer getOutputTimeout() {
+		return outputTimeout;
+	}
+
+	public Integer getCacheSize() {
+		return cacheSize;
+	}
+
+	public Integer getCacheTtl() {
+		return cacheTtl;
+	}
+
+	public Integer getResultsAge() {
+		return resultsAge;
+	}
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.server;
+
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.glassfish.grizzly.http.server.util.HtmlHelper;
+
+import org.edamontology.pubfetcher.core.common.PubFetcher;
+
+@Provider
+public class StageTimeoutExceptionMapper implements ExceptionMapper<StageTimeoutException> {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	@Context
+	private HttpHeaders headers;
+
+	@Override
+	public Response toResponse(StageTimeoutException e) {
+		logger.warn("Timeout: {}", e.getMessage());
+		Metrics.timedOut();
+		boolean json = ExceptionCommon.isJson(headers);
+		return Response.status(Status.SERVICE_UNAVAILABLE)
+			.header(HttpHeaders.RETRY_AFTER, Server.args.getServerPrivateArgs().getRetryAfter())
+			.entity(json ?
+				ExceptionCommon.toJson(Status.SERVICE_UNAVAILABLE, e.getMessage()) :
+				HtmlHelper.getErrorPage("Service Unavailable", PubFetcher.escapeHtml(e.getMessage()) + "<br>" + ExceptionCommon.time(), Server.version.getName() + " " + Server.version.getVersion()))
+			.type(json ? MediaType.APPLICATION_JSON : MediaType.TEXT_HTML + ";charset=utf-8").build();
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.edamontology.edammap.server;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+public final class WorkerPools {
+
+	private static ThreadPoolExecutor mapping = null;
+
+	private static ThreadPoolExecutor fetching = null;
+
+	private static ScheduledExecutorService scheduler = null;
+
+	private static final Map<ThreadPoolExecutor, AtomicLong> rejected = new HashMap<>();
+
+	// tasks that ran out of their time budget, but whose worker is still busy with them
+	private static final Map<ThreadPoolExecutor, AtomicInteger> overrunning = new HashMap<>();
+
+	private static final int QUEUED = 0;
+	private static final int RUNNING = 1;
+	private static final int DONE = 2;
+	private static final int TIMED_OUT = 3;
+
+	static ThreadFactory threadFactory(String name) {
+		final AtomicInteger threadNumber = new AtomicInteger(0);
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name + "-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	// 0 threads means the number of processors and a queue of 0 means requests are rejected when all threads are busy
+	private static ThreadPoolExecutor create(String name, int threads, int queue) {
+		final AtomicLong rejectedCount = new AtomicLong(0);
+		if (threads == 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		BlockingQueue<Runnable> workQueue = (queue > 0 ? new ArrayBlockingQueue<>(queue) : new SynchronousQueue<>());
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, workQueue, threadFactory(name),
+			new ThreadPoolExecutor.AbortPolicy() {
+				@Override
+				public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+					rejectedCount.incrementAndGet();
+					throw new RejectedExecutionException("Server is overloaded (" + e.getQueue().size() + " " + name + " tasks queued), try again later");
+				}
+			});
+		rejected.put(executor, rejectedCount);
+		overrunning.put(executor, new AtomicInteger(0));
+		return executor;
+	}
+
+	static void init(ServerPrivateArgs args) {
+		mapping = create("mapping", args.getMappingThreads(), args.getMappingQueue());
+		fetching = create("fetching", args.getIoThreads(), args.getIoQueue());
+		scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("timeout"));
+	}
+
+	static void shutdown() {
+		if (mapping != null) {
+			mapping.shutdownNow();
+		}
+		if (fetching != null) {
+			fetching.shutdownNow();
+		}
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	// a timeout fails only the result, a task already running is interrupted only if interrupt is true, but either way
+	// its worker is not free before the task returns, which is counted in overrunning until then
+	private static <T> CompletableFuture<T> stage(ThreadPoolExecutor executor, String stage, int timeout, boolean interrupt, Callable<T> task) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		AtomicInteger state = new AtomicInteger(QUEUED);
+		AtomicInteger overrunningCount = overrunning.get(executor);
+		Future<?> future;
+		try {
+			future = executor.submit(() -> {
+				if (!state.compareAndSet(QUEUED, RUNNING)) return;
+				try {
+					result.complete(task.call());
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				} finally {
+					if (!state.compareAndSet(RUNNING, DONE)) {
+						overrunningCount.decrementAndGet();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+			return result;
+		}
+		if (timeout > 0) {
+			ScheduledFuture<?> timeoutFuture = scheduler.schedule(() -> {
+				if (result.completeExceptionally(new StageTimeoutException(stage, timeout))) {
+					if (state.compareAndSet(QUEUED, TIMED_OUT)) {
+						future.cancel(false);
+					} else if (state.compareAndSet(RUNNING, TIMED_OUT)) {
+						overrunningCount.incrementAndGet();
+						if (interrupt) {
+							future.cancel(true);
+						}
+					}
+				}
+			}, timeout, TimeUnit.SECONDS);
+			result.whenComplete((r, e) -> timeoutFuture.cancel(false));
+		}
+		return result;
+	}
+
+	// CPU-bound work: processing of concepts, mapping
+	static <T> CompletableFuture<T> mappingStage(String stage, int timeout, Callable<T> task) {
+		return stage(mapping, stage, timeout, true, task);
+	}
+
+	// IO-bound work: fetching of webpages, docs and publications
+	static <T> CompletableFuture<T> ioStage(String stage, int timeout, Callable<T> task) {
+		return stage(fetching, stage, timeout, true, task);
+	}
+
+	// output of results, on the IO threads, but never interrupted, so that result files are not left half written
+	static <T> CompletableFuture<T> outputStage(String stage, int timeout, Callable<T> task) {
+		return stage(fetching, stage, timeout, false, task);
+	}
+
+	static int getOverrunningMapping() {
+		return mapping != null ? overrunning.get(mapping).get() : 0;
+	}
+
+	static int getOverrunningIo() {
+		return fetching != null ? overrunning.get(fetching).get() : 0;
+	}
+
+	private static void writePool(JsonGenerator generator, String name, ThreadPoolExecutor executor) {
+		generator.writeStartObject(name);
+		generator.write("threads", executor.getMaximumPoolSize());
+		generator.write("active", executor.getActiveCount());
+		generator.write("queued", executor.getQueue().size());
+		generator.write("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+		generator.write("completed", executor.getCompletedTaskCount());
+		AtomicLong rejectedCount = rejected.get(executor);
+		if (rejectedCount != null) {
+			generator.write("rejected", rejectedCount.get());
+		}
+		AtomicInteger overrunningCount = overrunning.get(executor);
+		if (overrunningCount != null) {
+			generator.write("overrunning", overrunningCount.get());
+		}
+		generator.writeEnd();
+	}
+
+	static String toJson() {
+		StringWriter writer = new StringWriter();
+		Map<String, Object> config = new HashMap<>();
+		config.put(JsonGenerator.PRETTY_PRINTING, true);
+		JsonGenerator generator = Json.createGeneratorFactory(config).createGenerator(writer);
+		generator.writeStartObject();
+		generator.write("success", true);
+		generator.write("time", ExceptionCommon.time());
+		generator.writeStartObject("pools");
+		writePool(generator, "mapping", mapping);
+		writePool(generator, "fetching", fetching);
+		writePool(generator, "batch", Batch.getExecutor());
+		generator.writeEnd();
+		Resource.writeCache(generator);
+		generator.writeEnd();
+		generator.close();
+		return writer.toString();
+	}
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright © 2026 Erik Jaaniso
+ *
+ * This file is part of EDAMmap.
+ *
+ * EDAMmap is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * EDAMmap is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with EDAMmap.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.edamontology.edammap.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.beust.jcommander.JCommander;
+
+import org.edamontology.pubfetcher.core.common.Arg;
+import org.edamontology.pubfetcher.core.common.Args;
+import org.edamontology.pubfetcher.core.common.PubFetcher;
+
+import org.edamontology.edammap.cli.CliArgs;
+import org.edamontology.edammap.core.args.CoreArgs;
+import org.edamontology.edammap.core.benchmarking.Benchmark;
+import org.edamontology.edammap.core.benchmarking.Measure;
+import org.edamontology.edammap.core.benchmarking.Measures;
+import org.edamontology.edammap.core.edam.Concept;
+import org.edamontology.edammap.core.edam.Edam;
+import org.edamontology.edammap.core.edam.EdamUri;
+import org.edamontology.edammap.core.idf.Idf;
+import org.edamontology.edammap.core.mapping.Mapper;
+import org.edamontology.edammap.core.mapping.Mapping;
+import org.edamontology.edammap.core.mapping.ScoreMatrix;
+import org.edamontology.edammap.core.mapping.args.MapperArgs;
+import org.edamontology.edammap.core.preprocessing.PreProcessor;
+import org.edamontology.edammap.core.processing.ConceptProcessed;
+import org.edamontology.edammap.core.processing.Processor;
+import org.edamontology.edammap.core.query.Query;
+import org.edamontology.edammap.core.query.QueryLoader;
+import org.edamontology.edammap.core.query.QueryProcessed;
+
+// Search for the MapperArgs giving the best benchmark results on a set of annotated queries
+// Queries are fetched and preprocessed once, only mapping and benchmarking is done for each configuration
+final class Tune {
+
+	private static final Logger logger = LogManager.getLogger();
+
+	private static final class Param {
+		private final String id;
+		private final List<Object> values;
+		private Param(String id, List<Object> values) {
+			this.id = id;
+			this.values = values;
+		}
+	}
+
+	private static final class Evaluation {
+		private final Object[] values;
+		private final Measures measures;
+		private Evaluation(Object[] values, Measures measures) {
+			this.values = values;
+			this.measures = measures;
+		}
+	}
+
+	private final CoreArgs coreArgs;
+	private final List<Param> params;
+	private final Measure measure;
+	private final ExecutorService executor;
+
+	private List<String> stopwords;
+	private Set<EdamUri> edamBlacklist;
+	private Map<EdamUri, Concept> concepts;
+	private Processor processor;
+	private List<Query> queries;
+	private List<QueryProcessed> processedQueries;
+
+	// processed concepts depend on IDF and multiplier args, so they are processed again only if these are tuned
+	private final Map<String, Map<EdamUri, ConceptProcessed>> processedConcepts = new ConcurrentHashMap<>();
+
+	// raw matches of queries under the base args, used for configurations differing only in args not affecting the matching of tokens
+	private String scoreMatrixKey = null;
+	private List<ScoreMatrix> scoreMatrices = null;
+
+	// all configurations evaluated so far, by key of values
+	private final Map<String, Evaluation> evaluations = new LinkedHashMap<>();
+
+	private Tune(CoreArgs coreArgs, List<Param> params, Measure measure, int threads) {
+		this.coreArgs = coreArgs;
+		this.params = params;
+		this.measure = measure;
+		this.executor = Executors.newFixedThreadPool(threads);
+	}
+
+	private static List<Args> mapperArgsList(MapperArgs mapperArgs) {
+		return Arrays.asList(mapperArgs, mapperArgs.getAlgorithmArgs(), mapperArgs.getIdfArgs(), mapperArgs.getMultiplierArgs(),
+			mapperArgs.getNormaliserArgs(), mapperArgs.getWeightArgs(), mapperArgs.getScoreArgs());
+	}
+
+	private static Arg<?, ?> getArg(MapperArgs mapperArgs, String id) {
+		for (Args args : mapperArgsList(mapperArgs)) {
+			for (Arg<?, ?> arg : args.getArgs()) {
+				if (arg.getId().equals(id)) {
+					return arg;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Object parseValue(Arg<?, ?> arg, String value) {
+		Object parsed;
+		Object base = arg.getValue();
+		try {
+			if (arg.getEnumClass() != null && !(base instanceof List)) {
+				parsed = enumValue(arg.getEnumClass(), value);
+			} else if (base instanceof Boolean) {
+				parsed = Boolean.valueOf(value);
+			} else if (base instanceof Integer) {
+				parsed = Integer.valueOf(value);
+			} else if (base instanceof Double) {
+				parsed = Double.valueOf(value);
+			} else {
+				throw new IllegalArgumentException("Parameter " + arg.getId() + " can't be tuned!");
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Parameter " + arg.getId() + " has wrong number format: " + value);
+		}
+		if (parsed instanceof Number) {
+			Object min = arg.getMin();
+			Object max = arg.getMax();
+			if (min != null && ((Number) parsed).doubleValue() < ((Number) min).doubleValue()) {
+				throw new IllegalArgumentException("Parameter " + arg.getId() + " value " + value + " is below limit " + min);
+			}
+			if (max != null && ((Number) parsed).doubleValue() > ((Number) max).doubleValue()) {
+				throw new IllegalArgumentException("Parameter " + arg.getId() + " value " + value + " is above limit " + max);
+			}
+		}
+		return parsed;
+	}
+
+	private static <E extends Enum<E>> E enumValue(Class<E> enumClass, String value) {
+		return Enum.valueOf(enumClass, value);
+	}
+
+	// "id=value,value,..", where a numeric value can also be a range "min:max:step"
+	private static Param parseParam(String param, MapperArgs mapperArgs) {
+		int eq = param.indexOf('=');
+		if (eq < 1 || eq == param.length() - 1) {
+			throw new IllegalArgumentException("Tuned parameter " + param + " is not in form id=value,value,..");
+		}
+		String id = param.substring(0, eq);
+		Arg<?, ?> arg = getArg(mapperArgs, id);
+		if (arg == null) {
+			throw new IllegalArgumentException("Tuned parameter " + id + " is not a mapping parameter!");
+		}
+		List<Object> values = new ArrayList<>();
+		for (String value : param.substring(eq + 1).split(",")) {
+			value = value.trim();
+			String[] range = value.split(":");
+			if (range.length == 3) {
+				BigDecimal from = new BigDecimal(range[0].trim());
+				BigDecimal to = new BigDecimal(range[1].trim());
+				BigDecimal step = new BigDecimal(range[2].trim());
+				if (step.signum() <= 0) {
+					throw new IllegalArgumentException("Step of range " + value + " of tuned parameter " + id + " must be positive!");
+				}
+				for (BigDecimal v = from; v.compareTo(to) <= 0; v = v.add(step)) {
+					values.add(parseValue(arg, v.toPlainString()));
+				}
+			} else {
+				values.add(parseValue(arg, value));
+			}
+		}
+		List<Object> distinct = values.stream().distinct().collect(Collectors.toList());
+		return new Param(id, distinct);
+	}
+
+	@SuppressWarnings("unchecked")
+	private MapperArgs mapperArgs(Object[] values) {
+		MapperArgs mapperArgs = new MapperArgs();
+		List<Args> to = mapperArgsList(mapperArgs);
+		List<Args> from = mapperArgsList(coreArgs.getMapperArgs());
+		for (int i = 0; i < to.size(); ++i) {
+			for (int j = 0; j < to.get(i).getArgs().size(); ++j) {
+				((Arg<Object, ?>) to.get(i).getArgs().get(j)).setValue(from.get(i).getArgs().get(j).getValue());
+			}
+		}
+		for (int i = 0; i < params.size(); ++i) {
+			((Arg<Object, ?>) getArg(mapperArgs, params.get(i).id)).setValue(values[i]);
+		}
+		return mapperArgs;
+	}
+
+	private static String key(List<Args> argsList) {
+		StringBuilder sb = new StringBuilder();
+		for (Args args : argsList) {
+			for (Arg<?, ?> arg : args.getArgs()) {
+				sb.append(arg.getId()).append('=').append(arg.getValue()).append('\n');
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String key(Object[] values) {
+		return Arrays.stream(values).map(String::valueOf).collect(Collectors.joining("\n"));
+	}
+
+	private Map<EdamUri, ConceptProcessed> getProcessedConcepts(MapperArgs mapperArgs) {
+		return processedConcepts.computeIfAbsent(key(Arrays.asList(mapperArgs.getIdfArgs(), mapperArgs.getMultiplierArgs())),
+			k -> processor.getProcessedConcepts(concepts, mapperArgs.getIdfArgs(), mapperArgs.getMultiplierArgs(), new PreProcessor(coreArgs.getPreProcessorArgs(), stopwords)));
+	}
+
+	private Measures evaluate(Object[] values) {
+		MapperArgs mapperArgs = mapperArgs(values);
+		Mapper mapper = new Mapper(getProcessedConcepts(mapperArgs), edamBlacklist);
+		boolean fromScoreMatrices = (scoreMatrices != null && scoreMatrixKey.equals(ScoreMatrix.key(mapperArgs)));
+		// mappings are benchmarked as they are made, without keeping them
+		Benchmark benchmark = new Benchmark(false);
+		for (int i = 0; i < queries.size(); ++i) {
+			Mapping mapping;
+			if (fromScoreMatrices) {
+				mapping = mapper.map(queries.get(i), scoreMatrices.get(i), mapperArgs);
+			} else {
+				mapping = mapper.map(queries.get(i), processedQueries.get(i), mapperArgs);
+			}
+			benchmark.add(queries.get(i), mapping);
+		}
+		return benchmark.getResults().getMeasuresTotal();
+	}
+
+	// only if some tuned parameter does not affect the matching of tokens for any of its values
+	private void scoreMatrices() {
+		MapperArgs baseArgs = mapperArgs(baseValues());
+		String baseKey = ScoreMatrix.key(baseArgs);
+		boolean needed = false;
+		for (int i = 0; i < params.size() && !needed; ++i) {
+			needed = true;
+			for (Object value : params.get(i).values) {
+				Object[] values = baseValues();
+				values[i] = value;
+				if (!baseKey.equals(ScoreMatrix.key(mapperArgs(values)))) {
+					needed = false;
+					break;
+				}
+			}
+		}
+		if (!needed) {
+			return;
+		}
+
+		logger.info("Computing score matrices of {} queries", queries.size());
+		long start = System.currentTimeMillis();
+		Map<EdamUri, ConceptProcessed> baseConcepts = getProcessedConcepts(baseArgs);
+		List<Callable<ScoreMatrix>> tasks = new ArrayList<>();
+		for (QueryProcessed processedQuery : processedQueries) {
+			tasks.add(() -> new Mapper(baseConcepts, edamBlacklist).getScoreMatrix(processedQuery, baseArgs));
+		}
+		scoreMatrices = invokeAll(tasks);
+		scoreMatrixKey = baseKey;
+		logger.info("Computed score matrices of {} queries in {}s", queries.size(), (System.currentTimeMillis() - start) / 1000.0);
+	}
+
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		return results;
+	}
+
+	// evaluate the not yet evaluated configurations in parallel, return evaluations of all given configurations
+	private List<Evaluation> evaluate(List<Object[]> candidates) {
+		List<Object[]> evaluate = new ArrayList<>();
+		Set<String> keys = new HashSet<>();
+		for (Object[] values : candidates) {
+			String key = key(values);
+			if (!evaluations.containsKey(key) && keys.add(key)) {
+				evaluate.add(values);
+			}
+		}
+		if (!evaluate.isEmpty()) {
+			long start = System.currentTimeMillis();
+			List<Callable<Measures>> tasks = new ArrayList<>();
+			for (Object[] values : evaluate) {
+				tasks.add(() -> evaluate(values));
+			}
+			List<Measures> measures = invokeAll(tasks);
+			for (int i = 0; i < evaluate.size(); ++i) {
+				evaluations.put(key(evaluate.get(i)), new Evaluation(evaluate.get(i), measures.get(i)));
+			}
+			Evaluation best = best(evaluations.values());
+			logger.info("Evaluated {} configurations in {}s, {} in total, best {} {}", evaluate.size(), (System.currentTimeMillis() - start) / 1000.0,
+				evaluations.size(), measure, best.measures.getMeasure(measure));
+		}
+		return candidates.stream().map(values -> evaluations.get(key(values))).collect(Collectors.toList());
+	}
+
+	private Evaluation best(Iterable<Evaluation> evaluations) {
+		Evaluation best = null;
+		for (Evaluation evaluation : evaluations) {
+			if (best == null || evaluation.measures.getMeasure(measure) > best.measures.getMeasure(measure)) {
+				best = evaluation;
+			}
+		}
+		return best;
+	}
+
+	private Object[] baseValues() {
+		Object[] values = new Object[params.size()];
+		for (int i = 0; i < params.size(); ++i) {
+			values[i] = getArg(coreArgs.getMapperArgs(), params.get(i).id).getValue();
+		}
+		return values;
+	}
+
+	private void grid() {
+		List<Object[]> candidates = new ArrayList<>();
+		candidates.add(new Object[params.size()]);
+		for (int i = 0; i < params.size(); ++i) {
+			List<Object[]> next = new ArrayList<>();
+			for (Object[] candidate : candidates) {
+				for (Object value : params.get(i).values) {
+					Object[] values = candidate.clone();
+					values[i] = value;
+					next.add(values);
+				}
+			}
+			candidates = next;
+		}
+		logger.info("Grid search over {} configurations", candidates.size());
+		evaluate(candidates);
+	}
+
+	private void random(int iterations, long seed) {
+		long size = 1;
+		for (Param param : params) {
+			size *= param.values.size();
+			if (size > iterations) break;
+		}
+		int n = (int) Math.min(iterations, size);
+		logger.info("Random search over {} configurations", n);
+		Random random = new Random(seed);
+		Map<String, Object[]> candidates = new LinkedHashMap<>();
+		while (candidates.size() < n) {
+			Object[] values = new Object[params.size()];
+			for (int i = 0; i < params.size(); ++i) {
+				List<Object> paramValues = params.get(i).values;
+				values[i] = paramValues.get(random.nextInt(paramValues.size()));
+			}
+			candidates.putIfAbsent(key(values), values);
+		}
+		evaluate(new ArrayList<>(candidates.values()));
+	}
+
+	// starting from the base configuration, set one parameter at a time to its best value, until no parameter changes in a round
+	private void coordinate(int rounds) {
+		Evaluation current = evaluate(Arrays.<Object[]>asList(baseValues())).get(0);
+		for (int round = 0; round < rounds; ++round) {
+			boolean changed = false;
+			for (int i = 0; i < params.size(); ++i) {
+				List<Object[]> candidates = new ArrayList<>();
+				for (Object value : params.get(i).values) {
+					Object[] values = current.values.clone();
+					values[i] = value;
+					candidates.add(values);
+				}
+				Evaluation best = best(evaluate(candidates));
+				if (best.measures.getMeasure(measure) > current.measures.getMeasure(measure)) {
+					current = best;
+					changed = true;
+				}
+			}
+			logger.info("Coordinate descent round {}: {} {}", round + 1, measure, current.measures.getMeasure(measure));
+			if (!changed) {
+				break;
+			}
+		}
+	}
+
+	private void load(CliArgs cliArgs) throws IOException, ParseException {
+		stopwords = PreProcessor.getStopwords(coreArgs.getPreProcessorArgs().getStopwords());
+		edamBlacklist = Edam.getBlacklist();
+
+		processor = new Processor(coreArgs.getProcessorArgs(), coreArgs.getFetcherArgs().getPrivateArgs());
+
+		Idf idf = null;
+		String idfPath = coreArgs.getPreProcessorArgs().isStemming() ? coreArgs.getProcessorArgs().getIdfStemmed() : coreArgs.getProcessorArgs().getIdf();
+		if (idfPath != null && !idfPath.isEmpty()) {
+			logger.info("Loading IDF from {}", idfPath);
+			idf = new Idf(idfPath);
+		}
+
+		logger.info("Loading concepts from {}", cliArgs.getEdam());
+		concepts = Edam.load(cliArgs.getEdam());
+
+		logger.info("Loading queries from {}", cliArgs.getQuery());
+		queries = QueryLoader.get(cliArgs.getQuery(), cliArgs.getType(), concepts,
+			coreArgs.getFetcherArgs().getTimeout(), coreArgs.getFetcherArgs().getPrivateArgs().getUserAgent());
+
+		logger.info("Processing {} queries", queries.size());
+		long start = System.currentTimeMillis();
+		ThreadLocal<PreProcessor> pp = ThreadLocal.withInitial(() -> new PreProcessor(coreArgs.getPreProcessorArgs(), stopwords));
+		final Idf queryIdf = idf;
+		List<Callable<QueryProcessed>> tasks = new ArrayList<>();
+		for (Query query : queries) {
+			tasks.add(() -> processor.getProcessedQuery(query, cliArgs.getType(), pp.get(), queryIdf, coreArgs.getFetcherArgs(), null));
+		}
+		processedQueries = invokeAll(tasks);
+		logger.info("Processed {} queries in {}s", queries.size(), (System.currentTimeMillis() - start) / 1000.0);
+	}
+
+	private void write(String outputPath) throws IOException {
+		List<Evaluation> sorted = new ArrayList<>(evaluations.values());
+		sorted.sort(Comparator.comparingDouble((Evaluation e) -> e.measures.getMeasure(measure)).reversed());
+		try (BufferedWriter writer = Files.newBufferedWriter(PubFetcher.outputPath(outputPath), StandardCharsets.UTF_8)) {
+			List<String> header = new ArrayList<>();
+			for (Param param : params) {
+				header.add(param.id);
+			}
+			for (Measure m : Measure.values()) {
+				header.add(m.name());
+			}
+			writer.write(String.join("\t", header));
+			writer.write("\n");
+			for (Evaluation evaluation : sorted) {
+				List<String> row = new ArrayList<>();
+				for (Object value : evaluation.values) {
+					row.add(String.valueOf(value));
+				}
+				for (Measure m : Measure.values()) {
+					row.add(Double.toString(evaluation.measures.getMeasure(m)));
+				}
+				writer.write(String.join("\t", row));
+				writer.write("\n");
+			}
+		}
+	}
+
+	static void run(String optionsPath, String outputPath, UtilArgs args) throws IOException, ParseException {
+		logger.info("Tune mapping parameters {} with options from {} to {}", args.tuneParam, optionsPath, outputPath);
+
+		if (args.tuneParam == null || args.tuneParam.isEmpty()) {
+			throw new IllegalArgumentException("No parameters to tune given with --tune-param");
+		}
+
+		if (args.tuneThreads < 1 || args.tuneIterations < 1) {
+			throw new IllegalArgumentException("--tune-threads and --tune-iterations must be positive");
+		}
+
+		// base configuration in the format of the options file of EDAMmap-CLI
+		CliArgs cliArgs = new CliArgs();
+		JCommander.newBuilder().addObject(cliArgs).build().parse("@" + optionsPath);
+
+		List<Param> params = new ArrayList<>();
+		for (String param : args.tuneParam) {
+			params.add(parseParam(param, cliArgs.getCoreArgs().getMapperArgs()));
+		}
+
+		Tune tune = new Tune(cliArgs.getCoreArgs(), params, args.tuneMeasure, args.tuneThreads);
+		try {
+			tune.load(cliArgs);
+			if (args.tuneScoreMatrix) {
+				tune.scoreMatrices();
+			}
+
+			switch (args.tuneSearch) {
+				case grid: tune.grid(); break;
+				case random: tune.random(args.tuneIterations, args.tuneSeed); break;
+				case coordinate: tune.coordinate(args.tuneIterations); break;
+			}
+
+			Evaluation best = tune.best(tune.evaluations.values());
+			List<String> bestValues = new ArrayList<>();
+			for (int i = 0; i < params.size(); ++i) {
+				bestValues.add("--" + params.get(i).id + " " + best.values[i]);
+			}
+			logger.info("Best {} {} with {}", args.tuneMeasure, best.measures.getMeasure(args.tuneMeasure), String.join(" ", bestValues));
+
+			tune.write(outputPath);
+			logger.info("Wrote {} evaluated configurations to {}", tune.evaluations.size(), outputPath);
+		} finally {
+			tune.executor.shutdownNow();
+			if (tune.processor != null) {
+				tune.processor.closeDatabase();
+			}
+		}
+	}
+}
@@ -46,6 +46,7 @@ import org.edamontology.edammap.core.output.Report;
 import org.edamontology.edammap.core.preprocessing.PreProcessor;
 import org.edamontology.edammap.core.processing.Processor;
 import org.edamontology.edammap.core.processing.ProcessorArgs;
+import org.edamontology.edammap.core.processing.SharedDatabase;
 import org.edamontology.edammap.core.query.QueryLoader;
 import org.edamontology.edammap.server.Server;
 
@@ -84,6 +85,12 @@ public final class Util {
 		}
 	}
 
+	private static void mergeDb(String sidePath, String path, UtilArgs args) throws IOException {
+		logger.info("Merge side database {} to database {}", sidePath, path);
+		int count = SharedDatabase.merge(sidePath, path, args.fetcherArgs);
+		logger.info("Merged {} entries to {}", count, path);
+	}
+
 	private static void makeServerFiles(String outputPath, Version version) throws IOException {
 		logger.info("Copying server CSS, JS and fonts to {}", outputPath);
 		Path path = PubFetcher.outputPath(outputPath, true, false);
@@ -245,6 +252,10 @@ public final class Util {
 			printIdf(idfPath, args.printIdfStemmed, true);
 		}
 
+		if (args.mergeDb != null) {
+			mergeDb(args.mergeDb.get(0), args.mergeDb.get(1), args);
+		}
+
 		if (args.biotoolsFull != null) {
 			BiotoolsFull.get(args.biotoolsFull, args.fetcherArgs, false, false);
 		}
@@ -252,6 +263,10 @@ public final class Util {
 			BiotoolsFull.get(args.biotoolsDevFull, args.fetcherArgs, true, false);
 		}
 
+		if (args.tune != null) {
+			Tune.run(args.tune.get(0), args.tune.get(1), args);
+		}
+
 		if (args.makeServerFiles != null) {
 			makeServerFiles(args.makeServerFiles, version);
 		}
@@ -28,6 +28,7 @@ import org.edamontology.pubfetcher.cli.PubFetcherArgs;
 import org.edamontology.pubfetcher.core.common.BasicArgs;
 import org.edamontology.pubfetcher.core.common.FetcherArgs;
 
+import org.edamontology.edammap.core.benchmarking.Measure;
 import org.edamontology.edammap.core.query.QueryType;
 
 public class UtilArgs extends BasicArgs {
@@ -77,6 +78,9 @@ public class UtilArgs extends BasicArgs {
 	@Parameter(names = { "-print-idf-stemmed", "-print-query-idf-stemmed" }, variableArity = true, description = "Argument order: idfPath, term, term, ... Print given terms along with their IDF scores (between 0 and 1) read from the given IDF file. Given terms are preprocessed, with stemming being done, thus terms in the given IDF file must also be stemmed.")
 	List<String> printIdfStemmed = null;
 
+	@Parameter(names = { "-merge-db" }, arity = 2, description = "Argument order: sideDatabase, database. Merge all publications, webpages and docs from the specified side database (as written with --dbSide) to the specified shared database, overwriting existing entries there that were fetched earlier. The shared database is locked for the duration of the merge, so processes using it with --dbSide keep reading from their old snapshot of it until the merge is done.")
+	List<String> mergeDb = null;
+
 	@Parameter(names = { "-biotools-full" }, description = "Fetch all content (by following \"next\" until the last page) from https://bio.tools/api/tool to the specified JSON file. Fetching parameters --timeout and --userAgent can be used.")
 	String biotoolsFull = null;
 
@@ -89,6 +93,30 @@ public class UtilArgs extends BasicArgs {
 	@Parameter(names = { "-make-options-conf" }, description = "Create new options configuration file")
 	String makeOptionsConf = null;
 
+	@Parameter(names = { "-tune" }, arity = 2, description = "Argument order: optionsPath, outputPath. Search for the values of mapping parameters given with --tune-param that give the best benchmarking results (measure --tune-measure) for the annotated queries. The EDAM ontology, the queries and all other parameters are read from the specified options file of EDAMmap-CLI (as created with -make-options-conf). Queries are fetched and preprocessed only once, after which only mapping and benchmarking is done for the configurations of the search --tune-search, in parallel with --tune-threads threads. All evaluated configurations along with their measures are written to the specified output file, sorted from best to worst.")
+	List<String> tune = null;
+
+	@Parameter(names = { "--tune-param" }, description = "A mapping parameter to tune with -tune, in form id=value,value,... where a numeric value can also be a range min:max:step, for example --tune-param goodScoreTopic=0.5:1:0.05. Can be specified multiple times.")
+	List<String> tuneParam = null;
+
+	@Parameter(names = { "--tune-search" }, description = "Search method of -tune: grid evaluates all combinations of values of --tune-param, random evaluates --tune-iterations random combinations and coordinate starts from the values in the options file and changes one parameter at a time to its best value, for at most --tune-iterations rounds over all parameters or until no parameter changes in a round")
+	TuneSearch tuneSearch = TuneSearch.coordinate;
+
+	@Parameter(names = { "--tune-measure" }, description = "Benchmarking measure (averaged over branches) to maximise with -tune")
+	Measure tuneMeasure = Measure.AveP;
+
+	@Parameter(names = { "--tune-iterations" }, description = "Number of configurations evaluated with -tune if --tune-search is random and maximum number of rounds if --tune-search is coordinate")
+	int tuneIterations = 100;
+
+	@Parameter(names = { "--tune-seed" }, description = "Seed of the random generator if --tune-search is random")
+	long tuneSeed = 1;
+
+	@Parameter(names = { "--tune-score-matrix" }, arity = 1, description = "Whether -tune matches the tokens of the queries only once under the values in the options file and then maps from these raw scores for configurations that differ only in parameters not affecting the matching of tokens (normalisers, weights, score limits, etc). Needs memory proportional to the number of queries and the number of concepts in --branches.")
+	boolean tuneScoreMatrix = true;
+
+	@Parameter(names = { "--tune-threads" }, description = "Number of threads for preprocessing queries and evaluating configurations with -tune")
+	int tuneThreads = Runtime.getRuntime().availableProcessors();
+
 	@ParametersDelegate
 	FetcherArgs fetcherArgs = new FetcherArgs();
 